@@ -116,4 +116,15 @@ public abstract class AbstractBasicDetails implements BasicDetails {
 		this.name = name;
 	}
 
+	// -- Internal methods --
+
+	/** Copies the name, label, description and extra values of the details. */
+	protected void setBasicDetails(final AbstractBasicDetails details) {
+		name = details.name;
+		label = details.label;
+		description = details.description;
+		values.clear();
+		values.putAll(details.values);
+	}
+
 }
@@ -30,7 +30,6 @@
 package org.scijava;
 
 import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
@@ -51,8 +50,6 @@ import org.scijava.plugin.PluginIndex;
 import org.scijava.service.Service;
 import org.scijava.service.ServiceHelper;
 import org.scijava.service.ServiceIndex;
-import org.scijava.util.ClassUtils;
-import org.scijava.util.Query;
 import org.scijava.util.Types;
 
 /**
@@ -92,6 +89,12 @@ public class Context implements Disposable, AutoCloseable {
 	/** Master index of all plugins known to the application context. */
 	private final PluginIndex pluginIndex;
 
+	/** Types of services with which the context was created. */
+	private final Collection<Class<? extends Service>> serviceClasses;
+
+	/** Timings of context creation, or null if profiling is disabled. */
+	private final ContextProfiler profiler;
+
 	/**
 	 * Whether context creation and injection should behave strictly, failing fast
 	 * when attempting to instantiate a required service which is invalid or
@@ -291,41 +294,60 @@ public class Context implements Disposable, AutoCloseable {
 		final PluginIndex pluginIndex, final boolean strict)
 	{
 		serviceIndex = new ServiceIndex();
-
 		this.pluginIndex = pluginIndex == null ? new PluginIndex() : pluginIndex;
-		this.pluginIndex.discover();
-
+		this.serviceClasses = serviceClasses;
 		setStrict(strict);
 
-		if (!serviceClasses.isEmpty()) {
-			final ServiceHelper serviceHelper = //
-				new ServiceHelper(this, serviceClasses, strict);
-			serviceHelper.loadServices();
-		}
-
-		// If JVM shuts down with context still active, clean up after ourselves.
-		if (shutdownThread == null) {
-			synchronized (Context.class) {
-				if (shutdownThread == null) {
-					shutdownThread = new Thread(() -> {
-						final List<Context> contexts = new ArrayList<>(CONTEXTS.keySet());
-						for (final Context context : contexts) {
-							context.doDispose(false);
-						}
-					});
-					Runtime.getRuntime().addShutdownHook(shutdownThread);
-				}
+		profiler = ContextProfiler.isEnabled() ? new ContextProfiler() : null;
+		if (profiler == null) initialize(serviceClasses);
+		else {
+			profiler.activate();
+			try {
+				profile("creation", () -> initialize(serviceClasses));
+			}
+			finally {
+				profiler.finish();
 			}
 		}
-		CONTEXTS.put(this, true);
-
-		// Publish an event to indicate that context initialization is complete.
-		final EventService eventService = getService(EventService.class);
-		if (eventService != null) eventService.publish(new ContextCreatedEvent());
 	}
 
 	// -- Context methods --
 
+	/**
+	 * Creates a new context with the same services as this one, whose plugins
+	 * are copied from this context's plugin index rather than discovered anew.
+	 * <p>
+	 * This makes creating a child context much cheaper than creating a context
+	 * from scratch, since the annotation indexes need not be read and parsed
+	 * again, and the classes of any already-loaded plugins (in particular, the
+	 * service implementations) are shared. The child has its own services,
+	 * though, and is otherwise fully independent of this context: it is, e.g.,
+	 * neither disposed along with it, nor affected by plugins subsequently added
+	 * to its own index.
+	 * </p>
+	 * <p>
+	 * The child's plugins are copies of this context's plugins as of this call
+	 * (see {@link PluginIndex#createChild()}); this context's plugin index
+	 * remains writable.
+	 * </p>
+	 */
+	public Context createChild() {
+		return createChild(serviceClasses);
+	}
+
+	/**
+	 * Creates a new context with the specified services (and any required
+	 * service dependencies), whose plugins are copied from this context's plugin
+	 * index rather than discovered anew.
+	 *
+	 * @see #createChild()
+	 */
+	public Context createChild(
+		final Collection<Class<? extends Service>> childServiceClasses)
+	{
+		return new Context(childServiceClasses, pluginIndex.createChild(), strict);
+	}
+
 	public ServiceIndex getServiceIndex() {
 		return serviceIndex;
 	}
@@ -334,6 +356,17 @@ public class Context implements Disposable, AutoCloseable {
 		return pluginIndex;
 	}
 
+	/**
+	 * Gets the timings recorded during creation of this context, or null if
+	 * context creation was not profiled.
+	 *
+	 * @see ContextProfiler#PROFILE_PROPERTY
+	 * @see ContextProfiler#TRACE_PROPERTY
+	 */
+	public ContextProfiler getProfiler() {
+		return profiler;
+	}
+
 	public boolean isStrict() {
 		return strict;
 	}
@@ -415,22 +448,19 @@ public class Context implements Disposable, AutoCloseable {
 	 *           which is not available from this context.
 	 */
 	public void inject(final Object o) {
-		// Ensure parameter fields and event handler methods are cached for this
-		// object.
-		final Query query = new Query();
-		query.put(Parameter.class, Field.class);
-		query.put(EventHandler.class, Method.class);
-		ClassUtils.cacheAnnotatedObjects(o.getClass(), query);
+		// NB: The plan caches the class's parameter fields and whether it has
+		// event handler methods, so this is cheap after the first injection.
+		final InjectionPlan plan = InjectionPlan.get(o.getClass());
 
 		// iterate over all @Parameter annotated fields
-		final List<Field> fields = getParameterFields(o);
-		for (final Field f : fields) {
+		if (plan.fieldError() != null) handleSafely(plan.fieldError());
+		for (final InjectionPlan.FieldInjector f : plan.fields()) {
 			inject(f, o);
 		}
 
 		// NB: Subscribe to all events handled by this object.
 		// This greatly simplifies event handling.
-		subscribeToEvents(o);
+		if (plan.hasEventHandlers()) subscribeToEvents(o);
 	}
 
 	/**
@@ -495,26 +525,67 @@ public class Context implements Disposable, AutoCloseable {
 
 	// -- Helper methods --
 
-	private List<Field> getParameterFields(final Object o) {
-		try {
-			return ClassUtils.getAnnotatedFields(o.getClass(), Parameter.class);
+	/** Discovers plugins, loads services, and announces the new context. */
+	private void initialize(
+		final Collection<Class<? extends Service>> serviceClasses)
+	{
+		profile("plugin discovery", () -> pluginIndex.discover());
+
+		if (!serviceClasses.isEmpty()) {
+			profile("service loading", () -> {
+				final ServiceHelper serviceHelper = //
+					new ServiceHelper(this, serviceClasses, strict);
+				serviceHelper.loadServices();
+			});
 		}
-		catch (final Throwable t) {
-			handleSafely(t);
+
+		// If JVM shuts down with context still active, clean up after ourselves.
+		if (shutdownThread == null) {
+			synchronized (Context.class) {
+				if (shutdownThread == null) {
+					shutdownThread = new Thread(() -> {
+						final List<Context> contexts = new ArrayList<>(CONTEXTS.keySet());
+						for (final Context context : contexts) {
+							context.doDispose(false);
+						}
+					});
+					Runtime.getRuntime().addShutdownHook(shutdownThread);
+				}
+			}
+		}
+		CONTEXTS.put(this, true);
+
+		// Publish an event to indicate that context initialization is complete.
+		final EventService eventService = getService(EventService.class);
+		if (eventService != null) {
+			profile("created event", //
+				() -> eventService.publish(new ContextCreatedEvent()));
 		}
-		return Collections.emptyList();
 	}
 
-	private void inject(final Field f, final Object o) {
+	/** Runs the given phase of context creation, timing it if profiling. */
+	private void profile(final String phase, final Runnable r) {
+		if (profiler == null) {
+			r.run();
+			return;
+		}
+		final ContextProfiler.Phase p = profiler.begin("context", phase);
 		try {
-			f.setAccessible(true); // expose private fields
+			r.run();
+		}
+		finally {
+			profiler.end(p);
+		}
+	}
 
-			final Class<?> type = f.getType();
-			if (Service.class.isAssignableFrom(type)) {
-				final Service existingService = (Service) ClassUtils.getValue(f, o);
+	private void inject(final InjectionPlan.FieldInjector f, final Object o) {
+		try {
+			final Class<?> type = f.type();
+			if (f.kind() == InjectionPlan.Kind.SERVICE) {
+				final Service existingService = (Service) f.get(o);
 				if (strict && existingService != null) {
 					throw new IllegalStateException("Context already injected: " + //
-						f.getDeclaringClass().getName() + "#" + f.getName());
+						name(f));
 				}
 
 				// populate Service parameter
@@ -522,35 +593,33 @@ public class Context implements Disposable, AutoCloseable {
 				final Class<? extends Service> serviceType =
 					(Class<? extends Service>) type;
 				final Service service = getService(serviceType);
-				if (service == null && f.getAnnotation(Parameter.class).required()) {
+				if (service == null && f.isRequired()) {
 					throw new IllegalArgumentException(//
 						createMissingServiceMessage(serviceType));
 				}
 				if (existingService != null && existingService != service) {
 					// NB: Can only happen in non-strict mode.
-					throw new IllegalStateException("Mismatched context: " + //
-						f.getDeclaringClass().getName() + "#" + f.getName());
+					throw new IllegalStateException("Mismatched context: " + name(f));
 				}
-				ClassUtils.setValue(f, o, service);
+				f.set(o, service);
 			}
-			else if (Context.class.isAssignableFrom(type) && type.isInstance(this)) {
-				final Context existingContext = (Context) ClassUtils.getValue(f, o);
+			else if (f.kind() == InjectionPlan.Kind.CONTEXT && type.isInstance(this)) {
+				final Context existingContext = (Context) f.get(o);
 				if (strict && existingContext != null) {
 					throw new IllegalStateException("Context already injected: " + //
-						f.getDeclaringClass().getName() + "#" + f.getName());
+						name(f));
 				}
 				if (existingContext != null && existingContext != this) {
 					// NB: Can only happen in non-strict mode.
-					throw new IllegalStateException("Mismatched context: " + //
-						f.getDeclaringClass().getName() + "#" + f.getName());
+					throw new IllegalStateException("Mismatched context: " + name(f));
 				}
 
 				// populate Context parameter
-				ClassUtils.setValue(f, o, this);
+				f.set(o, this);
 			}
-			else if (!type.isPrimitive()) {
+			else {
 				// the parameter is some other object; if it is non-null, we recurse
-				final Object value = ClassUtils.getValue(f, o);
+				final Object value = f.get(o);
 				if (value != null) inject(value);
 			}
 		}
@@ -559,6 +628,11 @@ public class Context implements Disposable, AutoCloseable {
 		}
 	}
 
+	private static String name(final InjectionPlan.FieldInjector f) {
+		final Field field = f.field();
+		return field.getDeclaringClass().getName() + "#" + field.getName();
+	}
+
 	private void subscribeToEvents(final Object o) {
 		try {
 			final EventService eventService = getService(EventService.class);
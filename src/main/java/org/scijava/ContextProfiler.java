@@ -0,0 +1,312 @@
+/*
+ * #%L
+ * SciJava Common shared library for SciJava software.
+ * %%
+ * Copyright (C) 2009 - 2026 SciJava developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package org.scijava;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the time spent in each phase of {@link Context} creation.
+ * <p>
+ * Profiling is enabled by setting the {@value #PROFILE_PROPERTY} system
+ * property to {@code true}, in which case a report of all phases sorted by
+ * self time is printed to {@code stderr} once the context is created; and/or
+ * by setting the {@value #TRACE_PROPERTY} system property to a file path, in
+ * which case the recorded phases are written there in the Chrome trace event
+ * format (viewable with {@code chrome://tracing} or
+ * <a href="https://ui.perfetto.dev/">Perfetto</a>).
+ * </p>
+ * <p>
+ * Phases are recorded via matched {@link #begin} and {@link #end} calls, and
+ * may be nested: e.g., the injection phase of a service includes the creation
+ * of any services on which it depends. Each recorded {@link Phase} therefore
+ * knows both its total duration and its <em>self</em> duration, i.e. the time
+ * not accounted for by any nested phase.
+ * </p>
+ *
+ * @see Context#getProfiler()
+ */
+public class ContextProfiler {
+
+	// -- Constants --
+
+	/**
+	 * System property indicating whether to print a report of context creation
+	 * timings to {@code stderr}.
+	 */
+	public static final String PROFILE_PROPERTY = "scijava.context.profile";
+
+	/**
+	 * System property giving the path of a file to which context creation
+	 * timings should be written in Chrome trace event format.
+	 */
+	public static final String TRACE_PROPERTY = "scijava.context.profile.trace";
+
+	/** Profiler of the context currently being created on this thread. */
+	private static final ThreadLocal<ContextProfiler> ACTIVE =
+		new ThreadLocal<>();
+
+	// -- Fields --
+
+	/** Time at which this profiler was created, in nanoseconds. */
+	private final long origin = System.nanoTime();
+
+	/** Phases which have begun but not yet ended. */
+	private final Deque<Phase> open = new ArrayDeque<>();
+
+	/** Phases which have ended, in order of completion. */
+	private final List<Phase> phases = new ArrayList<>();
+
+	/**
+	 * Profiler which was active when this one was activated (e.g., of a context
+	 * whose creation creates this profiler's context), or null if none.
+	 */
+	private ContextProfiler previous;
+
+	// -- ContextProfiler methods --
+
+	/**
+	 * Marks the beginning of a phase.
+	 *
+	 * @param category The kind of phase (e.g., {@code "initialize"}).
+	 * @param name The subject of the phase (e.g., a service class name).
+	 * @return The newly begun phase, to be passed to {@link #end(Phase)}.
+	 */
+	public synchronized Phase begin(final String category, final String name) {
+		final Phase phase = new Phase(category, name, System.nanoTime() - origin);
+		open.push(phase);
+		return phase;
+	}
+
+	/**
+	 * Marks the end of the given phase. Any phases begun within it which are
+	 * still open (e.g., due to an exception) are ended as well.
+	 */
+	public synchronized void end(final Phase phase) {
+		if (!open.contains(phase)) return;
+		final long now = System.nanoTime() - origin;
+		Phase p;
+		do {
+			p = open.pop();
+			p.duration = now - p.start;
+			final Phase parent = open.peek();
+			if (parent != null) parent.nested += p.duration;
+			phases.add(p);
+		}
+		while (p != phase);
+	}
+
+	/** Gets the phases recorded so far, in order of completion. */
+	public synchronized List<Phase> getPhases() {
+		return Collections.unmodifiableList(new ArrayList<>(phases));
+	}
+
+	/**
+	 * Gets the total self time spent in each category of phase, in nanoseconds.
+	 */
+	public synchronized Map<String, Long> getCategoryTotals() {
+		final Map<String, Long> totals = new LinkedHashMap<>();
+		for (final Phase phase : phases) {
+			final Long total = totals.get(phase.category);
+			totals.put(phase.category, (total == null ? 0 : total) +
+				phase.getSelfDuration());
+		}
+		return totals;
+	}
+
+	/**
+	 * Gets a human-readable report of all recorded phases, sorted by descending
+	 * self time.
+	 */
+	public String report() {
+		final List<Phase> sorted = new ArrayList<>(getPhases());
+		Collections.sort(sorted, (p1, p2) -> Long.compare(p2.getSelfDuration(),
+			p1.getSelfDuration()));
+
+		final String nl = System.getProperty("line.separator");
+		final StringBuilder sb = new StringBuilder();
+		sb.append("-- Context creation: phases by self time --" + nl);
+		sb.append(String.format("%12s %12s  %s%n", "self (ms)", "total (ms)",
+			"phase"));
+		for (final Phase phase : sorted) {
+			sb.append(String.format("%12.3f %12.3f  %s%n", //
+				phase.getSelfDuration() / 1e6, phase.getDuration() / 1e6, phase));
+		}
+		sb.append(nl + "-- Context creation: totals by category --" + nl);
+		for (final Map.Entry<String, Long> entry : getCategoryTotals().entrySet()) {
+			sb.append(String.format("%12.3f  %s%n", entry.getValue() / 1e6, //
+				entry.getKey()));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Writes all recorded phases to the given writer, as a JSON document in the
+	 * Chrome trace event format.
+	 */
+	public void writeTrace(final Writer out) throws IOException {
+		out.write("{\"traceEvents\":[");
+		boolean first = true;
+		for (final Phase phase : getPhases()) {
+			if (first) first = false;
+			else out.write(",");
+			out.write("\n{\"name\":" + quote(phase.name) + //
+				",\"cat\":" + quote(phase.category) + //
+				",\"ph\":\"X\",\"pid\":1,\"tid\":1" + //
+				",\"ts\":" + phase.start / 1000 + //
+				",\"dur\":" + phase.duration / 1000 + "}");
+		}
+		out.write("\n],\"displayTimeUnit\":\"ms\"}\n");
+		out.flush();
+	}
+
+	// -- Utility methods --
+
+	/**
+	 * Gets the profiler of the context currently being created on the calling
+	 * thread, or null if no context is being profiled there.
+	 * <p>
+	 * This allows components without access to the context (e.g., a
+	 * {@link org.scijava.plugin.PluginFinder}) to contribute phases.
+	 * </p>
+	 */
+	public static ContextProfiler active() {
+		return ACTIVE.get();
+	}
+
+	/** Gets whether profiling is requested via system properties. */
+	public static boolean isEnabled() {
+		return Boolean.getBoolean(PROFILE_PROPERTY) ||
+			System.getProperty(TRACE_PROPERTY) != null;
+	}
+
+	// -- Internal methods --
+
+	/** Makes this profiler the active one for the calling thread. */
+	void activate() {
+		previous = ACTIVE.get();
+		ACTIVE.set(this);
+	}
+
+	/**
+	 * Deactivates this profiler, reactivating the previously active one, and
+	 * emits the report and/or trace as requested via system properties.
+	 */
+	void finish() {
+		if (previous == null) ACTIVE.remove();
+		else ACTIVE.set(previous);
+		previous = null;
+		if (Boolean.getBoolean(PROFILE_PROPERTY)) System.err.print(report());
+		final String tracePath = System.getProperty(TRACE_PROPERTY);
+		if (tracePath == null) return;
+		try (final Writer out = new FileWriter(new File(tracePath))) {
+			writeTrace(out);
+		}
+		catch (final IOException exc) {
+			System.err.println("Cannot write context trace to " + tracePath);
+			exc.printStackTrace();
+		}
+	}
+
+	// -- Helper methods --
+
+	private static String quote(final String s) {
+		final StringBuilder sb = new StringBuilder("\"");
+		for (int i = 0; i < s.length(); i++) {
+			final char c = s.charAt(i);
+			if (c == '"' || c == '\\') sb.append('\\').append(c);
+			else if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+			else sb.append(c);
+		}
+		return sb.append('"').toString();
+	}
+
+	// -- Helper classes --
+
+	/** A single timed phase of context creation. */
+	public static class Phase {
+
+		private final String category;
+		private final String name;
+		private final long start;
+		private long duration;
+		private long nested;
+
+		private Phase(final String category, final String name,
+			final long start)
+		{
+			this.category = category;
+			this.name = name;
+			this.start = start;
+		}
+
+		/** Gets the kind of phase (e.g., {@code "initialize"}). */
+		public String getCategory() {
+			return category;
+		}
+
+		/** Gets the subject of the phase (e.g., a service class name). */
+		public String getName() {
+			return name;
+		}
+
+		/** Gets the phase's start time, relative to profiler creation. */
+		public long getStart() {
+			return start;
+		}
+
+		/** Gets the phase's total duration in nanoseconds. */
+		public long getDuration() {
+			return duration;
+		}
+
+		/**
+		 * Gets the phase's duration in nanoseconds, excluding time spent in
+		 * nested phases.
+		 */
+		public long getSelfDuration() {
+			return duration - nested;
+		}
+
+		@Override
+		public String toString() {
+			return category + ": " + name;
+		}
+	}
+}
@@ -0,0 +1,228 @@
+/*
+ * #%L
+ * SciJava Common shared library for SciJava software.
+ * %%
+ * Copyright (C) 2009 - 2026 SciJava developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package org.scijava;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.scijava.event.EventHandler;
+import org.scijava.plugin.Parameter;
+import org.scijava.service.Service;
+import org.scijava.util.ClassUtils;
+import org.scijava.util.Query;
+
+/**
+ * Precomputed recipe for {@link Context#inject(Object) injecting} a context
+ * into objects of a particular class.
+ * <p>
+ * Scanning a class for @{@link Parameter} fields and @{@link EventHandler}
+ * methods, classifying each field and making it accessible is done once per
+ * class; the resulting plan is cached alongside the class itself. Field values
+ * are then read and written through {@link MethodHandle}s, so that injecting
+ * an object amounts to a handful of direct stores.
+ * </p>
+ *
+ * @see Context#inject(Object)
+ */
+final class InjectionPlan {
+
+	private static final ClassValue<InjectionPlan> PLANS =
+		new ClassValue<InjectionPlan>()
+		{
+
+			@Override
+			protected InjectionPlan computeValue(final Class<?> type) {
+				return new InjectionPlan(type);
+			}
+		};
+
+	private static final MethodType GETTER_TYPE = //
+		MethodType.methodType(Object.class, Object.class);
+
+	private static final MethodType SETTER_TYPE = //
+		MethodType.methodType(void.class, Object.class, Object.class);
+
+	/** Injectors for the class's non-primitive @{@link Parameter} fields. */
+	private final FieldInjector[] fields;
+
+	/** Error which occurred while scanning for fields, or null if none. */
+	private final Throwable fieldError;
+
+	/** Whether the class might have any @{@link EventHandler} methods. */
+	private final boolean eventHandlers;
+
+	private InjectionPlan(final Class<?> c) {
+		// Ensure parameter fields and event handler methods are cached for this
+		// class, with a single pass over its hierarchy.
+		final Query query = new Query();
+		query.put(Parameter.class, Field.class);
+		query.put(EventHandler.class, Method.class);
+		ClassUtils.cacheAnnotatedObjects(c, query);
+
+		final List<FieldInjector> injectors = new ArrayList<>();
+		Throwable error = null;
+		try {
+			for (final Field f : ClassUtils.getAnnotatedFields(c, Parameter.class)) {
+				if (f.getType().isPrimitive()) continue; // nothing to inject
+				injectors.add(new FieldInjector(f));
+			}
+		}
+		catch (final Throwable t) {
+			error = t;
+		}
+		fields = injectors.toArray(new FieldInjector[injectors.size()]);
+		fieldError = error;
+
+		boolean handlers;
+		try {
+			handlers = !ClassUtils.getAnnotatedMethods(c, EventHandler.class)
+				.isEmpty();
+		}
+		catch (final Throwable t) {
+			// NB: Let the event service encounter (and report) the problem.
+			handlers = true;
+		}
+		eventHandlers = handlers;
+	}
+
+	// -- InjectionPlan methods --
+
+	/** Gets the injection plan for the given class, computing it if needed. */
+	static InjectionPlan get(final Class<?> c) {
+		return PLANS.get(c);
+	}
+
+	FieldInjector[] fields() {
+		return fields;
+	}
+
+	Throwable fieldError() {
+		return fieldError;
+	}
+
+	boolean hasEventHandlers() {
+		return eventHandlers;
+	}
+
+	// -- Helper classes --
+
+	/** The kind of value a @{@link Parameter} field receives. */
+	enum Kind {
+			/** A {@link Service}, obtained from the context. */
+			SERVICE,
+			/** The {@link Context} itself, if of a compatible type. */
+			CONTEXT,
+			/** Some other object, into which the context is recursively injected. */
+			OTHER
+	}
+
+	/** Precomputed accessors for a single @{@link Parameter} field. */
+	static final class FieldInjector {
+
+		private final Field field;
+		private final Kind kind;
+		private final boolean required;
+		private final MethodHandle getter;
+		private final MethodHandle setter;
+
+		/** Error which occurred when making the field accessible, or null. */
+		private final RuntimeException error;
+
+		private FieldInjector(final Field field) {
+			this.field = field;
+			final Class<?> type = field.getType();
+			if (Service.class.isAssignableFrom(type)) kind = Kind.SERVICE;
+			else if (Context.class.isAssignableFrom(type)) kind = Kind.CONTEXT;
+			else kind = Kind.OTHER;
+			required = field.getAnnotation(Parameter.class).required();
+
+			MethodHandle g = null, s = null;
+			RuntimeException e = null;
+			try {
+				field.setAccessible(true); // expose private fields
+				if (!Modifier.isStatic(field.getModifiers())) {
+					final MethodHandles.Lookup lookup = MethodHandles.lookup();
+					g = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+					// NB: Final fields cannot be written via method handle;
+					// for those, we fall back to reflection below.
+					if (!Modifier.isFinal(field.getModifiers())) {
+						s = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+					}
+				}
+			}
+			catch (final IllegalAccessException exc) {
+				// NB: Fall back to reflection.
+			}
+			catch (final RuntimeException exc) {
+				// e.g., InaccessibleObjectException on newer Java versions
+				e = exc;
+			}
+			getter = g;
+			setter = s;
+			error = e;
+		}
+
+		Field field() {
+			return field;
+		}
+
+		Kind kind() {
+			return kind;
+		}
+
+		Class<?> type() {
+			return field.getType();
+		}
+
+		boolean isRequired() {
+			return required;
+		}
+
+		/** Gets the field's value of the given object. */
+		Object get(final Object o) throws Throwable {
+			if (error != null) throw error;
+			if (getter == null) return ClassUtils.getValue(field, o);
+			return getter.invokeExact(o);
+		}
+
+		/** Sets the field's value of the given object. */
+		void set(final Object o, final Object value) throws Throwable {
+			if (error != null) throw error;
+			if (setter == null) ClassUtils.setValue(field, o, value);
+			else setter.invokeExact(o, value);
+		}
+	}
+}
@@ -67,6 +67,24 @@ public abstract class AbstractIndexWriter {
 
 	protected synchronized void add(final Map<String, Object> annotationValues,
 		final String annotationName, final String className)
+	{
+		add(annotationValues, annotationName, className, null);
+	}
+
+	/**
+	 * Adds an annotated class to the index.
+	 *
+	 * @param annotationValues the values of the annotation's fields
+	 * @param annotationName the name of the annotation
+	 * @param className the name of the annotated class
+	 * @param supertypes the names of all supertypes of the annotated class
+	 *          (excluding {@link Object}), or null if unknown; recording them
+	 *          allows consumers of the index to check assignability without
+	 *          loading the class (see {@link IndexItem#supertypes()})
+	 */
+	protected synchronized void add(final Map<String, Object> annotationValues,
+		final String annotationName, final String className,
+		final List<String> supertypes)
 	{
 		Map<String, Object> list = map.get(annotationName);
 		if (list == null) {
@@ -75,6 +93,7 @@ public abstract class AbstractIndexWriter {
 		}
 		final Map<String, Object> o = new TreeMap<>();
 		o.put("class", className);
+		if (supertypes != null) o.put("supertypes", supertypes);
 		o.put("values", annotationValues);
 		list.put(className, o);
 	}
@@ -40,6 +40,7 @@ import java.io.PrintStream;
 import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -139,7 +140,8 @@ public class AnnotationProcessor extends AbstractProcessor {
 								utils.getBinaryName((TypeElement) annotated).toString();
 							final Map<String, Object> values =
 								adapt(annotated.getAnnotationMirrors(), element.asType());
-							super.add(values, annotationName, className);
+							super.add(values, annotationName, className,
+								getSupertypes(annotated.asType()));
 							originating.add(annotated);
 							break;
 						default:
@@ -153,6 +155,29 @@ public class AnnotationProcessor extends AbstractProcessor {
 			//
 		}
 
+		/**
+		 * Gets the binary names of all supertypes of the given type, excluding
+		 * {@link Object}.
+		 */
+		private List<String> getSupertypes(final TypeMirror type) {
+			final Set<String> supertypes = new LinkedHashSet<>();
+			collectSupertypes(type, supertypes);
+			return new ArrayList<>(supertypes);
+		}
+
+		private void collectSupertypes(final TypeMirror type,
+			final Set<String> supertypes)
+		{
+			for (final TypeMirror supertype : typeUtils.directSupertypes(type)) {
+				final Element element = typeUtils.asElement(supertype);
+				if (!(element instanceof TypeElement)) continue;
+				final String name =
+					utils.getBinaryName((TypeElement) element).toString();
+				if (Object.class.getName().equals(name)) continue;
+				if (supertypes.add(name)) collectSupertypes(supertype, supertypes);
+			}
+		}
+
 		@SuppressWarnings("unchecked")
 		private Map<String, Object> adapt(
 			final List<? extends AnnotationMirror> mirrors,
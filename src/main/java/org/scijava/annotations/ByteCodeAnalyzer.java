@@ -34,6 +34,8 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
@@ -48,6 +50,7 @@ class ByteCodeAnalyzer {
 
 	private byte[] buffer;
 	private int[] poolOffsets;
+	private int classInfoOffset;
 	private int endOffset;
 	private Attribute[] attributes;
 
@@ -55,6 +58,7 @@ class ByteCodeAnalyzer {
 		this.buffer = buffer;
 		if ((int) getU4(0) != 0xcafebabe) throw new RuntimeException("No class");
 		getConstantPoolOffsets();
+		classInfoOffset = endOffset;
 		// skip interfaces
 		endOffset += 8 + 2 * getU2(endOffset + 6);
 		// skip fields
@@ -114,10 +118,12 @@ class ByteCodeAnalyzer {
 		for (int i = 0; i < poolCount; i++) {
 			poolOffsets[i] = offset;
 			final int tag = getU1(offset);
-			if (tag == 7 || tag == 8 || tag == 16) offset += 3;
+			if (tag == 7 || tag == 8 || tag == 16 || tag == 19 || tag == 20) {
+				offset += 3;
+			}
 			else if (tag == 15) offset += 4;
 			else if (tag == 3 || tag == 4 || tag == 9 || tag == 10 
-					|| tag == 11 || tag == 12 || tag == 18) offset += 5;
+					|| tag == 11 || tag == 12 || tag == 17 || tag == 18) offset += 5;
 			else if (tag == 5 || tag == 6) {
 				poolOffsets[++i] = offset;
 				offset += 9;
@@ -200,6 +206,29 @@ class ByteCodeAnalyzer {
 		}
 	}
 
+	/** Gets the name of the class referenced by the given constant. */
+	private String getClassConstant(final int index) {
+		final int offset = poolOffsets[index - 1];
+		if (getU1(offset) != 7) throw new RuntimeException("Constant " + index +
+			" does not refer to a class");
+		return getStringConstant(getU2(offset + 1)).replace('/', '.');
+	}
+
+	/**
+	 * Gets the names of the direct superclass (if any) and the directly
+	 * implemented interfaces of the class.
+	 */
+	private List<String> getDirectSupertypes() {
+		final List<String> supertypes = new ArrayList<>();
+		final int superClass = getU2(classInfoOffset + 4);
+		if (superClass != 0) supertypes.add(getClassConstant(superClass));
+		final int interfaceCount = getU2(classInfoOffset + 6);
+		for (int i = 0; i < interfaceCount; i++) {
+			supertypes.add(getClassConstant(getU2(classInfoOffset + 8 + 2 * i)));
+		}
+		return supertypes;
+	}
+
 	private Map<String, Map<String, Object>> getAnnotations() {
 		final Map<String, Map<String, Object>> annotations =
 			new TreeMap<>();
@@ -331,7 +360,10 @@ class ByteCodeAnalyzer {
 	}
 
 	private static byte[] readFile(final File file) throws IOException {
-		final InputStream in = new FileInputStream(file);
+		return readStream(new FileInputStream(file));
+	}
+
+	private static byte[] readStream(final InputStream in) throws IOException {
 		final ByteArrayOutputStream out = new ByteArrayOutputStream();
 		final byte[] buffer = new byte[16384];
 		for (;;) {
@@ -349,4 +381,15 @@ class ByteCodeAnalyzer {
 	{
 		return new ByteCodeAnalyzer(readFile(file)).getAnnotations();
 	}
+
+	/**
+	 * Gets the names of the direct superclass (if any) and the directly
+	 * implemented interfaces of the class whose byte code is read from the
+	 * given stream, which is closed afterwards.
+	 */
+	static List<String> getDirectSupertypes(final InputStream in)
+		throws IOException
+	{
+		return new ByteCodeAnalyzer(readStream(in)).getDirectSupertypes();
+	}
 }
@@ -39,7 +39,12 @@ import java.lang.annotation.Annotation;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Indexes a directory of classes.
@@ -53,6 +58,9 @@ import java.util.Map;
  */
 public class DirectoryIndexer extends AbstractIndexWriter {
 
+	/** Cache of each class's direct supertypes, read from its byte code. */
+	private final Map<String, List<String>> directSupertypes = new HashMap<>();
+
 	public void index(final File directory) throws IOException {
 		try {
 			@SuppressWarnings("deprecation")
@@ -102,7 +110,8 @@ public class DirectoryIndexer extends AbstractIndexWriter {
 								continue;
 							}
 						}
-						add(entry.getValue(), annotationName, className);
+						add(entry.getValue(), annotationName, className,
+							getSupertypes(className, loader));
 					}
 				}
 				catch (Throwable e) {
@@ -123,6 +132,88 @@ public class DirectoryIndexer extends AbstractIndexWriter {
 		add(adapt(annotation), annotation.annotationType().getName(), className);
 	}
 
+	/**
+	 * Gets the names of all supertypes of the given class, excluding
+	 * {@link Object}, by reading the byte code of the class and its ancestors.
+	 * Ancestors whose byte code cannot be read are loaded instead.
+	 *
+	 * @return the supertype names, or null if the supertypes of the class or of
+	 *         one of its ancestors cannot be determined, so that consumers of
+	 *         the index do not mistake an incomplete list for a complete one
+	 */
+	protected List<String> getSupertypes(final String className,
+		final ClassLoader loader)
+	{
+		final Set<String> supertypes = new LinkedHashSet<>();
+		if (!collectSupertypes(className, loader, supertypes)) return null;
+		return new ArrayList<>(supertypes);
+	}
+
+	/** @return false if the supertypes of some ancestor are unknown */
+	private boolean collectSupertypes(final String className,
+		final ClassLoader loader, final Set<String> supertypes)
+	{
+		final List<String> direct = getDirectSupertypes(className, loader);
+		if (direct == null) return false;
+		for (final String supertype : direct) {
+			if (Object.class.getName().equals(supertype)) continue;
+			if (supertypes.add(supertype) && //
+				!collectSupertypes(supertype, loader, supertypes))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** @return the direct supertypes of the class, or null if unknown */
+	private synchronized List<String> getDirectSupertypes(
+		final String className, final ClassLoader loader)
+	{
+		if (directSupertypes.containsKey(className)) {
+			return directSupertypes.get(className);
+		}
+		List<String> result = readDirectSupertypes(className, loader);
+		if (result == null) result = loadDirectSupertypes(className, loader);
+		directSupertypes.put(className, result);
+		return result;
+	}
+
+	private static List<String> readDirectSupertypes(final String className,
+		final ClassLoader loader)
+	{
+		final String resource = className.replace('.', '/') + ".class";
+		InputStream in = loader.getResourceAsStream(resource);
+		if (in == null) in = ClassLoader.getSystemResourceAsStream(resource);
+		if (in == null) return null;
+		try {
+			return ByteCodeAnalyzer.getDirectSupertypes(in);
+		}
+		catch (final IOException | RuntimeException e) {
+			System.err.println("Warning: could not read supertypes of '" +
+				className + "'");
+			return null;
+		}
+	}
+
+	private static List<String> loadDirectSupertypes(final String className,
+		final ClassLoader loader)
+	{
+		final Class<?> c;
+		try {
+			c = Class.forName(className, false, loader);
+		}
+		catch (final ClassNotFoundException | LinkageError e) {
+			return null;
+		}
+		final List<String> result = new ArrayList<>();
+		if (c.getSuperclass() != null) result.add(c.getSuperclass().getName());
+		for (final Class<?> iface : c.getInterfaces()) {
+			result.add(iface.getName());
+		}
+		return result;
+	}
+
 	private static <A extends Annotation> boolean isIndexable(final A annotation)
 	{
 		return isIndexable(annotation.annotationType());
@@ -36,6 +36,7 @@ import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -155,9 +156,13 @@ public class Index<A extends Annotation> implements Iterable<IndexItem<A>> {
 				if (map != null) {
 					final String className = (String) map.get("class");
 					@SuppressWarnings("unchecked")
+					final List<String> supertypes =
+						(List<String>) map.get("supertypes");
+					@SuppressWarnings("unchecked")
 					final Map<Object, Object> values =
 						(Map<Object, Object>) map.get("values");
-					next = new IndexItem<>(annotation, loader, className, values);
+					next = new IndexItem<>(annotation, loader, className, supertypes,
+						values);
 					return;
 				}
 				indexReader.close();
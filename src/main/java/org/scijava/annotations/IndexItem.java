@@ -34,6 +34,7 @@ import java.lang.reflect.Array;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -47,14 +48,18 @@ public class IndexItem<A extends Annotation> {
 	private final Class<A> annotation;
 	private final ClassLoader loader;
 	private final String className;
+	private final List<String> supertypes;
 	private final Map<Object, Object> map;
 
 	IndexItem(final Class<A> annotation, final ClassLoader loader,
-		final String className, final Map<Object, Object> map)
+		final String className, final List<String> supertypes,
+		final Map<Object, Object> map)
 	{
 		this.annotation = annotation;
 		this.loader = loader;
 		this.className = className;
+		this.supertypes = supertypes == null ? null : //
+			Collections.unmodifiableList(supertypes);
 		this.map = map;
 	}
 
@@ -76,6 +81,18 @@ public class IndexItem<A extends Annotation> {
 		return className;
 	}
 
+	/**
+	 * Returns the names of all supertypes of the annotated class, excluding
+	 * {@link Object}. This makes it possible to check whether the annotated class
+	 * is compatible with a given type without loading it.
+	 * 
+	 * @return the names of the supertypes, or null if the index was written by
+	 *         an older version of the indexer which did not record them.
+	 */
+	public List<String> supertypes() {
+		return supertypes;
+	}
+
 	@SuppressWarnings("unchecked")
 	private static <A extends Annotation> A proxy(final Class<A> annotation,
 		final ClassLoader loader, final String className,
@@ -0,0 +1,741 @@
+/*
+ * #%L
+ * SciJava Common shared library for SciJava software.
+ * %%
+ * Copyright (C) 2009 - 2026 SciJava developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package org.scijava.cache;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * A concurrent cache holding entries up to a maximum total weight.
+ * <p>
+ * Lookups take no lock. Each entry is weighed when it is stored, by a
+ * pluggable {@link Weigher} (by default, every entry weighs 1). When the total
+ * weight exceeds the maximum, entries are evicted according to the
+ * {@link Policy}:
+ * </p>
+ * <ul>
+ * <li>{@link Policy#LRU} evicts the least recently used entries.</li>
+ * <li>{@link Policy#TINY_LFU} keeps new entries in a small LRU window; entries
+ * leaving the window are only admitted to the rest of the cache if they were
+ * requested more often than the entry they would replace. Request frequencies
+ * are estimated with a compact, periodically aged sketch, which also covers
+ * keys no longer in the cache. This keeps popular entries from being flushed
+ * by bursts of one-off requests.</li>
+ * </ul>
+ * <p>
+ * Entries can optionally expire a fixed {@link #setTimeToLive time} after
+ * they were stored. Expired entries are dropped when they are looked up, or by
+ * {@link #cleanUp()}.
+ * </p>
+ * <p>
+ * A cache can also hold its keys {@link #isWeakKeys() weakly}, like a
+ * {@link java.util.WeakHashMap}: an entry is then dropped once its key is no
+ * longer referenced elsewhere, even if its weight still fits.
+ * </p>
+ * <p>
+ * Missing values can be {@link #get(Object, Callable) loaded} on demand; when
+ * several threads request the same missing key at once, the value is computed
+ * only once and the other threads wait for it.
+ * </p>
+ * <p>
+ * NB: Recency and frequency updates on lookups are skipped while another
+ * thread is updating the cache, so under contention eviction order is
+ * approximate.
+ * </p>
+ */
+public class BoundedCache {
+
+	/** The eviction policies of a cache. */
+	public enum Policy {
+		/** Evicts the least recently used entries. */
+		LRU,
+
+		/** Evicts by recency, admitting entries by frequency (W-TinyLFU). */
+		TINY_LFU
+	}
+
+	/** Computes the weight of a cache entry. */
+	@FunctionalInterface
+	public interface Weigher {
+
+		/** Gets the weight of the given entry; must not be negative. */
+		long weigh(Object key, Object value);
+	}
+
+	/** Weigher giving every entry a weight of 1. */
+	public static final Weigher UNIT_WEIGHER = (key, value) -> 1;
+
+	/** Stand-in for the null key, which the backing map does not support. */
+	private static final Object NULL_KEY = new Object();
+
+	private final ConcurrentHashMap<Object, Node> data =
+		new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Object, Load> loads =
+		new ConcurrentHashMap<>();
+	private final CacheStats stats = new CacheStats();
+	private final LongSupplier ticker;
+
+	/** Queue of collected keys, or null if keys are held strongly. */
+	private final ReferenceQueue<Object> collectedKeys;
+
+	/** Guards the eviction order, the weights and the sketch. */
+	private final ReentrantLock lock = new ReentrantLock();
+	private final NodeList window = new NodeList();
+	private final NodeList main = new NodeList();
+	private FrequencySketch sketch;
+	private long maximumWeight;
+	private long windowMaximum;
+	private long weight;
+	private Policy policy;
+
+	private volatile Weigher weigher = UNIT_WEIGHER;
+	private volatile long timeToLive;
+
+	public BoundedCache(final long maximumWeight, final Policy policy) {
+		this(maximumWeight, policy, false);
+	}
+
+	/**
+	 * Creates a cache which holds its keys weakly if requested: entries are
+	 * dropped once their keys are no longer referenced elsewhere.
+	 */
+	public BoundedCache(final long maximumWeight, final Policy policy,
+		final boolean weakKeys)
+	{
+		this(maximumWeight, policy, weakKeys, System::nanoTime);
+	}
+
+	/** Creates a cache with the given source of {@link System#nanoTime()}. */
+	BoundedCache(final long maximumWeight, final Policy policy,
+		final LongSupplier ticker)
+	{
+		this(maximumWeight, policy, false, ticker);
+	}
+
+	private BoundedCache(final long maximumWeight, final Policy policy,
+		final boolean weakKeys, final LongSupplier ticker)
+	{
+		this.ticker = ticker;
+		this.policy = policy;
+		collectedKeys = weakKeys ? new ReferenceQueue<>() : null;
+		setMaximumWeight(maximumWeight);
+	}
+
+	// -- BoundedCache methods --
+
+	/**
+	 * Gets the value cached for the given key.
+	 *
+	 * @return The value, or null if there is none or it expired.
+	 */
+	public Object get(final Object key) {
+		final Object k = mask(key);
+		final Node node = data.get(k);
+		if (node == null) {
+			stats.miss();
+			touch(k, null);
+			return null;
+		}
+		if (node.expiresAt != 0 && ticker.getAsLong() - node.expiresAt >= 0) {
+			expire(node);
+			stats.miss();
+			return null;
+		}
+		stats.hit();
+		touch(k, node);
+		return node.value;
+	}
+
+	/**
+	 * Gets the value cached for the given key, computing and caching it with
+	 * the given loader if there is none. If the key is already being loaded by
+	 * another thread, this waits for that load instead of starting another
+	 * one. A null result is returned but not cached, and neither is a failure:
+	 * the next request loads again.
+	 *
+	 * @return The cached or loaded value.
+	 * @throws ExecutionException if the loader threw an exception, or the
+	 *           thread was interrupted while waiting for another thread's load.
+	 * @throws IllegalStateException if the loader requested its own key.
+	 */
+	@SuppressWarnings("unchecked")
+	public <V> V get(final Object key, final Callable<? extends V> loader)
+		throws ExecutionException
+	{
+		final Object cached = get(key);
+		return cached != null ? (V) cached : load(key, loader);
+	}
+
+	/**
+	 * Computes and caches the value for the given key, or waits for the load
+	 * already in progress for it, after a lookup found no value.
+	 */
+	@SuppressWarnings("unchecked")
+	<V> V load(final Object key, final Callable<? extends V> loader)
+		throws ExecutionException
+	{
+		final Object k = mask(key);
+		final Load load = new Load();
+		final Load pending = loads.putIfAbsent(k, load);
+		if (pending != null) {
+			if (pending.thread == Thread.currentThread()) {
+				throw new IllegalStateException("Recursive load of key: " + key);
+			}
+			return (V) pending.await();
+		}
+		try {
+			// NB: Another load may have completed since the lookup.
+			Object value = peek(k);
+			if (value == null) {
+				final long start = ticker.getAsLong();
+				try {
+					value = loader.call();
+				}
+				catch (final Throwable t) {
+					stats.loadFailed(ticker.getAsLong() - start);
+					load.completeExceptionally(t);
+					if (t instanceof Error) throw (Error) t;
+					throw new ExecutionException(t);
+				}
+				stats.loaded(ticker.getAsLong() - start);
+				put(key, value);
+			}
+			load.complete(value);
+			return (V) value;
+		}
+		finally {
+			// NB: In case put failed, e.g. due to the weigher.
+			if (!load.isDone()) {
+				load.completeExceptionally(new IllegalStateException(
+					"Load of key failed: " + key));
+			}
+			loads.remove(k, load);
+		}
+	}
+
+	/**
+	 * Caches the given value for the given key, replacing any previous value.
+	 * A null value removes the entry. An entry heavier than the maximum weight
+	 * is not cached at all.
+	 */
+	public void put(final Object key, final Object value) {
+		if (value == null) {
+			remove(key);
+			return;
+		}
+		final long w = weigher.weigh(key, value);
+		if (w < 0) throw new IllegalArgumentException("Negative weight: " + w);
+		final long ttl = timeToLive;
+		final Object k = collectedKeys == null ? mask(key) : //
+			new WeakKey(key == null ? NULL_KEY : key, collectedKeys);
+		final Node node = new Node(k, value, w, ttl == 0 ? 0 : expiry(ttl));
+		lock.lock();
+		try {
+			expungeCollectedKeys();
+			final Node old = data.put(k, node);
+			if (old != null) unlink(old);
+			sketch.increment(node.hash);
+			if (w > maximumWeight) {
+				data.remove(k, node);
+				stats.evicted();
+				return;
+			}
+			link(window, node);
+			evict();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/** Removes the entry for the given key, if any. */
+	public void remove(final Object key) {
+		lock.lock();
+		try {
+			expungeCollectedKeys();
+			final Node node = data.remove(mask(key));
+			if (node != null) unlink(node);
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/** Removes all entries. */
+	public void clear() {
+		lock.lock();
+		try {
+			data.clear();
+			window.clear();
+			main.clear();
+			weight = 0;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/** Removes all expired entries. */
+	public void cleanUp() {
+		if (timeToLive == 0 && collectedKeys == null) return;
+		final long now = ticker.getAsLong();
+		lock.lock();
+		try {
+			expungeCollectedKeys();
+			if (timeToLive == 0) return;
+			for (final NodeList list : new NodeList[] { window, main }) {
+				Node node = list.first;
+				while (node != null) {
+					final Node next = node.next;
+					if (node.expiresAt != 0 && now - node.expiresAt >= 0) {
+						data.remove(node.key, node);
+						unlink(node);
+						stats.expired();
+					}
+					node = next;
+				}
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/** Gets the number of cached entries. */
+	public int size() {
+		return data.size();
+	}
+
+	/** Gets the total weight of the cached entries. */
+	public long getWeight() {
+		lock.lock();
+		try {
+			expungeCollectedKeys();
+			return weight;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/** Gets whether this cache holds its keys weakly. */
+	public boolean isWeakKeys() {
+		return collectedKeys != null;
+	}
+
+	/** Gets the statistics of this cache. */
+	public CacheStats getStats() {
+		return stats;
+	}
+
+	/**
+	 * Sets the maximum total weight of the entries, evicting entries if needed.
+	 * This also discards the request frequencies recorded so far.
+	 */
+	public void setMaximumWeight(final long maximumWeight) {
+		if (maximumWeight < 0) {
+			throw new IllegalArgumentException("Negative maximum weight: " +
+				maximumWeight);
+		}
+		lock.lock();
+		try {
+			this.maximumWeight = maximumWeight;
+			sketch = new FrequencySketch(maximumWeight);
+			updateWindow();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/** Gets the maximum total weight of the entries. */
+	public long getMaximumWeight() {
+		lock.lock();
+		try {
+			return maximumWeight;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/** Sets the eviction policy, evicting entries if needed. */
+	public void setPolicy(final Policy policy) {
+		if (policy == null) throw new NullPointerException("Null policy");
+		lock.lock();
+		try {
+			this.policy = policy;
+			updateWindow();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/** Gets the eviction policy. */
+	public Policy getPolicy() {
+		lock.lock();
+		try {
+			return policy;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Sets the weigher of entries stored from now on. Entries already cached
+	 * keep their weights.
+	 */
+	public void setWeigher(final Weigher weigher) {
+		this.weigher = weigher == null ? UNIT_WEIGHER : weigher;
+	}
+
+	/** Gets the weigher of entries. */
+	public Weigher getWeigher() {
+		return weigher;
+	}
+
+	/**
+	 * Sets how long entries stored from now on remain valid.
+	 *
+	 * @param duration the time to live, or 0 for entries which never expire
+	 * @param unit the unit of the duration
+	 */
+	public void setTimeToLive(final long duration, final TimeUnit unit) {
+		if (duration < 0) {
+			throw new IllegalArgumentException("Negative time to live: " + duration);
+		}
+		timeToLive = unit.toNanos(duration);
+	}
+
+	/** Gets how long entries remain valid, or 0 if they never expire. */
+	public long getTimeToLive(final TimeUnit unit) {
+		return unit.convert(timeToLive, TimeUnit.NANOSECONDS);
+	}
+
+	// -- Helper methods --
+
+	/** Gets the key of the backing map for the given key, for lookups. */
+	private Object mask(final Object key) {
+		final Object k = key == null ? NULL_KEY : key;
+		return collectedKeys == null ? k : new WeakKey(k, null);
+	}
+
+	/** Drops the entries whose keys were collected; must hold the lock. */
+	private void expungeCollectedKeys() {
+		if (collectedKeys == null) return;
+		Reference<?> ref;
+		while ((ref = collectedKeys.poll()) != null) {
+			// NB: A cleared key only equals itself.
+			final Node node = data.remove(ref);
+			if (node != null) unlink(node);
+		}
+	}
+
+	/** Gets the unexpired value for the key, without recording the request. */
+	private Object peek(final Object key) {
+		final Node node = data.get(key);
+		if (node == null) return null;
+		if (node.expiresAt != 0 && ticker.getAsLong() - node.expiresAt >= 0) {
+			return null;
+		}
+		return node.value;
+	}
+
+	private long expiry(final long ttl) {
+		final long expiresAt = ticker.getAsLong() + ttl;
+		// NB: 0 means "never expires".
+		return expiresAt == 0 ? 1 : expiresAt;
+	}
+
+	/** Records a request for the key, and the use of its entry (if any). */
+	private void touch(final Object key, final Node node) {
+		if (!lock.tryLock()) return;
+		try {
+			expungeCollectedKeys();
+			sketch.increment(node == null ? hash(key) : node.hash);
+			if (node != null && node.list != null) {
+				final NodeList list = node.list;
+				list.remove(node);
+				list.add(node);
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	private void expire(final Node node) {
+		lock.lock();
+		try {
+			if (data.remove(node.key, node)) {
+				unlink(node);
+				stats.expired();
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/** Sets the window size for the current policy, and evicts if needed. */
+	private void updateWindow() {
+		windowMaximum = policy == Policy.LRU ? maximumWeight : //
+			Math.max(1, maximumWeight / 100);
+		evict();
+	}
+
+	/**
+	 * Moves the entries overflowing the window into the main space, where they
+	 * must win against the least recently used entry to stay; then evicts the
+	 * least recently used entries until the weight is within the maximum.
+	 */
+	private void evict() {
+		while (window.weight > windowMaximum) {
+			final Node candidate = window.first;
+			window.remove(candidate);
+			main.add(candidate);
+			while (weight > maximumWeight && candidate.list != null) {
+				final Node victim = main.first;
+				if (victim == candidate) break;
+				evict(sketch.frequency(candidate.hash) > sketch.frequency(victim.hash)
+					? victim : candidate);
+			}
+		}
+		while (weight > maximumWeight) {
+			evict(main.first != null ? main.first : window.first);
+		}
+	}
+
+	private void evict(final Node node) {
+		data.remove(node.key, node);
+		unlink(node);
+		stats.evicted();
+	}
+
+	private void link(final NodeList list, final Node node) {
+		list.add(node);
+		weight += node.weight;
+	}
+
+	private void unlink(final Node node) {
+		if (node.list == null) return;
+		node.list.remove(node);
+		weight -= node.weight;
+	}
+
+	private static int hash(final Object key) {
+		final int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	// -- Helper classes --
+
+	/** A load in progress, awaited by concurrent requests for its key. */
+	private static class Load extends CompletableFuture<Object> {
+
+		private final Thread thread = Thread.currentThread();
+
+		private Object await() throws ExecutionException {
+			try {
+				return get();
+			}
+			catch (final InterruptedException exc) {
+				Thread.currentThread().interrupt();
+				throw new ExecutionException(exc);
+			}
+		}
+	}
+
+	/**
+	 * A weakly referenced key, equal to the keys referencing an equal object.
+	 * Like the keys of a {@link java.util.WeakHashMap}, an entry keeps the key
+	 * it was first stored with until it is removed.
+	 */
+	private static class WeakKey extends WeakReference<Object> {
+
+		private final int hash;
+
+		public WeakKey(final Object key, final ReferenceQueue<Object> queue) {
+			super(key, queue);
+			hash = key.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			if (o == this) return true;
+			if (!(o instanceof WeakKey)) return false;
+			final Object key = get();
+			return key != null && key.equals(((WeakKey) o).get());
+		}
+	}
+
+	/** A cache entry, and its position in the eviction order. */
+	private static class Node {
+
+		private final Object key;
+		private final Object value;
+		private final long weight;
+		private final long expiresAt;
+		private final int hash;
+
+		// NB: Guarded by the lock.
+		private NodeList list;
+		private Node prev, next;
+
+		public Node(final Object key, final Object value, final long weight,
+			final long expiresAt)
+		{
+			this.key = key;
+			this.value = value;
+			this.weight = weight;
+			this.expiresAt = expiresAt;
+			this.hash = hash(key);
+		}
+	}
+
+	/** Doubly linked list of entries, least recently used first. */
+	private static class NodeList {
+
+		private Node first, last;
+		private long weight;
+
+		public void add(final Node node) {
+			node.list = this;
+			node.prev = last;
+			node.next = null;
+			if (last == null) first = node;
+			else last.next = node;
+			last = node;
+			weight += node.weight;
+		}
+
+		public void remove(final Node node) {
+			if (node.prev == null) first = node.next;
+			else node.prev.next = node.next;
+			if (node.next == null) last = node.prev;
+			else node.next.prev = node.prev;
+			node.prev = node.next = null;
+			node.list = null;
+			weight -= node.weight;
+		}
+
+		public void clear() {
+			for (Node node = first; node != null;) {
+				final Node next = node.next;
+				node.prev = node.next = null;
+				node.list = null;
+				node = next;
+			}
+			first = last = null;
+			weight = 0;
+		}
+	}
+
+	/**
+	 * Count-min sketch of request frequencies, with four 4-bit counters per key.
+	 * All counters are halved periodically, so that the frequencies reflect
+	 * recent history.
+	 */
+	private static class FrequencySketch {
+
+		private static final long[] SEEDS = { 0xc3a5c85c97cb3127L,
+			0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+
+		private final long[] table;
+		private final int counterMask;
+		private final int sampleSize;
+		private int additions;
+
+		public FrequencySketch(final long maximumWeight) {
+			final long wanted = Math.max(64, Math.min(maximumWeight, 1 << 20));
+			final int counters = Integer.highestOneBit((int) wanted - 1) << 1;
+			table = new long[counters / 16];
+			counterMask = counters - 1;
+			sampleSize = 10 * counters;
+		}
+
+		public int frequency(final int hash) {
+			int frequency = 15;
+			for (int i = 0; i < SEEDS.length; i++) {
+				final int counter = index(hash, i);
+				final int value = (int) (table[counter >>> 4] >>> shift(counter)) & 15;
+				frequency = Math.min(frequency, value);
+			}
+			return frequency;
+		}
+
+		public void increment(final int hash) {
+			boolean added = false;
+			for (int i = 0; i < SEEDS.length; i++) {
+				final int counter = index(hash, i);
+				final long mask = 15L << shift(counter);
+				if ((table[counter >>> 4] & mask) != mask) {
+					table[counter >>> 4] += 1L << shift(counter);
+					added = true;
+				}
+			}
+			if (added && ++additions >= sampleSize) age();
+		}
+
+		private int index(final int hash, final int i) {
+			long h = (hash + SEEDS[i]) * SEEDS[i];
+			h += h >>> 32;
+			return (int) h & counterMask;
+		}
+
+		private static int shift(final int counter) {
+			return (counter & 15) << 2;
+		}
+
+		private void age() {
+			for (int i = 0; i < table.length; i++) {
+				table[i] = (table[i] >>> 1) & 0x7777777777777777L;
+			}
+			additions /= 2;
+		}
+	}
+
+}
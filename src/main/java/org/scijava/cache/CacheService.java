@@ -30,9 +30,12 @@
 package org.scijava.cache;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.scijava.service.SciJavaService;
+import org.scijava.thread.ThreadService;
 
 /**
  * Base interface for cache services in SciJava
@@ -54,18 +57,85 @@ public interface CacheService extends SciJavaService {
 	Object get(Object key);
 
 	/**
+	 * Removes the given key and its value from the cache.
+	 *
+	 * @param key A key.
+	 * @throws UnsupportedOperationException if the cache does not support
+	 *           removal.
+	 */
+	default void remove(final Object key) {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Removes all objects from the cache.
+	 *
+	 * @throws UnsupportedOperationException if the cache does not support
+	 *           removal.
+	 */
+	default void clear() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Gets the hit, miss and eviction statistics of the cache.
+	 *
+	 * @return The statistics, or null if the cache does not record any.
+	 */
+	default CacheStats getStats() {
+		return null;
+	}
+
+	/**
+	 * Gets the cached object for the given key, computing and caching it with
+	 * the given loader if it is not in the cache. Implementations should make
+	 * concurrent requests for the same missing key wait for a single
+	 * computation; this default implementation does not.
+	 *
 	 * @param key A key
 	 * @param valueLoader A value loader which will be used if null is returned
 	 *          for the given key.
 	 * @return The cached object, or if the object is not in the cache the result
 	 *         of the value loader.
-	 * @throws ExecutionException
+	 * @throws ExecutionException if the value loader threw an exception.
 	 */
 	@SuppressWarnings("unchecked")
 	default <V> V get(final Object key, final Callable<V> valueLoader)
 		throws ExecutionException
 	{
-		return (V)get(key);
+		final Object cached = get(key);
+		if (cached != null) return (V) cached;
+		final V value;
+		try {
+			value = valueLoader.call();
+		}
+		catch (final Exception exc) {
+			throw new ExecutionException(exc);
+		}
+		if (value != null) put(key, value);
+		return value;
+	}
+
+	/**
+	 * Asynchronously gets the cached object for the given key, as
+	 * {@link #get(Object, Callable)} does, computing it with the given loader
+	 * on the {@link ThreadService} if it is not in the cache.
+	 *
+	 * @param key A key
+	 * @param valueLoader A value loader which will be used if null is returned
+	 *          for the given key.
+	 * @return A future for the cached or loaded object, already completed if
+	 *         the object is in the cache.
+	 */
+	@SuppressWarnings("unchecked")
+	default <V> Future<V> getAsync(final Object key,
+		final Callable<V> valueLoader)
+	{
+		final Object cached = get(key);
+		if (cached != null) return CompletableFuture.completedFuture((V) cached);
+		final ThreadService threadService = //
+			context().getService(ThreadService.class);
+		return threadService.run(() -> get(key, valueLoader));
 	}
 
 }
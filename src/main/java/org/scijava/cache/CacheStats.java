@@ -0,0 +1,143 @@
+/*
+ * #%L
+ * SciJava Common shared library for SciJava software.
+ * %%
+ * Copyright (C) 2009 - 2026 SciJava developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package org.scijava.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of a cache: how often lookups hit, how many entries were evicted
+ * to stay within the maximum weight or because they expired, and how missing
+ * values were loaded.
+ */
+public class CacheStats {
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder expirations = new LongAdder();
+	private final LongAdder loads = new LongAdder();
+	private final LongAdder loadFailures = new LongAdder();
+	private final LongAdder loadTime = new LongAdder();
+
+	// -- CacheStats methods --
+
+	/** Gets the number of lookups which found a value. */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/** Gets the number of lookups which found no value. */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/** Gets the fraction of lookups which found a value, or 1 if none. */
+	public double getHitRate() {
+		final long h = getHitCount();
+		final long total = h + getMissCount();
+		return total == 0 ? 1 : (double) h / total;
+	}
+
+	/** Gets the number of entries evicted to respect the maximum weight. */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	/** Gets the number of entries removed because they expired. */
+	public long getExpirationCount() {
+		return expirations.sum();
+	}
+
+	/** Gets the number of values computed by a loader, successfully or not. */
+	public long getLoadCount() {
+		return loads.sum();
+	}
+
+	/** Gets the number of loaders which threw an exception. */
+	public long getLoadFailureCount() {
+		return loadFailures.sum();
+	}
+
+	/** Gets the total time spent computing values, in nanoseconds. */
+	public long getTotalLoadTime() {
+		return loadTime.sum();
+	}
+
+	/** Discards the statistics recorded so far. */
+	public void reset() {
+		hits.reset();
+		misses.reset();
+		evictions.reset();
+		expirations.reset();
+		loads.reset();
+		loadFailures.reset();
+		loadTime.reset();
+	}
+
+	// -- Object methods --
+
+	@Override
+	public String toString() {
+		return "hits=" + getHitCount() + ", misses=" + getMissCount() +
+			", evictions=" + getEvictionCount() + ", expirations=" +
+			getExpirationCount() + ", loads=" + getLoadCount() + ", loadFailures=" +
+			getLoadFailureCount();
+	}
+
+	// -- Internal methods --
+
+	void hit() {
+		hits.increment();
+	}
+
+	void miss() {
+		misses.increment();
+	}
+
+	void evicted() {
+		evictions.increment();
+	}
+
+	void expired() {
+		expirations.increment();
+	}
+
+	void loaded(final long nanos) {
+		loads.increment();
+		loadTime.add(nanos);
+	}
+
+	void loadFailed(final long nanos) {
+		loaded(nanos);
+		loadFailures.increment();
+	}
+
+}
@@ -29,38 +29,152 @@
 
 package org.scijava.cache;
 
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.scijava.Priority;
+import org.scijava.cache.BoundedCache.Policy;
+import org.scijava.log.LogService;
+import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
 import org.scijava.service.AbstractService;
 import org.scijava.service.Service;
+import org.scijava.thread.ThreadService;
 
 /**
- * Trivial {@link CacheService} implementation. Wraps a {@link WeakHashMap}
+ * Default {@link CacheService} implementation, backed by a concurrent
+ * {@link BoundedCache}.
+ * <p>
+ * By default, the cache holds up to {@value #DEFAULT_MAXIMUM_WEIGHT} entries,
+ * evicted with the {@link Policy#TINY_LFU} policy, which never expire. Keys
+ * are held weakly, so that an entry is dropped once its key (e.g. an image) is
+ * no longer in use. The defaults can be changed with the system properties
+ * {@value #WEIGHT_PROPERTY} (maximum total weight), {@value #POLICY_PROPERTY}
+ * ({@code lru} or {@code tiny_lfu}), {@value #TTL_PROPERTY} (time to live in
+ * milliseconds) and {@value #WEAK_KEYS_PROPERTY} ({@code false} to hold keys
+ * strongly), or at runtime via {@link #getCache()}, which also allows weighing
+ * entries e.g. by their size in memory.
+ * </p>
+ * <p>
+ * Concurrent {@link #get(Object, Callable) loads} of the same missing key,
+ * synchronous or {@link #getAsync asynchronous}, share a single computation.
+ * </p>
  */
 @Plugin(type = Service.class, priority = Priority.VERY_LOW)
 public class DefaultCacheService extends AbstractService implements
 	CacheService
 {
 
-	private Map<Object, Object> map;
+	/** Default maximum total weight of the cached entries. */
+	public static final long DEFAULT_MAXIMUM_WEIGHT = 10000;
+
+	/** System property giving the maximum total weight of the entries. */
+	public static final String WEIGHT_PROPERTY = "scijava.cache.weight";
+
+	/** System property giving the eviction {@link Policy}. */
+	public static final String POLICY_PROPERTY = "scijava.cache.policy";
+
+	/** System property giving the time to live of entries, in milliseconds. */
+	public static final String TTL_PROPERTY = "scijava.cache.ttl";
+
+	/** System property indicating whether to hold the keys weakly. */
+	public static final String WEAK_KEYS_PROPERTY = "scijava.cache.weakKeys";
+
+	@Parameter(required = false)
+	private LogService log;
+
+	@Parameter
+	private ThreadService threadService;
+
+	private BoundedCache cache;
+
+	// -- DefaultCacheService methods --
+
+	/** Gets the cache backing this service, e.g. to configure it. */
+	public BoundedCache getCache() {
+		return cache;
+	}
+
+	// -- CacheService methods --
 
 	@Override
 	public void put(final Object key, final Object value) {
-		map.put(key, value);
+		cache.put(key, value);
 	}
 
 	@Override
 	public Object get(final Object key) {
-		return map.get(key);
+		return cache.get(key);
+	}
+
+	@Override
+	public <V> V get(final Object key, final Callable<V> valueLoader)
+		throws ExecutionException
+	{
+		return cache.get(key, valueLoader);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <V> Future<V> getAsync(final Object key,
+		final Callable<V> valueLoader)
+	{
+		final Object cached = cache.get(key);
+		if (cached != null) return CompletableFuture.completedFuture((V) cached);
+		// NB: The miss is already recorded; the pool thread only loads.
+		return threadService.run(() -> cache.load(key, valueLoader));
+	}
+
+	@Override
+	public void remove(final Object key) {
+		cache.remove(key);
+	}
+
+	@Override
+	public void clear() {
+		cache.clear();
+	}
+
+	@Override
+	public CacheStats getStats() {
+		return cache.getStats();
 	}
 
 	// -- Service Methods --
 
 	@Override
 	public void initialize() {
-		map = new WeakHashMap<>();
+		final String weakKeys = System.getProperty(WEAK_KEYS_PROPERTY);
+		cache = new BoundedCache(DEFAULT_MAXIMUM_WEIGHT, Policy.TINY_LFU,
+			weakKeys == null || Boolean.parseBoolean(weakKeys.trim()));
+		final String weight = System.getProperty(WEIGHT_PROPERTY);
+		final String policy = System.getProperty(POLICY_PROPERTY);
+		final String ttl = System.getProperty(TTL_PROPERTY);
+		try {
+			if (weight != null) cache.setMaximumWeight(Long.parseLong(weight.trim()));
+			if (policy != null) {
+				cache.setPolicy(Policy.valueOf(policy.trim().toUpperCase(
+					Locale.ENGLISH)));
+			}
+			if (ttl != null) {
+				cache.setTimeToLive(Long.parseLong(ttl.trim()), TimeUnit.MILLISECONDS);
+			}
+		}
+		catch (final IllegalArgumentException exc) {
+			if (log != null) log.warn("Invalid cache configuration: " +
+				WEIGHT_PROPERTY + "=" + weight + ", " + POLICY_PROPERTY + "=" +
+				policy + ", " + TTL_PROPERTY + "=" + ttl);
+		}
+	}
+
+	// -- Disposable methods --
+
+	@Override
+	public void dispose() {
+		if (cache != null) cache.clear();
 	}
 }
@@ -33,7 +33,9 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Type;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
+import org.scijava.event.RingBufferDispatcher.WaitStrategy;
 import org.scijava.event.bushe.ThreadSafeEventService;
 import org.scijava.log.LogService;
 import org.scijava.service.Service;
@@ -47,6 +49,12 @@ import org.scijava.thread.ThreadService;
  * {@code org.scijava.event.bushe.EventService} but rather a SciJava
  * {@link Service} implementation.
  * </p>
+ * <p>
+ * Events published later are delivered either by the {@link ThreadService}'s
+ * thread pool (the default), or by a {@link RingBufferDispatcher} (see
+ * {@link #useRingBuffer}). In the latter case, the subscribers of each event
+ * are determined when it is delivered rather than when it is published.
+ * </p>
  * 
  * @author Curtis Rueden
  */
@@ -55,6 +63,10 @@ public class DefaultEventBus extends ThreadSafeEventService {
 	private final ThreadService threadService;
 	private final LogService log;
 
+	private volatile RingBufferDispatcher dispatcher;
+
+	private volatile EventMetrics metrics;
+
 	public DefaultEventBus(final ThreadService threadService,
 		final LogService log)
 	{
@@ -65,6 +77,53 @@ public class DefaultEventBus extends ThreadSafeEventService {
 
 	// -- DefaultEventBus methods --
 
+	/**
+	 * Delivers events published later via a ring buffer with a dedicated
+	 * dispatcher thread, replacing the current ring buffer, if any.
+	 * 
+	 * @param capacity number of events the ring buffer can hold
+	 * @param waitStrategy how the dispatcher thread waits for events
+	 */
+	public synchronized void useRingBuffer(final int capacity,
+		final WaitStrategy waitStrategy)
+	{
+		final RingBufferDispatcher old = dispatcher;
+		dispatcher = new RingBufferDispatcher(capacity, waitStrategy,
+			this::dispatch, threadService, log);
+		if (old != null) old.shutdown();
+	}
+
+	/**
+	 * Delivers events published later via the {@link ThreadService}'s thread
+	 * pool. Events already queued in the ring buffer are still delivered.
+	 */
+	public synchronized void useThreadPool() {
+		final RingBufferDispatcher old = dispatcher;
+		dispatcher = null;
+		if (old != null) old.shutdown();
+	}
+
+	/**
+	 * Gets the ring buffer delivering events published later, or null if they
+	 * are delivered via the thread pool.
+	 */
+	public RingBufferDispatcher getDispatcher() {
+		return dispatcher;
+	}
+
+	/**
+	 * Sets the statistics to which deliveries, handler timings and queue depth
+	 * are reported, or null to stop recording them.
+	 */
+	public void setMetrics(final EventMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/** Gets the statistics of this event bus, or null if none are recorded. */
+	public EventMetrics getMetrics() {
+		return metrics;
+	}
+
 	public void publishNow(final Object event) {
 		if (event == null) {
 			throw new IllegalArgumentException("Cannot publish null event.");
@@ -92,10 +151,32 @@ public class DefaultEventBus extends ThreadSafeEventService {
 		if (event == null) {
 			throw new IllegalArgumentException("Cannot publish null event.");
 		}
+		if (publishToRing(event)) return;
 		publishLater(event, null, null, getSubscribers(event.getClass()),
 			getVetoSubscribers(event.getClass()), null);
 	}
 
+	/**
+	 * Queues the publication of an event which is only determined when the
+	 * publication actually happens, allowing events to be replaced while they
+	 * wait for delivery.
+	 * 
+	 * @param event supplier of the event to publish, which may return null to
+	 *          publish nothing
+	 */
+	public void publishLater(final Supplier<?> event) {
+		if (publishToRing(new Deferred(event))) return;
+		queued();
+		final long time = System.nanoTime();
+		threadService.run(new Runnable() {
+
+			@Override
+			public void run() {
+				dispatch(event.get(), time);
+			}
+		});
+	}
+
 	public void publishLater(final Type genericType, final Object event) {
 		if (genericType == null) {
 			throw new IllegalArgumentException("genericType must not be null.");
@@ -141,8 +222,42 @@ public class DefaultEventBus extends ThreadSafeEventService {
 			callingStack);
 	}
 
+	@Override
+	protected boolean isTimingSubscribers() {
+		return metrics != null;
+	}
+
+	@Override
+	protected void subscriberTimed(final Object event, final String topic,
+		final Object subscriber, final long nanos)
+	{
+		final EventMetrics m = metrics;
+		if (m == null) return;
+		m.handled(subscriber, event == null ? "topic " + topic : event.getClass()
+			.getName(), nanos);
+	}
+
 	// -- Helper methods --
 
+	/**
+	 * Delivers an event which was published later.
+	 * 
+	 * @param time the {@link System#nanoTime()} of the publication
+	 */
+	private void dispatch(final Object item, final long time) {
+		final EventMetrics m = metrics;
+		if (m != null) m.dequeued();
+		final Object event = item instanceof Deferred ? ((Deferred) item).event
+			.get() : item;
+		if (event == null) return;
+		if (m != null) m.delivering(event.getClass(), time);
+		@SuppressWarnings("rawtypes")
+		final List subscribers = getSubscribers(event.getClass());
+		if (subscribers == null || subscribers.isEmpty()) return;
+		super.publish(event, null, null, subscribers, getVetoSubscribers(event
+			.getClass()), null);
+	}
+
 	private void publishNow(final Object event, final String topic,
 		final Object eventObj,
 		@SuppressWarnings("rawtypes") final List subscribers,
@@ -150,11 +265,13 @@ public class DefaultEventBus extends ThreadSafeEventService {
 		final StackTraceElement[] callingStack)
 	{
 		if (subscribers == null || subscribers.isEmpty()) return;
+		final long time = System.nanoTime();
 		try {
 			threadService.invoke(new Runnable() {
 
 				@Override
 				public void run() {
+					delivering(event, time);
 					log.debug("publish(" + event + "," + topic + "," + eventObj +
 						"), called from non-EDT Thread:" + Arrays.toString(callingStack));
 					DefaultEventBus.super.publish(event, topic, eventObj, subscribers,
@@ -177,10 +294,15 @@ public class DefaultEventBus extends ThreadSafeEventService {
 		final StackTraceElement[] callingStack)
 	{
 		if (subscribers == null || subscribers.isEmpty()) return;
+		queued();
+		final long time = System.nanoTime();
 		threadService.run(new Runnable() {
 
 			@Override
 			public void run() {
+				final EventMetrics m = metrics;
+				if (m != null) m.dequeued();
+				delivering(event, time);
 				log.debug("publish(" + event + "," + topic + "," + eventObj +
 					"), called from non-EDT Thread:" + Arrays.toString(callingStack));
 				DefaultEventBus.super.publish(event, topic, eventObj, subscribers,
@@ -189,4 +311,42 @@ public class DefaultEventBus extends ThreadSafeEventService {
 		});
 	}
 
+	/**
+	 * Queues the event in the ring buffer, if events are delivered via one.
+	 * 
+	 * @return false if the event must be delivered via the thread pool instead
+	 */
+	private boolean publishToRing(final Object event) {
+		final RingBufferDispatcher ring = dispatcher;
+		if (ring == null) return false;
+		queued();
+		if (ring.publish(event)) return true;
+		// NB: The ring buffer was replaced or shut down since we read it.
+		final EventMetrics m = metrics;
+		if (m != null) m.dequeued();
+		return false;
+	}
+
+	private void queued() {
+		final EventMetrics m = metrics;
+		if (m != null) m.queued();
+	}
+
+	private void delivering(final Object event, final long time) {
+		final EventMetrics m = metrics;
+		if (m != null && event != null) m.delivering(event.getClass(), time);
+	}
+
+	// -- Helper classes --
+
+	/** An event which is determined only when it is delivered. */
+	private static class Deferred {
+
+		private final Supplier<?> event;
+
+		public Deferred(final Supplier<?> event) {
+			this.event = event;
+		}
+	}
+
 }
@@ -29,9 +29,17 @@
 
 package org.scijava.event;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+import org.scijava.io.handle.DataHandle;
+import org.scijava.log.LogService;
 import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
 import org.scijava.service.AbstractService;
@@ -39,6 +47,14 @@ import org.scijava.service.Service;
 
 /**
  * Default service for keeping a history of SciJava events.
+ * <p>
+ * The history is a bounded ring buffer: once {@link #getCapacity()} events
+ * have been recorded, each new event replaces the oldest one. The capacity
+ * defaults to {@value #DEFAULT_CAPACITY}, or the value of the system property
+ * {@value #CAPACITY_PROPERTY}. Recording an event takes no lock, and event
+ * types {@link #setExcluded excluded} from the history are skipped before any
+ * details are captured, so the history can be kept active at little cost.
+ * </p>
  * 
  * @author Curtis Rueden
  */
@@ -47,11 +63,25 @@ public class DefaultEventHistory extends AbstractService implements
 	EventHistory
 {
 
+	/** Default maximum number of recorded events. */
+	public static final int DEFAULT_CAPACITY = 10000;
+
+	/** System property giving the maximum number of recorded events. */
+	public static final String CAPACITY_PROPERTY =
+		"scijava.event.history.capacity";
+
 	@Parameter
 	private EventService eventService;
 
+	@Parameter(required = false)
+	private LogService log;
+
 	/** Event details that have been recorded. */
-	private ArrayList<EventDetails> history = new ArrayList<>();
+	private volatile Ring history = new Ring(DEFAULT_CAPACITY);
+
+	/** Event types which are not recorded. */
+	private volatile Set<Class<? extends SciJavaEvent>> excluded = Collections
+		.emptySet();
 
 	private ArrayList<EventHistoryListener> listeners =
 		new ArrayList<>();
@@ -71,7 +101,7 @@ public class DefaultEventHistory extends AbstractService implements
 	}
 
 	@Override
-	public void clear() {
+	public synchronized void clear() {
 		history.clear();
 	}
 
@@ -80,7 +110,7 @@ public class DefaultEventHistory extends AbstractService implements
 		final Set<Class<? extends SciJavaEvent>> highlighted)
 	{
 		final StringBuilder sb = new StringBuilder();
-		for (final EventDetails details : history) {
+		for (final EventDetails details : history.snapshot()) {
 			final Class<? extends SciJavaEvent> eventType = details.getEventType();
 			if (filtered != null && filtered.contains(eventType)) {
 				// skip filtered event type
@@ -93,6 +123,45 @@ public class DefaultEventHistory extends AbstractService implements
 		return sb.toString();
 	}
 
+	@Override
+	public void export(final DataHandle<?> out,
+		final Set<Class<? extends SciJavaEvent>> filtered) throws IOException
+	{
+		for (final EventDetails details : history.snapshot()) {
+			if (filtered != null && filtered.contains(details.getEventType())) {
+				continue;
+			}
+			out.writeLine(details.toJSON());
+		}
+	}
+
+	@Override
+	public synchronized void setCapacity(final int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Invalid capacity: " + capacity);
+		}
+		// NB: Events recorded from now on go to the new ring, while the events
+		// already recorded are moved over, so that none is lost to the swap.
+		final Ring old = history;
+		final long end = old.seal();
+		final long first = Math.max(old.start, end - Math.min(capacity, old
+			.capacity()));
+		final Ring ring = new Ring(capacity, end, first);
+		history = ring;
+		ring.takeOver(old, first, end);
+	}
+
+	@Override
+	public int getCapacity() {
+		return history.capacity();
+	}
+
+	@Override
+	public void setExcluded(final Set<Class<? extends SciJavaEvent>> excluded) {
+		this.excluded = excluded == null ? Collections.emptySet() : Collections
+			.unmodifiableSet(new HashSet<>(excluded));
+	}
+
 	@Override
 	public void addListener(final EventHistoryListener l) {
 		synchronized (listeners) {
@@ -113,18 +182,46 @@ public class DefaultEventHistory extends AbstractService implements
 		}
 	}
 
+	// -- Service methods --
+
+	@Override
+	public void initialize() {
+		final String capacity = System.getProperty(CAPACITY_PROPERTY);
+		if (capacity == null) return;
+		try {
+			setCapacity(Integer.parseInt(capacity.trim()));
+		}
+		catch (final IllegalArgumentException exc) {
+			if (log != null) log.warn("Invalid " + CAPACITY_PROPERTY + ": " +
+				capacity);
+		}
+	}
+
 	// -- Event handlers --
 
 	@EventHandler
 	protected void onEvent(final SciJavaEvent event) {
 		if (!active) return; // only record events while active
+		if (isExcluded(event.getClass())) return;
 		final EventDetails details = new EventDetails(event);
-		history.add(details);
+		// NB: A ring is sealed while it is being replaced.
+		while (!history.add(details)) {
+			Thread.yield();
+		}
 		notifyListeners(details);
 	}
 
 	// -- Helper methods --
 
+	private boolean isExcluded(final Class<?> eventType) {
+		final Set<Class<? extends SciJavaEvent>> types = excluded;
+		if (types.isEmpty()) return false;
+		for (Class<?> c = eventType; c != null; c = c.getSuperclass()) {
+			if (types.contains(c)) return true;
+		}
+		return false;
+	}
+
 	private void notifyListeners(final EventDetails details) {
 		synchronized (listeners) {
 			for (final EventHistoryListener l : listeners) {
@@ -133,4 +230,141 @@ public class DefaultEventHistory extends AbstractService implements
 		}
 	}
 
+	// -- Helper classes --
+
+	/**
+	 * Fixed-capacity ring buffer of recorded events. Writers claim a sequence
+	 * number atomically and overwrite the oldest slot; readers take a snapshot
+	 * of the slots, keeping only the entries which belong to the current lap.
+	 * A slot only ever moves on to a later sequence number, even when writers
+	 * of successive laps race for it.
+	 */
+	private static class Ring {
+
+		/** Flag of the sequence counter, set once no more events are accepted. */
+		private static final long SEALED = 1L << 62;
+
+		private final AtomicReferenceArray<Entry> slots;
+		private final AtomicLong next;
+
+		/** Sequence number of the first event recorded since the last clear. */
+		private volatile long start;
+
+		/** Number of events accepted before the ring was sealed, or -1. */
+		private volatile long sealedAt = -1;
+
+		public Ring(final int capacity) {
+			this(capacity, 0, 0);
+		}
+
+		/** Creates a ring continuing the sequence numbers of another one. */
+		public Ring(final int capacity, final long next, final long start) {
+			slots = new AtomicReferenceArray<>(capacity);
+			this.next = new AtomicLong(next);
+			this.start = start;
+		}
+
+		public int capacity() {
+			return slots.length();
+		}
+
+		/** Records the event, unless the ring is sealed. */
+		public boolean add(final EventDetails details) {
+			final long seq = next.getAndIncrement();
+			if ((seq & SEALED) != 0) return false;
+			store(new Entry(seq, details));
+			return true;
+		}
+
+		/**
+		 * Stops accepting events.
+		 *
+		 * @return The number of events accepted.
+		 */
+		public long seal() {
+			while (true) {
+				final long n = next.get();
+				if (next.compareAndSet(n, n | SEALED)) {
+					sealedAt = n;
+					return n;
+				}
+			}
+		}
+
+		/**
+		 * Copies the given range of events from the given sealed ring, once the
+		 * writers it accepted are done.
+		 */
+		public void takeOver(final Ring old, final long first, final long end) {
+			for (long seq = first; seq < end; seq++) {
+				final int slot = (int) (seq % old.slots.length());
+				Entry entry = old.slots.get(slot);
+				// NB: Wait for the write of an event accepted before the seal.
+				while (entry == null || entry.seq < seq) {
+					Thread.yield();
+					entry = old.slots.get(slot);
+				}
+				if (entry.seq == seq) store(entry);
+			}
+		}
+
+		public void clear() {
+			final long end = end();
+			start = end;
+			// NB: Release the cleared events, but not those recorded meanwhile.
+			for (int i = 0; i < slots.length(); i++) {
+				final Entry entry = slots.get(i);
+				if (entry != null && entry.seq < end) slots.compareAndSet(i, entry,
+					null);
+			}
+		}
+
+		/** Gets the retained events, oldest first. */
+		public List<EventDetails> snapshot() {
+			final long end = end();
+			final long first = Math.max(start, end - slots.length());
+			final List<EventDetails> result = new ArrayList<>((int) (end - first));
+			for (long seq = first; seq < end; seq++) {
+				final Entry entry = slots.get((int) (seq % slots.length()));
+				// NB: Skip slots not yet written, or already overwritten.
+				if (entry != null && entry.seq == seq) result.add(entry.details);
+			}
+			return result;
+		}
+
+		/** Gets the number of events accepted so far. */
+		private long end() {
+			final long n = next.get();
+			if ((n & SEALED) == 0) return n;
+			// NB: Rejected writers keep counting; use the count at the seal.
+			long end;
+			while ((end = sealedAt) < 0) {
+				Thread.yield();
+			}
+			return end;
+		}
+
+		/** Writes the entry to its slot, unless a later one is already there. */
+		private void store(final Entry entry) {
+			final int slot = (int) (entry.seq % slots.length());
+			while (true) {
+				final Entry current = slots.get(slot);
+				if (current != null && current.seq > entry.seq) return;
+				if (slots.compareAndSet(slot, current, entry)) return;
+			}
+		}
+	}
+
+	/** An event recorded at a particular position in the ring buffer. */
+	private static class Entry {
+
+		private final long seq;
+		private final EventDetails details;
+
+		public Entry(final long seq, final EventDetails details) {
+			this.seq = seq;
+			this.details = details;
+		}
+	}
+
 }
@@ -29,9 +29,13 @@
 
 package org.scijava.event;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -39,8 +43,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
 
 import org.scijava.Priority;
+import org.scijava.event.RingBufferDispatcher.WaitStrategy;
 import org.scijava.event.bushe.AbstractProxySubscriber;
 import org.scijava.event.bushe.ReferenceStrength;
 import org.scijava.log.LogService;
@@ -53,6 +61,25 @@ import org.scijava.util.ClassUtils;
 
 /**
  * Default service for publishing and subscribing to SciJava events.
+ * <p>
+ * By default, events published with {@link #publishLater} are delivered by the
+ * {@link ThreadService}'s thread pool. Alternatively, each context can deliver
+ * them on a dedicated thread via a preallocated ring buffer (see
+ * {@link #useRingBuffer}), which avoids allocating a task per event. The ring
+ * buffer is enabled at initialization when the system property
+ * {@value #RING_PROPERTY} gives its capacity; the system property
+ * {@value #WAIT_PROPERTY} then selects the {@link WaitStrategy} (default
+ * {@code blocking}).
+ * </p>
+ * <p>
+ * Optionally, the service records {@link EventMetrics}: publication counts,
+ * delivery latencies, event handler timings and the depth of the queue of
+ * events published later, logging a warning for each event handler which
+ * exceeds a time threshold. Metrics are enabled by
+ * {@link #setMetricsEnabled(boolean)} or at initialization by the system
+ * property {@value #METRICS_PROPERTY}; the system property
+ * {@value #SLOW_PROPERTY} gives the threshold in milliseconds.
+ * </p>
  * 
  * @author Curtis Rueden
  * @author Grant Harris
@@ -72,6 +99,36 @@ public class DefaultEventService extends AbstractService implements
 	 */
 	public static final double PRIORITY = 10 * Priority.VERY_HIGH;
 
+	/** System property giving the capacity of the event ring buffer. */
+	public static final String RING_PROPERTY = "scijava.event.ring";
+
+	/** System property selecting the wait strategy of the event ring buffer. */
+	public static final String WAIT_PROPERTY = "scijava.event.wait";
+
+	/** System property indicating whether to record event metrics. */
+	public static final String METRICS_PROPERTY = "scijava.event.metrics";
+
+	/** System property giving the slow event handler threshold, in ms. */
+	public static final String SLOW_PROPERTY = "scijava.event.slow";
+
+	/** Type to which all event handler method handles are adapted. */
+	private static final MethodType INVOKER_TYPE = MethodType.methodType(
+		void.class, Object.class, SciJavaEvent.class);
+
+	/**
+	 * Direct invokers of {@link EventHandler} methods, cached per declaring
+	 * class so that each method is unreflected only once per JVM.
+	 */
+	private static final ClassValue<Map<Method, MethodHandle>> INVOKERS =
+		new ClassValue<Map<Method, MethodHandle>>()
+		{
+
+			@Override
+			protected Map<Method, MethodHandle> computeValue(final Class<?> type) {
+				return new ConcurrentHashMap<>();
+			}
+		};
+
 	@Parameter
 	private LogService log;
 
@@ -92,20 +149,84 @@ public class DefaultEventService extends AbstractService implements
 	 */
 	private final HashSet<String> keys = new HashSet<>();
 
+	/** Coalescing settings, by event class. */
+	private final Map<Class<?>, Coalescer<?>> coalescers =
+		new ConcurrentHashMap<>();
+
+	/** Coalesced events waiting to be delivered, by coalescing key. */
+	private final Map<List<?>, SciJavaEvent> pending = new ConcurrentHashMap<>();
+
+	// -- DefaultEventService methods --
+
+	/**
+	 * Delivers events published later on a dedicated dispatcher thread, via a
+	 * preallocated ring buffer.
+	 * 
+	 * @param capacity number of events the ring buffer can hold before
+	 *          publishers have to wait
+	 * @param waitStrategy how the dispatcher thread waits for events
+	 * @see RingBufferDispatcher
+	 */
+	public void useRingBuffer(final int capacity,
+		final WaitStrategy waitStrategy)
+	{
+		eventBus.useRingBuffer(capacity, waitStrategy);
+	}
+
+	/** Delivers events published later via the {@link ThreadService}. */
+	public void useThreadPool() {
+		eventBus.useThreadPool();
+	}
+
+	/** Gets whether events published later are delivered via a ring buffer. */
+	public boolean isRingBuffer() {
+		return eventBus.getDispatcher() != null;
+	}
+
+	/**
+	 * Enables or disables recording of {@link EventMetrics}. Enabling them again
+	 * starts over with fresh statistics.
+	 */
+	public void setMetricsEnabled(final boolean enabled) {
+		if (!enabled) eventBus.setMetrics(null);
+		else if (eventBus.getMetrics() == null) {
+			eventBus.setMetrics(new EventMetrics(log));
+		}
+	}
+
+	/** Gets the recorded event metrics, or null if they are not enabled. */
+	public EventMetrics getMetrics() {
+		return eventBus.getMetrics();
+	}
+
 	// -- EventService methods --
 
 	@Override
 	public <E extends SciJavaEvent> void publish(final E e) {
-		e.setContext(getContext());
-		e.setCallingThread(Thread.currentThread());
+		prepare(e);
+		published(e);
 		eventBus.publishNow(e);
 	}
 
 	@Override
 	public <E extends SciJavaEvent> void publishLater(final E e) {
-		e.setContext(getContext());
-		e.setCallingThread(Thread.currentThread());
-		eventBus.publishLater(e);
+		prepare(e);
+		published(e);
+		final Coalescer<?> coalescer = getCoalescer(e.getClass());
+		if (coalescer == null) eventBus.publishLater(e);
+		else coalescer.publishLater(e);
+	}
+
+	@Override
+	public <E extends SciJavaEvent> void coalesce(final Class<E> eventClass,
+		final Function<? super E, ?> key, final BinaryOperator<E> merge)
+	{
+		coalescers.put(eventClass, new Coalescer<>(eventClass, key, merge));
+	}
+
+	@Override
+	public void stopCoalescing(final Class<? extends SciJavaEvent> eventClass) {
+		coalescers.remove(eventClass);
 	}
 
 	@Override
@@ -170,6 +291,30 @@ public class DefaultEventService extends AbstractService implements
 	@Override
 	public void initialize() {
 		eventBus = new DefaultEventBus(threadService, log);
+		if (Boolean.getBoolean(METRICS_PROPERTY)) {
+			setMetricsEnabled(true);
+			final String slow = System.getProperty(SLOW_PROPERTY);
+			if (slow != null) {
+				try {
+					getMetrics().setSlowThreshold(Long.parseLong(slow.trim()));
+				}
+				catch (final NumberFormatException exc) {
+					log.warn("Invalid " + SLOW_PROPERTY + ": " + slow);
+				}
+			}
+		}
+		final String capacity = System.getProperty(RING_PROPERTY);
+		if (capacity != null) {
+			final String wait = System.getProperty(WAIT_PROPERTY, "blocking");
+			try {
+				useRingBuffer(Integer.parseInt(capacity.trim()), WaitStrategy.valueOf(
+					wait.trim().toUpperCase()));
+			}
+			catch (final IllegalArgumentException exc) {
+				log.warn("Invalid event ring buffer configuration: " + RING_PROPERTY +
+					"=" + capacity + ", " + WAIT_PROPERTY + "=" + wait, exc);
+			}
+		}
 		super.initialize();
 	}
 
@@ -178,6 +323,8 @@ public class DefaultEventService extends AbstractService implements
 	@Override
 	public void dispose() {
 		eventBus.clearAllSubscribers();
+		eventBus.useThreadPool();
+		pending.clear();
 	}
 
 	// -- Helper methods --
@@ -208,6 +355,30 @@ public class DefaultEventService extends AbstractService implements
 		return subscriber;
 	}
 
+	/** Associates the event with this context and the publishing thread. */
+	private void prepare(final SciJavaEvent e) {
+		e.setContext(getContext());
+		e.setCallingThread(Thread.currentThread());
+	}
+
+	private void published(final SciJavaEvent e) {
+		final EventMetrics metrics = eventBus.getMetrics();
+		if (metrics != null) metrics.published(e.getClass());
+	}
+
+	/**
+	 * Gets the coalescing settings for events of the given class, or null if
+	 * they are not coalesced.
+	 */
+	private Coalescer<?> getCoalescer(final Class<?> eventClass) {
+		if (coalescers.isEmpty()) return null;
+		for (Class<?> c = eventClass; c != null; c = c.getSuperclass()) {
+			final Coalescer<?> coalescer = coalescers.get(c);
+			if (coalescer != null) return coalescer;
+		}
+		return null;
+	}
+
 	/** Gets the event class parameter of the given method. */
 	private Class<? extends SciJavaEvent> getEventClass(final Method m) {
 		// Check for a cached entry for the given method
@@ -230,6 +401,28 @@ public class DefaultEventService extends AbstractService implements
 		return typedClass;
 	}
 
+	/**
+	 * Gets a method handle which invokes the given event handler method, of type
+	 * {@code (Object, SciJavaEvent)void}.
+	 */
+	private static MethodHandle getInvoker(final Method m) {
+		return INVOKERS.get(m.getDeclaringClass()).computeIfAbsent(m, method -> {
+			// allow calling of non-public methods
+			method.setAccessible(true);
+			try {
+				MethodHandle handle = MethodHandles.lookup().unreflect(method);
+				if (Modifier.isStatic(method.getModifiers())) {
+					handle = MethodHandles.dropArguments(handle, 0, Object.class);
+				}
+				return handle.asType(INVOKER_TYPE);
+			}
+			catch (final IllegalAccessException exc) {
+				throw new IllegalArgumentException("Inaccessible event handler: " +
+					method, exc);
+			}
+		});
+	}
+
 	// -- Event handlers garbage collection preventer --
 
 	private WeakHashMap<Object, List<ProxySubscriber<?>>> keepEm =
@@ -263,6 +456,48 @@ public class DefaultEventService extends AbstractService implements
 
 	// -- Helper classes --
 
+	/** Coalescing settings for one event class. */
+	private class Coalescer<E extends SciJavaEvent> {
+
+		private final Class<E> eventClass;
+		private final Function<? super E, ?> key;
+		private final BinaryOperator<E> merge;
+
+		public Coalescer(final Class<E> eventClass,
+			final Function<? super E, ?> key, final BinaryOperator<E> merge)
+		{
+			this.eventClass = eventClass;
+			this.key = key;
+			this.merge = merge;
+		}
+
+		/**
+		 * Queues the event for publication, unless an event with the same key is
+		 * already waiting; in that case, the two are merged and only the result
+		 * is delivered.
+		 */
+		public void publishLater(final SciJavaEvent e) {
+			final E event = eventClass.cast(e);
+			final List<?> k = Arrays.asList(this, key.apply(event));
+			final boolean[] queued = { false };
+			pending.compute(k, (kk, previous) -> {
+				if (previous != null) {
+					final E prior = eventClass.cast(previous);
+					final E merged = merge.apply(prior, event);
+					// NB: The merge function may create a new event.
+					if (merged != null && merged != prior && merged != event) {
+						prepare(merged);
+					}
+					return merged;
+				}
+				queued[0] = true;
+				return event;
+			});
+			// NB: The delivery takes whatever event is pending when it runs.
+			if (queued[0]) eventBus.publishLater(() -> pending.remove(k));
+		}
+	}
+
 	/**
 	 * Helper class used by {@link #subscribe(Object)}.
 	 * <p>
@@ -279,14 +514,13 @@ public class DefaultEventService extends AbstractService implements
 	{
 
 		private final Class<E> c;
+		private final MethodHandle invoker;
 
 		public ProxySubscriber(final Class<E> c, final Object o, final Method m) {
 			super(o, m, ReferenceStrength.WEAK, eventBus, false);
 			keepIt(o, this);
 			this.c = c;
-
-			// allow calling of non-public methods
-			m.setAccessible(true);
+			invoker = getInvoker(m);
 		}
 
 		/**
@@ -297,22 +531,15 @@ public class DefaultEventService extends AbstractService implements
 		 */
 		@Override
 		public void onEvent(final E event) {
+			final Object obj = getProxiedSubscriber();
+			if (obj == null) return; // has been garbage collected
 			try {
-				final Object obj = getProxiedSubscriber();
-				if (obj == null) return; // has been garbage collected
-				getSubscriptionMethod().invoke(obj, event);
+				invoker.invokeExact(obj, (SciJavaEvent) event);
 			}
-			catch (final IllegalAccessException exc) {
+			catch (final Throwable t) {
 				log.error("Exception during event handling:\n\t[Event] " +
 					event.getClass().getName() + ":" + event + "\n\t[Subscriber] " +
-					getProxiedSubscriber() + "\n\t[Method] " + getSubscriptionMethod(),
-					exc);
-			}
-			catch (final InvocationTargetException exc) {
-				log.error("Exception during event handling:\n\t[Event] " +
-					event.getClass().getName() + event + "\n\t[Subscriber] " +
-					getProxiedSubscriber() + "\n\t[Method] " + getSubscriptionMethod(),
-					exc.getCause());
+					obj + "\n\t[Method] " + getSubscriptionMethod(), t);
 			}
 		}
 
@@ -90,8 +90,31 @@ public class EventDetails {
 		return sb.toString();
 	}
 
+	/**
+	 * Gets the details as a single-line JSON object, with the timestamp in
+	 * milliseconds since the epoch, the fully qualified event class name and the
+	 * event string.
+	 */
+	public String toJSON() {
+		return "{\"timestamp\":" + timestamp.getTime() + ",\"type\":" + //
+			quote(eventType.getName()) + ",\"event\":" + quote(eventString) + "}";
+	}
+
 	// -- Helper methods --
 
+	private static String quote(final String s) {
+		final StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+		for (int i = 0; i < s.length(); i++) {
+			final char c = s.charAt(i);
+			if (c == '"' || c == '\\') sb.append('\\').append(c);
+			else if (c == '\n') sb.append("\\n");
+			else if (c == '\t') sb.append("\\t");
+			else if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+			else sb.append(c);
+		}
+		return sb.append('"').toString();
+	}
+
 	private String timestampAsString() {
 		final SimpleDateFormat formatter =
 			new SimpleDateFormat("hh:mm:ss.SS", Locale.getDefault());
@@ -30,8 +30,10 @@
 package org.scijava.event;
 
 
+import java.io.IOException;
 import java.util.Set;
 
+import org.scijava.io.handle.DataHandle;
 import org.scijava.service.SciJavaService;
 
 /**
@@ -60,6 +62,42 @@ public interface EventHistory extends SciJavaService {
 	String toHTML(Set<Class<? extends SciJavaEvent>> filtered,
 		Set<Class<? extends SciJavaEvent>> highlighted);
 
+	/**
+	 * Writes the recorded event history to the given handle, one
+	 * {@link EventDetails#toJSON() JSON object} per line, oldest event first.
+	 * 
+	 * @param out The handle to write to, starting at its current offset.
+	 * @param filtered Set of event types to leave out, or null.
+	 * @throws IOException If writing to the handle fails.
+	 */
+	default void export(final DataHandle<?> out,
+		final Set<Class<? extends SciJavaEvent>> filtered) throws IOException
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Sets the maximum number of events to retain; once it is reached, each
+	 * newly recorded event replaces the oldest one.
+	 */
+	default void setCapacity(final int capacity) {
+		throw new UnsupportedOperationException();
+	}
+
+	/** Gets the maximum number of events to retain. */
+	default int getCapacity() {
+		return Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Sets the event types (including subtypes) which are not recorded at all.
+	 * Unlike the {@code filtered} argument of {@link #toHTML}, this saves the
+	 * cost of recording events which are never of interest.
+	 */
+	default void setExcluded(final Set<Class<? extends SciJavaEvent>> excluded) {
+		throw new UnsupportedOperationException();
+	}
+
 	/**
 	 * Adds an event history listener. This mechanism exists (rather than using
 	 * the event bus) to avoid event feedback loops when reporting history
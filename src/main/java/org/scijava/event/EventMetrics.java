@@ -0,0 +1,299 @@
+/*
+ * #%L
+ * SciJava Common shared library for SciJava software.
+ * %%
+ * Copyright (C) 2009 - 2026 SciJava developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package org.scijava.event;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.scijava.event.bushe.AbstractProxySubscriber;
+import org.scijava.log.LogService;
+
+/**
+ * Throughput and timing statistics of an event bus.
+ * <p>
+ * Records, per event class, how many events were published and how long they
+ * waited between publication and delivery; per event handler, how long it took
+ * to handle each event; and how many events published later are waiting for
+ * delivery. Event handlers are identified by their {@link EventHandler}
+ * method, or by their class for plain {@link EventSubscriber}s, so the timings
+ * of all instances of a handler are aggregated.
+ * </p>
+ * <p>
+ * Whenever an event handler takes longer than the
+ * {@link #setSlowThreshold(long) slow threshold}, a warning is logged, naming
+ * the handler and the event.
+ * </p>
+ * 
+ * @see DefaultEventService#setMetricsEnabled(boolean)
+ */
+public class EventMetrics {
+
+	/** Default threshold above which event handlers are reported as slow. */
+	public static final long DEFAULT_SLOW_THRESHOLD = 200;
+
+	private final LogService log;
+
+	private final Map<Class<?>, LongAdder> publishCounts =
+		new ConcurrentHashMap<>();
+	private final Map<Class<?>, Timing> latencies = new ConcurrentHashMap<>();
+	private final Map<Object, Timing> handlerTimes = new ConcurrentHashMap<>();
+
+	private final AtomicLong queueDepth = new AtomicLong();
+	private final LongAccumulator maxQueueDepth = new LongAccumulator(Math::max,
+		0);
+
+	private volatile long slowThreshold = DEFAULT_SLOW_THRESHOLD * 1_000_000;
+
+	public EventMetrics(final LogService log) {
+		this.log = log;
+	}
+
+	// -- EventMetrics methods --
+
+	/**
+	 * Sets the time above which an event handler is reported as slow.
+	 * 
+	 * @param millis threshold in milliseconds, or a negative value to never
+	 *          report slow handlers
+	 */
+	public void setSlowThreshold(final long millis) {
+		slowThreshold = millis < 0 ? Long.MAX_VALUE : millis * 1_000_000;
+	}
+
+	/** Gets the time above which an event handler is reported as slow. */
+	public long getSlowThreshold() {
+		return slowThreshold == Long.MAX_VALUE ? -1 : slowThreshold / 1_000_000;
+	}
+
+	/** Gets the number of published events of the given class. */
+	public long getPublishCount(final Class<?> eventClass) {
+		final LongAdder count = publishCounts.get(eventClass);
+		return count == null ? 0 : count.sum();
+	}
+
+	/** Gets the number of published events, per event class. */
+	public Map<Class<?>, Long> getPublishCounts() {
+		final Map<Class<?>, Long> counts = new LinkedHashMap<>();
+		for (final Map.Entry<Class<?>, LongAdder> entry : publishCounts
+			.entrySet())
+		{
+			counts.put(entry.getKey(), entry.getValue().sum());
+		}
+		return counts;
+	}
+
+	/**
+	 * Gets the times events of the given class spent between publication and
+	 * the start of their delivery, or null if none was delivered yet.
+	 */
+	public Timing getLatency(final Class<?> eventClass) {
+		return latencies.get(eventClass);
+	}
+
+	/** Gets the delivery latencies, per event class. */
+	public Map<Class<?>, Timing> getLatencies() {
+		return Collections.unmodifiableMap(new LinkedHashMap<>(latencies));
+	}
+
+	/**
+	 * Gets the times spent in each event handler, keyed by handler name (e.g.,
+	 * {@code org.example.MyService#onEvent}).
+	 */
+	public Map<String, Timing> getHandlerTimes() {
+		final Map<String, Timing> times = new LinkedHashMap<>();
+		for (final Map.Entry<Object, Timing> entry : handlerTimes.entrySet()) {
+			times.put(name(entry.getKey()), entry.getValue());
+		}
+		return times;
+	}
+
+	/** Gets the number of events published later which await delivery. */
+	public long getQueueDepth() {
+		return queueDepth.get();
+	}
+
+	/** Gets the largest number of events which awaited delivery at once. */
+	public long getMaxQueueDepth() {
+		return maxQueueDepth.get();
+	}
+
+	/** Discards all statistics recorded so far. */
+	public void reset() {
+		publishCounts.clear();
+		latencies.clear();
+		handlerTimes.clear();
+		maxQueueDepth.reset();
+	}
+
+	/**
+	 * Gets a human-readable report of the statistics, with event handlers
+	 * sorted by descending total time.
+	 */
+	public String report() {
+		final String nl = System.getProperty("line.separator");
+		final StringBuilder sb = new StringBuilder();
+		sb.append("-- Events: publications and delivery latency --" + nl);
+		sb.append(String.format("%10s %12s %12s  %s%n", "count", "mean (ms)",
+			"max (ms)", "event class"));
+		for (final Map.Entry<Class<?>, Long> entry : getPublishCounts()
+			.entrySet())
+		{
+			final Timing latency = getLatency(entry.getKey());
+			sb.append(String.format("%10d %12.3f %12.3f  %s%n", entry.getValue(),
+				latency == null ? 0 : latency.getMean() / 1e6, latency == null ? 0
+					: latency.getMax() / 1e6, entry.getKey().getName()));
+		}
+
+		final List<Map.Entry<String, Timing>> handlers = new ArrayList<>(
+			getHandlerTimes().entrySet());
+		Collections.sort(handlers, (e1, e2) -> Long.compare(e2.getValue()
+			.getTotal(), e1.getValue().getTotal()));
+		sb.append(nl + "-- Events: handlers by total time --" + nl);
+		sb.append(String.format("%10s %12s %12s %12s  %s%n", "count",
+			"total (ms)", "mean (ms)", "max (ms)", "handler"));
+		for (final Map.Entry<String, Timing> entry : handlers) {
+			final Timing t = entry.getValue();
+			sb.append(String.format("%10d %12.3f %12.3f %12.3f  %s%n", t.getCount(),
+				t.getTotal() / 1e6, t.getMean() / 1e6, t.getMax() / 1e6, entry
+					.getKey()));
+		}
+		sb.append(nl + "-- Events: queue depth: " + getQueueDepth() + " (max " +
+			getMaxQueueDepth() + ") --" + nl);
+		return sb.toString();
+	}
+
+	// -- Internal methods --
+
+	/** Records the publication of an event. */
+	void published(final Class<?> eventClass) {
+		publishCounts.computeIfAbsent(eventClass, c -> new LongAdder())
+			.increment();
+	}
+
+	/** Records that an event published later was queued for delivery. */
+	void queued() {
+		maxQueueDepth.accumulate(queueDepth.incrementAndGet());
+	}
+
+	/** Records that a queued event is being delivered. */
+	void dequeued() {
+		// NB: The event may have been queued before metrics were enabled.
+		queueDepth.updateAndGet(depth -> depth > 0 ? depth - 1 : 0);
+	}
+
+	/**
+	 * Records that delivery of an event started.
+	 * 
+	 * @param publishTime the {@link System#nanoTime()} of the publication
+	 */
+	void delivering(final Class<?> eventClass, final long publishTime) {
+		latencies.computeIfAbsent(eventClass, c -> new Timing()).add(System
+			.nanoTime() - publishTime);
+	}
+
+	/**
+	 * Records the time a subscriber took to handle an event.
+	 * 
+	 * @param what description of the handled event, for logging
+	 */
+	void handled(final Object subscriber, final String what, final long nanos) {
+		final Object key = key(subscriber);
+		handlerTimes.computeIfAbsent(key, k -> new Timing()).add(nanos);
+		if (nanos > slowThreshold && log != null) {
+			log.warn("Slow event handler: " + name(key) + " took " + nanos /
+				1_000_000 + " ms to handle " + what);
+		}
+	}
+
+	// -- Helper methods --
+
+	/** Identifies the handler behind a subscriber. */
+	private static Object key(final Object subscriber) {
+		if (subscriber instanceof AbstractProxySubscriber) {
+			return ((AbstractProxySubscriber) subscriber).getSubscriptionMethod();
+		}
+		return subscriber.getClass();
+	}
+
+	private static String name(final Object key) {
+		if (key instanceof Method) {
+			final Method m = (Method) key;
+			return m.getDeclaringClass().getName() + "#" + m.getName();
+		}
+		return ((Class<?>) key).getName();
+	}
+
+	// -- Helper classes --
+
+	/** Accumulated durations of some repeated activity. */
+	public static class Timing {
+
+		private final LongAdder count = new LongAdder();
+		private final LongAdder total = new LongAdder();
+		private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+		private void add(final long nanos) {
+			count.increment();
+			total.add(nanos);
+			max.accumulate(nanos);
+		}
+
+		/** Gets the number of recorded durations. */
+		public long getCount() {
+			return count.sum();
+		}
+
+		/** Gets the sum of all recorded durations, in nanoseconds. */
+		public long getTotal() {
+			return total.sum();
+		}
+
+		/** Gets the longest recorded duration, in nanoseconds. */
+		public long getMax() {
+			return max.get();
+		}
+
+		/** Gets the mean recorded duration, in nanoseconds. */
+		public double getMean() {
+			final long n = getCount();
+			return n == 0 ? 0 : (double) getTotal() / n;
+		}
+	}
+
+}
@@ -32,6 +32,8 @@ package org.scijava.event;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
 
 import org.scijava.service.SciJavaService;
 
@@ -96,6 +98,58 @@ public interface EventService extends SciJavaService {
 	 */
 	<E extends SciJavaEvent> void publishLater(E e);
 
+	/**
+	 * Enables coalescing of events of the given class (and subclasses thereof)
+	 * published with {@link #publishLater}: an event which arrives while an
+	 * earlier event with the same key is still waiting to be delivered replaces
+	 * that earlier event, so subscribers receive only the latest one.
+	 * <p>
+	 * This is intended for high-frequency notifications such as progress
+	 * updates, where only the most recent state matters. Events published with
+	 * {@link #publish} are never coalesced.
+	 * </p>
+	 * 
+	 * @param eventClass the class of events to coalesce
+	 * @param key function computing the key of an event; only events with equal
+	 *          keys are coalesced with each other
+	 */
+	default <E extends SciJavaEvent> void coalesce(final Class<E> eventClass,
+		final Function<? super E, ?> key)
+	{
+		coalesce(eventClass, key, (pending, latest) -> latest);
+	}
+
+	/**
+	 * Enables coalescing of events of the given class (and subclasses thereof)
+	 * published with {@link #publishLater}, merging an event which arrives while
+	 * an earlier event with the same key is still waiting to be delivered into
+	 * that earlier event.
+	 * <p>
+	 * Implementations which do not support coalescing deliver every event, which
+	 * is what the default implementation does.
+	 * </p>
+	 * 
+	 * @param eventClass the class of events to coalesce
+	 * @param key function computing the key of an event; only events with equal
+	 *          keys are coalesced with each other
+	 * @param merge function combining the pending event with a newly published
+	 *          one into the event to deliver instead
+	 * @see #coalesce(Class, Function)
+	 */
+	default <E extends SciJavaEvent> void coalesce(final Class<E> eventClass,
+		final Function<? super E, ?> key, final BinaryOperator<E> merge)
+	{
+		// NB: No implementation needed.
+	}
+
+	/**
+	 * Disables coalescing of events of the given class, as enabled by
+	 * {@link #coalesce(Class, Function)}.
+	 */
+	default void stopCoalescing(final Class<? extends SciJavaEvent> eventClass) {
+		// NB: No implementation needed.
+	}
+
 	/**
 	 * Subscribes all of the given object's @{@link EventHandler} annotated
 	 * methods.
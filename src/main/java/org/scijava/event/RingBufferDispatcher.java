@@ -0,0 +1,300 @@
+/*
+ * #%L
+ * SciJava Common shared library for SciJava software.
+ * %%
+ * Copyright (C) 2009 - 2026 SciJava developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package org.scijava.event;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ObjLongConsumer;
+
+import org.scijava.log.LogService;
+
+/**
+ * Delivers events asynchronously on a single dedicated thread, via a
+ * preallocated ring buffer.
+ * <p>
+ * Any number of threads may {@link #publish} events concurrently. Each
+ * publication claims the next slot of the ring with a compare-and-set, so that
+ * queueing an event allocates nothing. The dispatcher thread consumes all
+ * events published so far as one batch, in publication order, and only then
+ * frees their slots. When the ring is full, publishers wait until the
+ * dispatcher catches up; if the dispatcher thread itself publishes into a full
+ * ring, the event is delivered immediately instead.
+ * </p>
+ * <p>
+ * How the dispatcher thread waits for new events is controlled by the
+ * {@link WaitStrategy}.
+ * </p>
+ */
+public class RingBufferDispatcher {
+
+	/** How the dispatcher thread waits while the ring buffer is empty. */
+	public enum WaitStrategy {
+
+		/**
+		 * Parks the dispatcher thread until a publisher wakes it up. Uses no CPU
+		 * while idle, at the cost of a wake-up per burst of events.
+		 */
+		BLOCKING,
+
+		/**
+		 * Spins briefly, then yields, then sleeps in short intervals. Publishers
+		 * never need to wake the dispatcher thread.
+		 */
+		SLEEPING,
+
+		/**
+		 * Spins briefly, then yields the processor. Lowest latency, but keeps a
+		 * core busy while idle.
+		 */
+		YIELDING
+	}
+
+	/** Iterations spent spinning before yielding, for non-blocking strategies. */
+	private static final int SPIN_TRIES = 100;
+
+	/** Iterations spent yielding before sleeping, for the sleeping strategy. */
+	private static final int YIELD_TRIES = 100;
+
+	/** Sleep interval of the sleeping strategy, and while the ring is full. */
+	private static final long SLEEP_NANOS = 100_000;
+
+	private final Object[] events;
+	private final long[] times;
+	private final AtomicLongArray sequences;
+	private final int mask;
+	private final WaitStrategy waitStrategy;
+	private final ObjLongConsumer<Object> consumer;
+	private final LogService log;
+	private final Thread thread;
+
+	/** Flag of {@link #claimed} marking that no more slots can be claimed. */
+	private static final long CLOSED = 1L << 62;
+
+	/**
+	 * The next sequence number to be claimed by a publisher, along with the
+	 * {@link #CLOSED} flag once the dispatcher has been {@link #shutdown}.
+	 */
+	private final AtomicLong claimed = new AtomicLong();
+
+	/** The next sequence number to be consumed; all earlier slots are free. */
+	private volatile long consumed;
+
+	/** Whether the dispatcher thread is (about to be) parked. */
+	private volatile boolean waiting;
+
+	/**
+	 * Creates a dispatcher and starts its thread.
+	 * 
+	 * @param capacity number of slots in the ring buffer; rounded up to a power
+	 *          of two
+	 * @param waitStrategy how the dispatcher thread waits for events
+	 * @param consumer callback delivering each event, on the dispatcher thread,
+	 *          along with the {@link System#nanoTime()} of its publication
+	 * @param threadFactory factory for the dispatcher thread
+	 * @param log service used to report exceptions thrown by the consumer
+	 */
+	public RingBufferDispatcher(final int capacity,
+		final WaitStrategy waitStrategy, final ObjLongConsumer<Object> consumer,
+		final ThreadFactory threadFactory, final LogService log)
+	{
+		if (capacity < 1 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("Invalid capacity: " + capacity);
+		}
+		final int size = Integer.highestOneBit(capacity) == capacity ? capacity
+			: Integer.highestOneBit(capacity) << 1;
+		events = new Object[size];
+		times = new long[size];
+		sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			sequences.set(i, -1);
+		}
+		mask = size - 1;
+		this.waitStrategy = waitStrategy;
+		this.consumer = consumer;
+		this.log = log;
+		thread = threadFactory.newThread(this::dispatch);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	// -- RingBufferDispatcher methods --
+
+	/**
+	 * Queues the given event for delivery on the dispatcher thread, waiting for
+	 * a free slot if the ring buffer is full.
+	 * 
+	 * @return true if the event will be delivered, or false if the dispatcher
+	 *         has been {@link #shutdown} and the event was refused
+	 */
+	public boolean publish(final Object event) {
+		final long time = System.nanoTime();
+		long seq;
+		int tries = 0;
+		while (true) {
+			seq = claimed.get();
+			if ((seq & CLOSED) != 0) return false;
+			if (seq - consumed >= events.length) {
+				// ring buffer is full
+				if (Thread.currentThread() == thread) {
+					// NB: Waiting for ourselves would deadlock.
+					deliver(event, time);
+					return true;
+				}
+				tries = idle(tries, WaitStrategy.SLEEPING);
+				continue;
+			}
+			if (claimed.compareAndSet(seq, seq + 1)) break;
+		}
+		final int index = (int) seq & mask;
+		events[index] = event;
+		times[index] = time;
+		sequences.set(index, seq);
+		if (waiting) LockSupport.unpark(thread);
+		return true;
+	}
+
+	/** Gets the number of events waiting to be delivered. */
+	public int size() {
+		return (int) Math.max(0, (claimed.get() & ~CLOSED) - consumed);
+	}
+
+	/** Gets the number of slots in the ring buffer. */
+	public int capacity() {
+		return events.length;
+	}
+
+	/** Gets the strategy by which the dispatcher thread waits for events. */
+	public WaitStrategy getWaitStrategy() {
+		return waitStrategy;
+	}
+
+	/**
+	 * Stops accepting events. The dispatcher thread delivers the events which
+	 * are already queued, then terminates.
+	 */
+	public void shutdown() {
+		// NB: Closing the sequence itself, rather than setting a separate flag,
+		// makes every slot claimed before the shutdown known to the dispatcher.
+		long seq;
+		do {
+			seq = claimed.get();
+			if ((seq & CLOSED) != 0) return;
+		}
+		while (!claimed.compareAndSet(seq, seq | CLOSED));
+		LockSupport.unpark(thread);
+	}
+
+	/** Gets whether the dispatcher has been {@link #shutdown}. */
+	public boolean isShutdown() {
+		return (claimed.get() & CLOSED) != 0;
+	}
+
+	/**
+	 * Waits for the dispatcher thread to terminate after {@link #shutdown()}.
+	 * 
+	 * @return true if the thread terminated within the given time
+	 */
+	public boolean awaitTermination(final long millis)
+		throws InterruptedException
+	{
+		thread.join(millis);
+		return !thread.isAlive();
+	}
+
+	// -- Helper methods --
+
+	/** Main loop of the dispatcher thread. */
+	private void dispatch() {
+		long next = 0;
+		int tries = 0;
+		while (true) {
+			// find the end of the batch of consecutive published events
+			long end = next;
+			while (sequences.get((int) end & mask) == end) {
+				end++;
+			}
+			if (end == next) {
+				// NB: After shutdown, drain until every claimed slot is consumed.
+				if (claimed.get() == (next | CLOSED)) break;
+				tries = idle(tries, waitStrategy);
+				continue;
+			}
+			tries = 0;
+			for (long seq = next; seq < end; seq++) {
+				final int index = (int) seq & mask;
+				final Object event = events[index];
+				events[index] = null;
+				deliver(event, times[index]);
+			}
+			next = end;
+			consumed = end;
+		}
+	}
+
+	private void deliver(final Object event, final long time) {
+		try {
+			consumer.accept(event, time);
+		}
+		catch (final Throwable t) {
+			if (log != null) log.error("Exception during event dispatch", t);
+		}
+	}
+
+	/**
+	 * Waits a little, according to the given strategy.
+	 * 
+	 * @param tries how many times in a row the caller has waited so far
+	 * @return the updated number of tries
+	 */
+	private int idle(final int tries, final WaitStrategy strategy) {
+		if (tries < SPIN_TRIES) return tries + 1;
+		switch (strategy) {
+			case BLOCKING:
+				waiting = true;
+				// NB: Check again, in case a publisher missed the waiting flag.
+				if (sequences.get((int) consumed & mask) != consumed && !isShutdown()) {
+					LockSupport.park(this);
+				}
+				waiting = false;
+				break;
+			case SLEEPING:
+				if (tries < SPIN_TRIES + YIELD_TRIES) Thread.yield();
+				else LockSupport.parkNanos(this, SLEEP_NANOS);
+				break;
+			default:
+				Thread.yield();
+		}
+		return tries + 1;
+	}
+
+}
@@ -23,7 +23,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -31,6 +30,7 @@ import java.util.Timer;
 import java.util.TimerTask;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import org.scijava.event.bushe.Logger.Level;
@@ -52,6 +52,13 @@ import org.scijava.event.bushe.Logger.Level;
  * in an unsubscribed object receiving notification of the event after it was unsubscribed (but just once).
  * </p>
  * <p>
+ * Publication by event class does not take the lock at all.  The subscribers and veto subscribers for each published
+ * event class are merged, sorted and stored in an immutable array the first time the class is published, and every
+ * subscription change discards these arrays (copy-on-write), so the next publication rebuilds them.  Only when a
+ * weakly referenced subscriber turns out to have been garbage collected does publication fall back to the locked
+ * path, which cleans up the stale reference.
+ * </p>
+ * <p>
  * On event publication, subscribers are called in the order in which they subscribed.
  * </p>
  * <p>
@@ -161,19 +168,19 @@ public class ThreadSafeEventService implements EventService {
    private Map vetoListenersByTopic = new HashMap();
    private Map vetoListenersByTopicPattern = new HashMap();
    private final Object listenerLock = new Object();
+   private final Map<Class, ClassSubscribers> subscribersByPublishedClass = new ConcurrentHashMap<Class, ClassSubscribers>();
    private final Object cacheLock = new Object();
    private Long timeThresholdForEventTimingEventPublication;
-   private Map<Class, List> cacheByEvent = new HashMap<Class, List>();
-   private int defaultCacheSizePerClassOrTopic = 0;
-   private Map<Class, Integer> cacheSizesForEventClass;
+   private final ConcurrentHashMap<Class, EventCache> cacheByEvent = new ConcurrentHashMap<Class, EventCache>();
+   private volatile int defaultCacheSizePerClassOrTopic = 0;
+   private final Map<Class, Integer> cacheSizesForEventClass = new ConcurrentHashMap<Class, Integer>();
    private Map<Class, Integer> rawCacheSizesForEventClass;
-   private boolean rawCacheSizesForEventClassChanged;
-   private Map<String, List> cacheByTopic = new HashMap<String, List>();
-   private Map<String, Integer> cacheSizesForTopic;
+   private final ConcurrentHashMap<String, EventCache> cacheByTopic = new ConcurrentHashMap<String, EventCache>();
+   private final Map<String, Integer> cacheSizesForTopic = new ConcurrentHashMap<String, Integer>();
    private Map<String, Integer> rawCacheSizesForTopic;
-   private boolean rawCacheSizesForTopicChanged;
    private Map<PatternWrapper, Integer> rawCacheSizesForPattern;
-   private boolean rawCacheSizesForPatternChanged;
+   /** Whether any topic or pattern has a cache size; written while holding the cacheLock. */
+   private volatile boolean hasTopicCacheSizes;
    private Integer cleanupStartThreshhold;
    private Integer cleanupStopThreshold;
    private Long cleanupPeriodMS;
@@ -181,6 +188,7 @@ public class ThreadSafeEventService implements EventService {
    private Timer cleanupTimer;
    private TimerTask cleanupTimerTask;
    private static final Comparator PRIORITIZED_SUBSCRIBER_COMPARATOR = new PrioritizedSubscriberComparator();
+   private static final Comparator SUBSCRIBER_ENTRY_COMPARATOR = new SubscriberEntryComparator();
    private boolean hasEverUsedPrioritized;
 
    /** Creates a ThreadSafeEventService that does not monitor timing of handlers. */
@@ -638,6 +646,7 @@ public class ThreadSafeEventService implements EventService {
             }
          }
          currentSubscribers.add(subscriber);
+         clearClassSubscribers();
          if (isWeakProxySubscriber || isWeakRef) {
             incWeakRefPlusProxySubscriberCount();
          }
@@ -932,11 +941,12 @@ public class ThreadSafeEventService implements EventService {
             LOG.debug("Publishing to subscribers:" + subscribers);
          }
          setStatus(PublicationStatus.Publishing, event, topic, eventObj);
+         boolean timed = isTimingSubscribers();
          for (int i = 0; i < subscribers.size(); i++) {
             Object eh = subscribers.get(i);
+            long start = timed ? System.nanoTime() : 0;
             if (event != null) {
                EventSubscriber eventSubscriber = (EventSubscriber) eh;
-               long start = System.currentTimeMillis();
                try {
                   eventSubscriber.onEvent(event);
                } catch (Throwable e) {
@@ -950,11 +960,34 @@ public class ThreadSafeEventService implements EventService {
                   onEventException(topic, eventObj, e, callingStack, eventTopicSubscriber);
                }
             }
+            if (timed) {
+               subscriberTimed(event, topic, eh, System.nanoTime() - start);
+            }
          }
       }
       setStatus(PublicationStatus.Completed, event, topic, eventObj);      
    }
 
+   /**
+    * Whether publication should measure how long each subscriber takes to handle an event, and report it to
+    * {@link #subscriberTimed(Object, String, Object, long)}.  False by default.
+    * @return true to time subscribers
+    */
+   protected boolean isTimingSubscribers() {
+      return false;
+   }
+
+   /**
+    * Called after a subscriber handled an event, if {@link #isTimingSubscribers()} is true.
+    * @param event the event that was handled, null if publishing on a topic
+    * @param topic the topic that was published on, null if the event is not null
+    * @param subscriber the EventSubscriber or EventTopicSubscriber
+    * @param nanos the time the subscriber took, in nanoseconds, including any exception handling
+    */
+   @SuppressWarnings({"UnusedDeclaration"})
+   protected void subscriberTimed(Object event, String topic, Object subscriber, long nanos) {
+   }
+
    /**
     * Called during publication to set the status on an event.  Can be used by subclasses
     * to be notified when an event transitions from one state to another.  Implementers
@@ -1082,52 +1115,44 @@ public class ThreadSafeEventService implements EventService {
     * @param eventObj the eventObj about to be published on a topic, null if the event is non-null
     */
    protected void addEventToCache(Object event, String topic, Object eventObj) {
-      //Taking the listener lock here, since a listener that is now subscribing will want
-      //this event since they are not in this subscriber list.
-      synchronized (listenerLock) {
-         if (event != null) {
-            int cacheSizeForEventClass = getCacheSizeForEventClass(event.getClass());
-            List eventClassCache = (List) cacheByEvent.get(event.getClass());
-            if (cacheSizeForEventClass <= 0) {
-               if (eventClassCache != null) {
-                  //the cache threshold was lowered to 0
-                  cacheByEvent.remove(event.getClass());
-               }
-            } else {
-               if (eventClassCache == null) {
-                  eventClassCache = new LinkedList();
-                  cacheByEvent.put(event.getClass(), eventClassCache);
-               }
-               eventClassCache.add(0, event);
-               while (eventClassCache.size() > cacheSizeForEventClass) {
-                  eventClassCache.remove(eventClassCache.size() - 1);
-               }
-            }
-         } else {
-            //topic
-            int cacheSizeForTopic = getCacheSizeForTopic(topic);
-            List topicCache = (List) cacheByTopic.get(topic);
-            if (cacheSizeForTopic <= 0) {
-               if (topicCache != null) {
-                  //the cache threshold was lowered to 0
-                  topicCache.remove(topic);
-               }
-            } else {
-               if (topicCache == null) {
-                  topicCache = new LinkedList();
-                  cacheByTopic.put(topic, topicCache);
-               }
-               topicCache.add(0, eventObj);
-               while (topicCache.size() > cacheSizeForTopic) {
-                  topicCache.remove(topicCache.size() - 1);
-               }
-            }
+      //Cache sizes are resolved once per class or topic and each cache is a fixed-size ring, so this neither takes the
+      //listenerLock nor allocates, unless caching was just turned on or resized for this class or topic.
+      if (event != null) {
+         addToCache(cacheByEvent, event.getClass(), getCacheSizeForEventClass(event.getClass()), event);
+      } else {
+         addToCache(cacheByTopic, topic, getCacheSizeForTopic(topic), eventObj);
+      }
+   }
+
+   private static <K> void addToCache(ConcurrentHashMap<K, EventCache> caches, K key, int cacheSize, Object item) {
+      if (cacheSize <= 0) {
+         if (!caches.isEmpty()) {
+            //the cache threshold may have been lowered to 0
+            caches.remove(key);
          }
+         return;
+      }
+      EventCache cache = caches.get(key);
+      while (cache == null || cache.capacity() != cacheSize) {
+         //the cache is new, or its threshold was changed
+         EventCache resized = new EventCache(cacheSize, cache);
+         boolean installed = cache == null ? caches.putIfAbsent(key, resized) == null : caches.replace(key, cache, resized);
+         cache = installed ? resized : caches.get(key);
       }
+      cache.add(item);
    }
 
    /** @see EventService#getSubscribers(Class) */
    public <T> List<T> getSubscribers(Class<T> eventClass) {
+      List result = resolveClassSubscribers(getClassSubscribers(eventClass).subscribers);
+      if (result == null) {
+         //A subscriber was garbage collected, take the locked path to clean it up
+         result = collectSubscribers(eventClass);
+      }
+      return result;
+   }
+
+   private List collectSubscribers(Class eventClass) {
       List hierarchyMatches;
       List exactMatches;
       synchronized (listenerLock) {
@@ -1221,6 +1246,15 @@ public class ThreadSafeEventService implements EventService {
 
    /** @see EventService#getVetoSubscribers(Class) */
    public <T> List<T> getVetoSubscribers(Class<T> eventClass) {
+      List result = resolveClassSubscribers(getClassSubscribers(eventClass).vetoSubscribers);
+      if (result == null) {
+         //A veto subscriber was garbage collected, take the locked path to clean it up
+         result = collectVetoSubscribers(eventClass);
+      }
+      return result;
+   }
+
+   private List collectVetoSubscribers(Class eventClass) {
       List result = new ArrayList();
       List exactMatches;
       List hierarchyMatches;
@@ -1359,6 +1393,84 @@ public class ThreadSafeEventService implements EventService {
       return result;
    }
 
+   /**
+    * Gets the precomputed subscribers and veto subscribers of an event class, computing them under the listener lock
+    * if the class has not been published since the last subscription change.
+    */
+   private ClassSubscribers getClassSubscribers(Class eventClass) {
+      ClassSubscribers classSubscribers = subscribersByPublishedClass.get(eventClass);
+      if (classSubscribers != null) {
+         return classSubscribers;
+      }
+      synchronized (listenerLock) {
+         //Computed and stored under the lock, so that a concurrent subscription change cannot be missed
+         classSubscribers = subscribersByPublishedClass.get(eventClass);
+         if (classSubscribers == null) {
+            List subscribers = new ArrayList();
+            addSubscriberEntries(subscribers, subscribersByExactEventClass, eventClass, true);
+            addSubscriberEntries(subscribers, subscribersByEventClass, eventClass, false);
+            List vetoSubscribers = new ArrayList();
+            addSubscriberEntries(vetoSubscribers, vetoListenersByClass, eventClass, false);
+            addSubscriberEntries(vetoSubscribers, vetoListenersByExactClass, eventClass, true);
+            if (hasEverUsedPrioritized) {
+               Collections.sort(subscribers, SUBSCRIBER_ENTRY_COMPARATOR);
+               Collections.sort(vetoSubscribers, SUBSCRIBER_ENTRY_COMPARATOR);
+            }
+            classSubscribers = new ClassSubscribers(subscribers.toArray(), vetoSubscribers.toArray());
+            subscribersByPublishedClass.put(eventClass, classSubscribers);
+         }
+         return classSubscribers;
+      }
+   }
+
+   /**
+    * Adds the subscriber entries (possibly WeakReferences or ProxySubscribers) subscribed to the event class, either
+    * exactly or to one of its superclasses or interfaces.
+    */
+   private void addSubscriberEntries(List entries, Map classMap, Class eventClass, boolean exact) {
+      if (exact) {
+         List subscribers = (List) classMap.get(eventClass);
+         if (subscribers != null) {
+            entries.addAll(subscribers);
+         }
+         return;
+      }
+      for (Iterator iterator = classMap.entrySet().iterator(); iterator.hasNext();) {
+         Map.Entry entry = (Map.Entry) iterator.next();
+         if (((Class) entry.getKey()).isAssignableFrom(eventClass)) {
+            entries.addAll((Collection) entry.getValue());
+         }
+      }
+   }
+
+   /**
+    * Resolves precomputed subscriber entries the same way createCopyOfContentsRemoveWeakRefs does, without locking.
+    *
+    * @return a new list of subscribers, or null if a subscriber was garbage collected
+    */
+   private List resolveClassSubscribers(Object[] entries) {
+      List result = new ArrayList(entries.length);
+      for (Object entry : entries) {
+         if (entry instanceof ProxySubscriber) {
+            if (((ProxySubscriber) entry).getProxiedSubscriber() == null) {
+               return null;
+            }
+         } else if (entry instanceof WeakReference) {
+            entry = ((WeakReference) entry).get();
+            if (entry == null) {
+               return null;
+            }
+         }
+         result.add(entry);
+      }
+      return result;
+   }
+
+   /** Discards the precomputed per-class subscribers, called whenever a subscriber list changes. */
+   private void clearClassSubscribers() {
+      subscribersByPublishedClass.clear();
+   }
+
    private List getEventOrVetoSubscribersToClass(Map classMap, Class eventClass) {
       List result = new ArrayList();
       Set keys = classMap.keySet();
@@ -1516,6 +1628,7 @@ public class ThreadSafeEventService implements EventService {
          return false;
       }
       if (subscribers.remove(toRemove)) {
+         clearClassSubscribers();
          if (toRemove instanceof WeakReference) {
             decWeakRefPlusProxySubscriberCount();            
          }
@@ -1543,10 +1656,12 @@ public class ThreadSafeEventService implements EventService {
             if (realRef == null) {
                //clean up a garbage collected reference
                iter.remove();
+               clearClassSubscribers();
                decWeakRefPlusProxySubscriberCount();
                return true;
             } else if (realRef == toRemove) {
                iter.remove();
+               clearClassSubscribers();
                decWeakRefPlusProxySubscriberCount();
                return true;
             } else if (realRef instanceof ProxySubscriber) {
@@ -1590,6 +1705,7 @@ public class ThreadSafeEventService implements EventService {
             if (hardRef == null) {
                //Was reclaimed, unsubscribe
                iter.remove();
+               clearClassSubscribers();
                decWeakRefPlusProxySubscriberCount();
             } else {
                copyOfSubscribersOrVetolisteners.add(hardRef);
@@ -1618,6 +1734,8 @@ public class ThreadSafeEventService implements EventService {
    public void setDefaultCacheSizePerClassOrTopic(int defaultCacheSizePerClassOrTopic) {
       synchronized (cacheLock) {
          this.defaultCacheSizePerClassOrTopic = defaultCacheSizePerClassOrTopic;
+         cacheSizesForEventClass.clear();
+         cacheSizesForTopic.clear();
       }
    }
 
@@ -1654,7 +1772,7 @@ public class ThreadSafeEventService implements EventService {
             rawCacheSizesForEventClass = new HashMap();
          }
          rawCacheSizesForEventClass.put(eventClass, new Integer(cacheSize));
-         rawCacheSizesForEventClassChanged = true;
+         cacheSizesForEventClass.clear();
       }
    }
 
@@ -1675,47 +1793,37 @@ public class ThreadSafeEventService implements EventService {
       if (eventClass == null) {
          throw new IllegalArgumentException("eventClass must not be null.");
       }
+      //Resolved sizes are kept until the settings change, so publication usually needs no lock
+      Integer size = cacheSizesForEventClass.get(eventClass);
+      if (size != null) {
+         return size.intValue();
+      }
       synchronized (cacheLock) {
-         if (rawCacheSizesForEventClass == null || rawCacheSizesForEventClass.size() == 0) {
-            return getDefaultCacheSizePerClassOrTopic();
-         }
-         if (cacheSizesForEventClass == null) {
-            cacheSizesForEventClass = new HashMap();
-         }
-         if (rawCacheSizesForEventClassChanged) {
-            cacheSizesForEventClass.clear();
-            cacheSizesForEventClass.putAll(rawCacheSizesForEventClass);
-            rawCacheSizesForEventClassChanged = false;
-         }
+         size = resolveCacheSizeForEventClass(eventClass);
+         cacheSizesForEventClass.put(eventClass, size);
+         return size.intValue();
+      }
+   }
 
-         //Has this been computed yet or set directly?
-         Integer size = (Integer) cacheSizesForEventClass.get(eventClass);
-         if (size != null) {
-            return size.intValue();
-         } else {
-            //must be computed
-            Class parent = eventClass.getSuperclass();
-            while (parent != null) {
-               Integer parentSize = (Integer) cacheSizesForEventClass.get(parent);
-               if (parentSize != null) {
-                  cacheSizesForEventClass.put(eventClass, parentSize);
-                  return parentSize.intValue();
-               }
-               parent = parent.getSuperclass();
+   /** Computes the cache size of an event class from the settings; called while holding the cacheLock. */
+   private Integer resolveCacheSizeForEventClass(Class eventClass) {
+      if (rawCacheSizesForEventClass != null) {
+         for (Class c = eventClass; c != null; c = c.getSuperclass()) {
+            Integer size = rawCacheSizesForEventClass.get(c);
+            if (size != null) {
+               return size;
             }
-            //try interfaces
-            Class[] interfaces = eventClass.getInterfaces();
-            for (int i = 0; i < interfaces.length; i++) {
-               Class anInterface = interfaces[i];
-               Integer interfaceSize = (Integer) cacheSizesForEventClass.get(anInterface);
-               if (interfaceSize != null) {
-                  cacheSizesForEventClass.put(eventClass, interfaceSize);
-                  return interfaceSize.intValue();
-               }
+         }
+         //try interfaces
+         Class[] interfaces = eventClass.getInterfaces();
+         for (int i = 0; i < interfaces.length; i++) {
+            Integer size = rawCacheSizesForEventClass.get(interfaces[i]);
+            if (size != null) {
+               return size;
             }
          }
-         return getDefaultCacheSizePerClassOrTopic();
       }
+      return new Integer(defaultCacheSizePerClassOrTopic);
    }
 
    /**
@@ -1739,7 +1847,8 @@ public class ThreadSafeEventService implements EventService {
             rawCacheSizesForTopic = new HashMap();
          }
          rawCacheSizesForTopic.put(topicName, new Integer(cacheSize));
-         rawCacheSizesForTopicChanged = true;
+         cacheSizesForTopic.clear();
+         hasTopicCacheSizes = true;
       }
    }
 
@@ -1766,7 +1875,8 @@ public class ThreadSafeEventService implements EventService {
          }
          PatternWrapper patternWrapper = new PatternWrapper(pattern);
          rawCacheSizesForPattern.put(patternWrapper, new Integer(cacheSize));
-         rawCacheSizesForPatternChanged = true;
+         cacheSizesForTopic.clear();
+         hasTopicCacheSizes = true;
       }
    }
 
@@ -1788,41 +1898,38 @@ public class ThreadSafeEventService implements EventService {
       if (topic == null) {
          throw new IllegalArgumentException("topic must not be null.");
       }
+      if (!hasTopicCacheSizes) {
+         //Every topic has the default size, so there is nothing to remember per topic
+         return defaultCacheSizePerClassOrTopic;
+      }
+      Integer size = cacheSizesForTopic.get(topic);
+      if (size != null) {
+         return size.intValue();
+      }
       synchronized (cacheLock) {
-         if ((rawCacheSizesForTopic == null || (rawCacheSizesForTopic != null && rawCacheSizesForTopic.size() == 0)) &&
-                 (rawCacheSizesForPattern == null || (rawCacheSizesForPattern != null && rawCacheSizesForPattern.size() == 0))) {
-            return getDefaultCacheSizePerClassOrTopic();
-         }
-         if (cacheSizesForTopic == null) {
-            cacheSizesForTopic = new HashMap();
-         }
-         if (rawCacheSizesForTopicChanged || rawCacheSizesForPatternChanged) {
-            cacheSizesForTopic.clear();
-            cacheSizesForTopic.putAll(rawCacheSizesForTopic);
-            rawCacheSizesForTopicChanged = false;
-            rawCacheSizesForPatternChanged = false;
-         }
+         size = resolveCacheSizeForTopic(topic);
+         cacheSizesForTopic.put(topic, size);
+         return size.intValue();
+      }
+   }
 
-         //Is this an exact match or has it been matched to a pattern yet?
-         Integer size = cacheSizesForTopic.get(topic);
+   /** Computes the cache size of a topic from the settings; called while holding the cacheLock. */
+   private Integer resolveCacheSizeForTopic(String topic) {
+      //Exact matches take precedence over patterns
+      if (rawCacheSizesForTopic != null) {
+         Integer size = rawCacheSizesForTopic.get(topic);
          if (size != null) {
             return size;
-         } else {
-            //try matching patterns
-            if (rawCacheSizesForPattern != null) {
-               Set patterns = rawCacheSizesForPattern.keySet();
-               for (Iterator iterator = patterns.iterator(); iterator.hasNext();) {
-                  PatternWrapper pattern = (PatternWrapper) iterator.next();
-                  if (pattern.matches(topic)) {
-                     size = rawCacheSizesForPattern.get(pattern);
-                     cacheSizesForTopic.put(topic, size);
-                     return size;
-                  }
-               }
+         }
+      }
+      if (rawCacheSizesForPattern != null) {
+         for (Map.Entry<PatternWrapper, Integer> entry : rawCacheSizesForPattern.entrySet()) {
+            if (entry.getKey().matches(topic)) {
+               return entry.getValue();
             }
          }
-         return getDefaultCacheSizePerClassOrTopic();
       }
+      return new Integer(defaultCacheSizePerClassOrTopic);
    }
 
    /**
@@ -1834,13 +1941,8 @@ public class ThreadSafeEventService implements EventService {
       if (eventClass.isInterface()) {
          throw new IllegalArgumentException("Interfaces are not accepted in get last event, use a specific event class.");
       }
-      synchronized (cacheLock) {
-         List eventCache = cacheByEvent.get(eventClass);
-         if (eventCache == null || eventCache.size() == 0) {
-            return null;
-         }
-         return eventCache.get(0);
-      }
+      EventCache eventCache = cacheByEvent.get(eventClass);
+      return eventCache == null ? null : eventCache.getLast();
    }
 
    /**
@@ -1852,13 +1954,8 @@ public class ThreadSafeEventService implements EventService {
       if (eventClass.isInterface()) {
          throw new IllegalArgumentException("Interfaces are not accepted in get last event, use a specific event class.");
       }
-      synchronized (cacheLock) {
-         List eventCache = cacheByEvent.get(eventClass);
-         if (eventCache == null || eventCache.size() == 0) {
-            return null;
-         }
-         return eventCache;
-      }
+      EventCache eventCache = cacheByEvent.get(eventClass);
+      return eventCache == null ? null : eventCache.toList();
    }
 
    /**
@@ -1867,13 +1964,8 @@ public class ThreadSafeEventService implements EventService {
     * @return the last data Object published on this topic, or null if caching is turned off (the default)
     */
    public Object getLastTopicData(String topic) {
-      synchronized (cacheLock) {
-         List topicCache = cacheByTopic.get(topic);
-         if (topicCache == null || topicCache.size() == 0) {
-            return null;
-         }
-         return topicCache.get(0);
-      }
+      EventCache topicCache = cacheByTopic.get(topic);
+      return topicCache == null ? null : topicCache.getLast();
    }
 
    /**
@@ -1882,13 +1974,8 @@ public class ThreadSafeEventService implements EventService {
     * @return the last data Objects published on this topic, or null if caching is turned off (the default)
     */
    public List getCachedTopicData(String topic) {
-      synchronized (cacheLock) {
-         List topicCache = cacheByTopic.get(topic);
-         if (topicCache == null || topicCache.size() == 0) {
-            return null;
-         }
-         return topicCache;
-      }
+      EventCache topicCache = cacheByTopic.get(topic);
+      return topicCache == null ? null : topicCache.toList();
    }
 
    /**
@@ -1898,13 +1985,10 @@ public class ThreadSafeEventService implements EventService {
     * @param eventClassToClear the event class to clear the cache for
     */
    public void clearCache(Class eventClassToClear) {
-      synchronized (cacheLock) {
-         Set classes = cacheByEvent.keySet();
-         for (Iterator iterator = classes.iterator(); iterator.hasNext();) {
-            Class cachedClass = (Class) iterator.next();
-            if (eventClassToClear.isAssignableFrom(cachedClass)) {
-               iterator.remove();
-            }
+      for (Iterator<Class> iterator = cacheByEvent.keySet().iterator(); iterator.hasNext();) {
+         Class cachedClass = iterator.next();
+         if (eventClassToClear.isAssignableFrom(cachedClass)) {
+            iterator.remove();
          }
       }
    }
@@ -1915,9 +1999,7 @@ public class ThreadSafeEventService implements EventService {
     * @param topic the topic name to clear the cache for
     */
    public void clearCache(String topic) {
-      synchronized (cacheLock) {
-         cacheByTopic.remove(topic);
-      }
+      cacheByTopic.remove(topic);
    }
 
    /**
@@ -1926,23 +2008,18 @@ public class ThreadSafeEventService implements EventService {
     * @param pattern the pattern to match topic caches to
     */
    public void clearCache(Pattern pattern) {
-      synchronized (cacheLock) {
-         Set classes = cacheByTopic.keySet();
-         for (Iterator iterator = classes.iterator(); iterator.hasNext();) {
-            String cachedTopic = (String) iterator.next();
-            if (pattern.matcher(cachedTopic).matches()) {
-               iterator.remove();
-            }
+      for (Iterator<String> iterator = cacheByTopic.keySet().iterator(); iterator.hasNext();) {
+         String cachedTopic = iterator.next();
+         if (pattern.matcher(cachedTopic).matches()) {
+            iterator.remove();
          }
       }
    }
 
    /** Clear all event caches for all topics and event. */
    public void clearCache() {
-      synchronized (cacheLock) {
-         cacheByEvent.clear();
-         cacheByTopic.clear();
-      }
+      cacheByEvent.clear();
+      cacheByTopic.clear();
    }
 
    /** Called during veto exceptions, calls handleException */
@@ -2016,6 +2093,7 @@ public class ThreadSafeEventService implements EventService {
          existingSubscriber = ((WeakReference) existingSubscriber).get();
          if (existingSubscriber == null) {
             iterator.remove();
+            clearClassSubscribers();
             decWeakRefPlusProxySubscriberCount();
          }         
       }
@@ -2031,6 +2109,7 @@ public class ThreadSafeEventService implements EventService {
 
    protected void removeProxySubscriber(ProxySubscriber proxy, Iterator iter) {
       iter.remove();
+      clearClassSubscribers();
       proxy.proxyUnsubscribed();
       decWeakRefPlusProxySubscriberCount();
    }
@@ -2133,6 +2212,89 @@ public class ThreadSafeEventService implements EventService {
       }
    }
 
+   /**
+    * Orders subscriber entries the way sortSubscribers does: negative priorities first, then the non-prioritized
+    * subscribers in FIFO order, then positive priorities.  Relies on the sort being stable.
+    */
+   private static class SubscriberEntryComparator implements Comparator {
+      public int compare(Object entry1, Object entry2) {
+         int priority1 = getPriority(entry1);
+         int priority2 = getPriority(entry2);
+         return priority1 < priority2 ? -1 : priority1 > priority2 ? 1 : 0;
+      }
+
+      private int getPriority(Object entry) {
+         if (entry instanceof WeakReference) {
+            entry = ((WeakReference) entry).get();
+         }
+         return entry instanceof Prioritized ? ((Prioritized) entry).getPriority() : 0;
+      }
+   }
+
+   /**
+    * The subscribers and veto subscribers of one event class, merged and sorted.  Never modified once created.
+    */
+   private static class ClassSubscribers {
+      private final Object[] subscribers;
+      private final Object[] vetoSubscribers;
+
+      private ClassSubscribers(Object[] subscribers, Object[] vetoSubscribers) {
+         this.subscribers = subscribers;
+         this.vetoSubscribers = vetoSubscribers;
+      }
+   }
+
+   /**
+    * A fixed-capacity ring of the most recently published events or topic data of one class or topic.  Adding to a
+    * full ring overwrites the oldest element, so caching allocates nothing per publication.
+    */
+   private static class EventCache {
+      private final Object[] elements;
+      private int newest = -1;
+      private int size;
+
+      private EventCache(int capacity, EventCache previous) {
+         elements = new Object[capacity];
+         if (previous != null) {
+            //keep as many of the previously cached elements as fit, oldest first
+            List kept = previous.toList();
+            if (kept != null) {
+               for (int i = Math.min(kept.size(), capacity) - 1; i >= 0; i--) {
+                  add(kept.get(i));
+               }
+            }
+         }
+      }
+
+      private int capacity() {
+         return elements.length;
+      }
+
+      private synchronized void add(Object element) {
+         newest = (newest + 1) % elements.length;
+         elements[newest] = element;
+         if (size < elements.length) {
+            size++;
+         }
+      }
+
+      private synchronized Object getLast() {
+         return size == 0 ? null : elements[newest];
+      }
+
+      /** @return a copy of the cached elements, newest first, or null if there are none */
+      private synchronized List toList() {
+         if (size == 0) {
+            return null;
+         }
+         List result = new ArrayList(size);
+         for (int i = 0; i < size; i++) {
+            result.add(elements[(newest - i + elements.length) % elements.length]);
+         }
+         return result;
+      }
+   }
+
    /**
     * Since Pattern doesn't implement equals(), we need one of these
     */
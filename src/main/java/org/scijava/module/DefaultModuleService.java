@@ -40,14 +40,15 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
-import org.scijava.MenuPath;
 import org.scijava.Priority;
 import org.scijava.convert.ConvertService;
+import org.scijava.event.EventHandler;
 import org.scijava.event.EventService;
 import org.scijava.input.Accelerator;
 import org.scijava.log.LogService;
 import org.scijava.module.event.ModulesAddedEvent;
 import org.scijava.module.event.ModulesRemovedEvent;
+import org.scijava.module.event.ModulesUpdatedEvent;
 import org.scijava.module.process.ModulePostprocessor;
 import org.scijava.module.process.ModulePreprocessor;
 import org.scijava.module.process.PostprocessorPlugin;
@@ -140,22 +141,12 @@ public class DefaultModuleService extends AbstractService implements
 
 	@Override
 	public ModuleInfo getModuleById(final String id) {
-		// TODO: Cache identifiers in a hash?
-		for (final ModuleInfo info : getModules()) {
-			final String infoID = info.getIdentifier();
-			if (id.equals(infoID)) return info;
-		}
-		return null;
+		return moduleIndex.getModuleById(id);
 	}
 
 	@Override
 	public ModuleInfo getModuleForAccelerator(final Accelerator acc) {
-		for (final ModuleInfo info : getModules()) {
-			final MenuPath menuPath = info.getMenuPath();
-			if (menuPath == null || menuPath.isEmpty()) continue;
-			if (acc.equals(menuPath.getLeaf().getAccelerator())) return info;
-		}
-		return null;
+		return moduleIndex.getModuleForAccelerator(acc);
 	}
 
 	@Override
@@ -353,6 +344,14 @@ public class DefaultModuleService extends AbstractService implements
 		moduleIndex = new ModuleIndex();
 	}
 
+	// -- Event handlers --
+
+	/** Refiles updated modules in the lookup tables. */
+	@EventHandler
+	protected void onEvent(final ModulesUpdatedEvent event) {
+		moduleIndex.refresh(event.getItems());
+	}
+
 	// -- Helper methods --
 
 	/** Creates the preprocessor chain. */
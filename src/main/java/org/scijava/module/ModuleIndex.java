@@ -29,17 +29,328 @@
 
 package org.scijava.module;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.scijava.MenuPath;
+import org.scijava.input.Accelerator;
 import org.scijava.object.SortedObjectIndex;
 
 /**
  * Data structure for managing registered modules.
+ * <p>
+ * In addition to the type lists of a {@link SortedObjectIndex}, the module
+ * index provides hash-based lookup of modules by identifier, delegate class
+ * name and accelerator. The lookup tables are updated as modules are added or
+ * removed; after the metadata of registered modules changes,
+ * {@link #refresh(Collection)} must be called (the {@link ModuleService} does
+ * so upon {@link org.scijava.module.event.ModulesUpdatedEvent}). Until then,
+ * a module remains filed under its previous identifier, delegate class name
+ * and accelerator, and removing it still removes it from the lookup tables.
+ * </p>
  * 
  * @author Curtis Rueden
  */
 public class ModuleIndex extends SortedObjectIndex<ModuleInfo> {
 
+	// NB: The lookup tables and their lists are guarded by the index's lock.
+	// Each list is kept sorted in place, so that filing a module costs a binary
+	// search rather than a copy of the list.
+
+	/** Modules by identifier, sorted by priority. */
+	private final Map<String, List<ModuleInfo>> byId = new HashMap<>();
+
+	/** Modules by delegate class name, sorted by priority. */
+	private final Map<String, List<ModuleInfo>> byDelegateClassName =
+		new HashMap<>();
+
+	/** Modules by accelerator, sorted by priority. */
+	private final Map<Accelerator, List<ModuleInfo>> byAccelerator =
+		new HashMap<>();
+
+	/** The keys each module is filed under. Guarded by the index's lock. */
+	private final Map<ModuleInfo, Keys> filed = new HashMap<>();
+
 	public ModuleIndex() {
 		super(ModuleInfo.class);
 	}
 
+	// -- ModuleIndex methods --
+
+	/**
+	 * Gets the highest priority module with the given identifier, or null if
+	 * none.
+	 * 
+	 * @see ModuleInfo#getIdentifier()
+	 */
+	public ModuleInfo getModuleById(final String id) {
+		// NB: Register any pending modules first.
+		resolve();
+		synchronized (this) {
+			return first(byId, id);
+		}
+	}
+
+	/**
+	 * Gets the modules with the given delegate class name, sorted by priority.
+	 * 
+	 * @return Read-only list of matching modules, or an empty list if none (this
+	 *         method never returns null).
+	 * @see ModuleInfo#getDelegateClassName()
+	 */
+	public List<ModuleInfo> getModulesByDelegateClassName(
+		final String className)
+	{
+		resolve();
+		synchronized (this) {
+			final List<ModuleInfo> modules = byDelegateClassName.get(className);
+			return modules == null ? Collections.emptyList() : //
+				Collections.unmodifiableList(new ArrayList<>(modules));
+		}
+	}
+
+	/**
+	 * Gets the highest priority module whose menu path's leaf has the given
+	 * accelerator, or null if none.
+	 */
+	public ModuleInfo getModuleForAccelerator(final Accelerator acc) {
+		resolve();
+		synchronized (this) {
+			return first(byAccelerator, acc);
+		}
+	}
+
+	/**
+	 * Refiles the given modules in the lookup tables, with their current
+	 * metadata. Modules which are not registered are ignored.
+	 */
+	public synchronized void refresh(final Collection<? extends ModuleInfo> c) {
+		for (final ModuleInfo info : c) {
+			final Keys keys = filed.get(info);
+			if (keys == null) continue;
+			unfile(info, keys);
+			file(info, new Keys(info, keys.count));
+		}
+	}
+
+	/**
+	 * Refiles all registered modules in the lookup tables, with their current
+	 * metadata.
+	 */
+	public synchronized void refresh() {
+		refresh(new ArrayList<>(filed.keySet()));
+	}
+
+	// -- Collection methods --
+
+	@Override
+	public boolean addAll(final Collection<? extends ModuleInfo> c) {
+		// NB: Only single modules are added via add(Object, Class, boolean).
+		if (c.size() <= 1) return super.addAll(c);
+		synchronized (this) {
+			if (!super.addAll(c)) return false;
+			fileAll(c);
+			return true;
+		}
+	}
+
+	@Override
+	public synchronized void clear() {
+		super.clear();
+		byId.clear();
+		byDelegateClassName.clear();
+		byAccelerator.clear();
+		filed.clear();
+	}
+
+	// -- Internal methods --
+
+	@Override
+	protected synchronized boolean add(final ModuleInfo o, final Class<?> type,
+		final boolean batch)
+	{
+		final boolean result = super.add(o, type, batch);
+		if (result) file(o);
+		return result;
+	}
+
+	@Override
+	protected synchronized boolean remove(final Object o, final Class<?> type,
+		final boolean batch)
+	{
+		final boolean result = super.remove(o, type, batch);
+		if (result) {
+			final Keys keys = filed.get(o);
+			if (keys != null && --keys.count == 0) {
+				filed.remove(o);
+				unfile((ModuleInfo) o, keys);
+			}
+		}
+		return result;
+	}
+
+	// -- Helper methods --
+
+	private static <K> ModuleInfo first(final Map<K, List<ModuleInfo>> map,
+		final K key)
+	{
+		final List<ModuleInfo> modules = key == null ? null : map.get(key);
+		return modules == null ? null : modules.get(0);
+	}
+
+	/** Files the module in the lookup tables; must hold the lock. */
+	private void file(final ModuleInfo info) {
+		final Keys keys = filed.get(info);
+		if (keys != null) keys.count++;
+		else file(info, new Keys(info, 1));
+	}
+
+	private void file(final ModuleInfo info, final Keys keys) {
+		filed.put(info, keys);
+		insert(byId, keys.id, info);
+		insert(byDelegateClassName, keys.className, info);
+		insert(byAccelerator, keys.accelerator, info);
+	}
+
+	/**
+	 * Files a batch of modules in the lookup tables; must hold the lock. The
+	 * batch is sorted once, and each key's run is then merged into its list.
+	 */
+	private void fileAll(final Collection<? extends ModuleInfo> c) {
+		// NB: The sort is stable, so equal priorities keep the batch order.
+		final List<ModuleInfo> sorted = new ArrayList<>(c);
+		Collections.sort(sorted);
+		final Map<String, List<ModuleInfo>> ids = new LinkedHashMap<>();
+		final Map<String, List<ModuleInfo>> classNames = new LinkedHashMap<>();
+		final Map<Accelerator, List<ModuleInfo>> accelerators =
+			new LinkedHashMap<>();
+		for (final ModuleInfo info : sorted) {
+			final Keys keys = filed.get(info);
+			if (keys != null) {
+				keys.count++;
+				continue;
+			}
+			final Keys newKeys = new Keys(info, 1);
+			filed.put(info, newKeys);
+			run(ids, newKeys.id, info);
+			run(classNames, newKeys.className, info);
+			run(accelerators, newKeys.accelerator, info);
+		}
+		merge(byId, ids);
+		merge(byDelegateClassName, classNames);
+		merge(byAccelerator, accelerators);
+	}
+
+	private void unfile(final ModuleInfo info, final Keys keys) {
+		delete(byId, keys.id, info);
+		delete(byDelegateClassName, keys.className, info);
+		delete(byAccelerator, keys.accelerator, info);
+	}
+
+	private static <K> void insert(final Map<K, List<ModuleInfo>> map,
+		final K key, final ModuleInfo info)
+	{
+		if (key == null) return;
+		List<ModuleInfo> list = map.get(key);
+		if (list == null) map.put(key, list = new ArrayList<>(1));
+		// NB: Like in the type lists, a module precedes those of equal priority.
+		list.add(lowerBound(list, info), info);
+	}
+
+	private static <K> void run(final Map<K, List<ModuleInfo>> runs,
+		final K key, final ModuleInfo info)
+	{
+		if (key == null) return;
+		List<ModuleInfo> run = runs.get(key);
+		if (run == null) runs.put(key, run = new ArrayList<>());
+		run.add(info);
+	}
+
+	/** Merges sorted runs of new modules into the lists of the given table. */
+	private static <K> void merge(final Map<K, List<ModuleInfo>> map,
+		final Map<K, List<ModuleInfo>> runs)
+	{
+		for (final Map.Entry<K, List<ModuleInfo>> entry : runs.entrySet()) {
+			final List<ModuleInfo> run = entry.getValue();
+			final List<ModuleInfo> old = map.get(entry.getKey());
+			if (old == null) {
+				map.put(entry.getKey(), run);
+				continue;
+			}
+			final List<ModuleInfo> list = new ArrayList<>(old.size() + run.size());
+			int i = 0, j = 0;
+			while (i < run.size() && j < old.size()) {
+				// NB: New modules precede existing ones of equal priority.
+				if (run.get(i).compareTo(old.get(j)) <= 0) list.add(run.get(i++));
+				else list.add(old.get(j++));
+			}
+			list.addAll(run.subList(i, run.size()));
+			list.addAll(old.subList(j, old.size()));
+			map.put(entry.getKey(), list);
+		}
+	}
+
+	private static <K> void delete(final Map<K, List<ModuleInfo>> map,
+		final K key, final ModuleInfo info)
+	{
+		if (key == null) return;
+		final List<ModuleInfo> list = map.get(key);
+		if (list == null) return;
+		// NB: Only modules of equal priority need to be checked, unless the
+		// module's priority changed since it was filed.
+		int index = -1;
+		for (int i = lowerBound(list, info); i < list.size(); i++) {
+			final ModuleInfo candidate = list.get(i);
+			if (candidate.equals(info)) {
+				index = i;
+				break;
+			}
+			if (candidate.compareTo(info) > 0) break;
+		}
+		if (index < 0) index = list.indexOf(info);
+		if (index < 0) return;
+		list.remove(index);
+		if (list.isEmpty()) map.remove(key);
+	}
+
+	/** Gets the index of the first module not ranked before the given one. */
+	private static int lowerBound(final List<ModuleInfo> list,
+		final ModuleInfo info)
+	{
+		int lo = 0, hi = list.size();
+		while (lo < hi) {
+			final int mid = (lo + hi) >>> 1;
+			if (list.get(mid).compareTo(info) < 0) lo = mid + 1;
+			else hi = mid;
+		}
+		return lo;
+	}
+
+	// -- Helper classes --
+
+	/** The lookup keys of a module, as of when it was filed. */
+	private static class Keys {
+
+		private final String id;
+		private final String className;
+		private final Accelerator accelerator;
+
+		/** How many times the module was added to the index. */
+		private int count;
+
+		private Keys(final ModuleInfo info, final int count) {
+			id = info.getIdentifier();
+			className = info.getDelegateClassName();
+			final MenuPath menuPath = info.getMenuPath();
+			accelerator = menuPath == null || menuPath.isEmpty() ? null : //
+				menuPath.getLeaf().getAccelerator();
+			this.count = count;
+		}
+	}
+
 }
@@ -29,14 +29,36 @@
 
 package org.scijava.object;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
 import org.scijava.event.EventHandler;
 import org.scijava.event.EventService;
+import org.scijava.log.LogService;
 import org.scijava.object.event.ObjectCreatedEvent;
 import org.scijava.object.event.ObjectDeletedEvent;
+import org.scijava.object.event.ObjectsRemovedEvent;
 import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
 import org.scijava.service.AbstractService;
 import org.scijava.service.Service;
+import org.scijava.thread.ThreadService;
 
 /**
  * Default service for keeping track of registered objects. Automatically
@@ -49,6 +71,29 @@ import org.scijava.service.Service;
  * {@link org.scijava.widget.ObjectWidget}, which provide the user with a
  * multiple-choice selection.
  * </p>
+ * <p>
+ * Optionally, registered objects can be evicted to bound the memory they
+ * retain. While a memory budget is set or soft eviction is enabled, each
+ * object registered via {@link #addObject(Object, String)} is measured by the
+ * {@link #setSizeEstimator size estimator}; objects of known size are
+ * evictable, oldest registration first. Eviction happens when the
+ * total estimated size exceeds the {@link #setMemoryBudget memory budget}
+ * (system property {@value #BUDGET_PROPERTY}, in bytes, with optional
+ * {@code k}, {@code m} or {@code g} suffix), and, if
+ * {@link #setSoftEviction soft eviction} is enabled (system property
+ * {@value #SOFT_PROPERTY}), whenever the JVM comes under memory pressure, i.e.
+ * when a heap memory pool remains more than a fraction (system property
+ * {@value #PRESSURE_PROPERTY}, by default {@value #DEFAULT_PRESSURE}) full
+ * after a garbage collection. In the latter case, half of the evictable memory
+ * is released, on a {@link ThreadService} thread. Evicted objects are removed
+ * from the index, and an {@link ObjectsRemovedEvent} is published.
+ * </p>
+ * <p>
+ * NB: Memory pressure is detected via the collection usage thresholds of the
+ * {@link MemoryPoolMXBean}s, which are shared by the whole JVM. A lower
+ * threshold set by other code is kept, and thresholds are restored when soft
+ * eviction is disabled.
+ * </p>
  * 
  * @author Curtis Rueden
  */
@@ -57,12 +102,60 @@ public final class DefaultObjectService extends AbstractService implements
 	ObjectService
 {
 
+	/** System property defining the initial memory budget. */
+	public static final String BUDGET_PROPERTY = "scijava.object.budget";
+
+	/** System property enabling soft eviction initially. */
+	public static final String SOFT_PROPERTY = "scijava.object.soft";
+
+	/**
+	 * System property defining the fraction of a heap memory pool which may
+	 * remain in use after a garbage collection before soft eviction happens.
+	 */
+	public static final String PRESSURE_PROPERTY = "scijava.object.pressure";
+
+	/** Default fraction of a heap memory pool triggering soft eviction. */
+	public static final double DEFAULT_PRESSURE = 0.85;
+
+	@Parameter(required = false)
+	private LogService log;
+
 	@Parameter
 	private EventService eventService;
 
+	@Parameter(required = false)
+	private ThreadService threadService;
+
 	/** Index of registered objects. */
 	private NamedObjectIndex<Object> objectIndex;
 
+	/** Estimator of registered objects' sizes. */
+	private ObjectSizeEstimator sizeEstimator = new DefaultObjectSizeEstimator();
+
+	/** Maximum total size of evictable objects, or 0 for no limit. */
+	private long memoryBudget;
+
+	/** Total size of evictable objects. */
+	private long memoryUsage;
+
+	/** Sizes of evictable objects, in registration order. */
+	private final Map<Identity, Long> evictable = new LinkedHashMap<>();
+
+	/** Fraction of a heap memory pool triggering soft eviction. */
+	private double pressure = DEFAULT_PRESSURE;
+
+	/** Listener to memory pressure notifications, or null if disabled. */
+	private NotificationListener pressureListener;
+
+	/**
+	 * Collection usage thresholds we set, by pool, along with the previous
+	 * thresholds to restore.
+	 */
+	private final Map<MemoryPoolMXBean, long[]> thresholds = new HashMap<>();
+
+	/** Whether eviction under memory pressure is queued or in progress. */
+	private final AtomicBoolean reclaiming = new AtomicBoolean();
+
 	// -- ObjectService methods --
 
 	@Override
@@ -75,11 +168,136 @@ public final class DefaultObjectService extends AbstractService implements
 		return objectIndex;
 	}
 
+	@Override
+	public void setMemoryBudget(final long bytes) {
+		final List<Object> evicted;
+		synchronized (evictable) {
+			memoryBudget = Math.max(bytes, 0);
+			evicted = selectOverBudget();
+		}
+		evict(evicted);
+	}
+
+	@Override
+	public long getMemoryBudget() {
+		synchronized (evictable) {
+			return memoryBudget;
+		}
+	}
+
+	@Override
+	public long getMemoryUsage() {
+		synchronized (evictable) {
+			return memoryUsage;
+		}
+	}
+
+	@Override
+	public void setSizeEstimator(final ObjectSizeEstimator sizeEstimator) {
+		if (sizeEstimator == null) throw new NullPointerException();
+		this.sizeEstimator = sizeEstimator;
+	}
+
+	@Override
+	public ObjectSizeEstimator getSizeEstimator() {
+		return sizeEstimator;
+	}
+
+	/**
+	 * Sets whether objects are evicted under memory pressure. When enabled, half
+	 * of the evictable memory is released whenever a heap memory pool remains
+	 * more than the {@value #PRESSURE_PROPERTY} fraction full after a garbage
+	 * collection.
+	 */
+	@Override
+	public synchronized void setSoftEviction(final boolean enabled) {
+		if (enabled == (pressureListener != null)) return;
+		final NotificationEmitter emitter = (NotificationEmitter) ManagementFactory
+			.getMemoryMXBean();
+		if (!enabled) {
+			try {
+				emitter.removeNotificationListener(pressureListener);
+			}
+			catch (final ListenerNotFoundException exc) {
+				// NB: Already removed.
+			}
+			pressureListener = null;
+			restoreThresholds();
+			return;
+		}
+		for (final MemoryPoolMXBean pool : ManagementFactory
+			.getMemoryPoolMXBeans())
+		{
+			if (pool.getType() != MemoryType.HEAP || !pool
+				.isCollectionUsageThresholdSupported()) continue;
+			final long threshold = threshold(pool.getUsage());
+			if (threshold <= 0) continue;
+			final long current = pool.getCollectionUsageThreshold();
+			if (current > 0 && current <= threshold) continue;
+			thresholds.put(pool, new long[] { threshold, current });
+			pool.setCollectionUsageThreshold(threshold);
+		}
+		pressureListener = this::memoryNotified;
+		emitter.addNotificationListener(pressureListener, null, null);
+	}
+
+	@Override
+	public synchronized boolean isSoftEviction() {
+		return pressureListener != null;
+	}
+
+	@Override
+	public void addObject(final Object obj, final String name) {
+		ObjectService.super.addObject(obj, name);
+		// NB: Measure objects only while they can be evicted.
+		if (getMemoryBudget() <= 0 && !isSoftEviction()) return;
+		final long size = sizeEstimator.estimate(obj);
+		if (size <= 0) return;
+		final List<Object> evicted;
+		synchronized (evictable) {
+			final Long previous = evictable.put(new Identity(obj), size);
+			memoryUsage += size - (previous == null ? 0 : previous);
+			evicted = selectOverBudget();
+		}
+		evict(evicted);
+	}
+
+	@Override
+	public void removeObject(final Object obj) {
+		ObjectService.super.removeObject(obj);
+		synchronized (evictable) {
+			final Identity identity = new Identity(obj);
+			// NB: Keep counting the object while it is registered under another name.
+			if (!evictable.containsKey(identity) || isRegistered(obj)) return;
+			memoryUsage -= evictable.remove(identity);
+		}
+	}
+
 	// -- Service methods --
 
 	@Override
 	public void initialize() {
 		objectIndex = new NamedObjectIndex<>(Object.class);
+		memoryBudget = parseBytes(System.getProperty(BUDGET_PROPERTY));
+		final String p = System.getProperty(PRESSURE_PROPERTY);
+		if (p != null) {
+			try {
+				final double value = Double.parseDouble(p.trim());
+				if (value > 0 && value <= 1) pressure = value;
+				else throw new NumberFormatException();
+			}
+			catch (final NumberFormatException exc) {
+				if (log != null) log.warn("Invalid " + PRESSURE_PROPERTY + ": " + p);
+			}
+		}
+		if (Boolean.getBoolean(SOFT_PROPERTY)) setSoftEviction(true);
+	}
+
+	// -- Disposable methods --
+
+	@Override
+	public void dispose() {
+		setSoftEviction(false);
 	}
 
 	// -- Event handlers --
@@ -93,4 +311,139 @@ public final class DefaultObjectService extends AbstractService implements
 	protected void onEvent(final ObjectDeletedEvent event) {
 		removeObject(event.getObject());
 	}
+
+	// -- Helper methods --
+
+	/** Checks whether the given object itself is still registered. */
+	private boolean isRegistered(final Object obj) {
+		for (final Object o : objectIndex.get(obj.getClass())) {
+			if (o == obj) return true;
+		}
+		return false;
+	}
+
+	/** Selects the oldest evictable objects until the budget is met. */
+	private List<Object> selectOverBudget() {
+		return memoryBudget > 0 ? select(memoryBudget) : new ArrayList<>();
+	}
+
+	/** Selects the oldest evictable objects until at most the limit remains. */
+	private List<Object> select(final long limit) {
+		final List<Object> selected = new ArrayList<>();
+		final Iterator<Map.Entry<Identity, Long>> iter =
+			evictable.entrySet().iterator();
+		while (memoryUsage > limit && iter.hasNext()) {
+			final Map.Entry<Identity, Long> entry = iter.next();
+			iter.remove();
+			memoryUsage -= entry.getValue();
+			selected.add(entry.getKey().obj);
+		}
+		return selected;
+	}
+
+	/** Removes the given objects from the index, announcing their removal. */
+	private void evict(final List<Object> objects) {
+		if (objects.isEmpty()) return;
+		// NB: Objects registered more than once are evicted completely.
+		for (final Object obj : objects) {
+			while (objectIndex.remove(obj)) {
+				// keep removing
+			}
+		}
+		if (log != null && log.isDebug()) {
+			log.debug("Evicted " + objects.size() + " objects");
+		}
+		eventService.publish(new ObjectsRemovedEvent(objects));
+	}
+
+	/** Gets the usage of a pool above which it is under memory pressure. */
+	private long threshold(final MemoryUsage usage) {
+		final long max = usage.getMax();
+		return max <= 0 ? 0 : (long) (max * pressure);
+	}
+
+	/** Handles the notifications of the memory system. */
+	private void memoryNotified(final Notification notification,
+		@SuppressWarnings("unused") final Object handback)
+	{
+		if (!MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(
+			notification.getType())) return;
+		// NB: The threshold may have been set lower by other code.
+		final MemoryUsage usage = MemoryNotificationInfo.from(
+			(CompositeData) notification.getUserData()).getUsage();
+		if (usage.getUsed() < threshold(usage)) return;
+		// NB: Do not block the thread delivering the notifications.
+		if (!reclaiming.compareAndSet(false, true)) return;
+		if (threadService == null) reclaim();
+		else threadService.run(this::reclaim);
+	}
+
+	/** Evicts half of the evictable memory. */
+	private void reclaim() {
+		try {
+			final List<Object> evicted;
+			synchronized (evictable) {
+				evicted = select(memoryUsage / 2);
+			}
+			evict(evicted);
+		}
+		finally {
+			reclaiming.set(false);
+		}
+	}
+
+	/**
+	 * Restores the collection usage thresholds we set, unless other code has
+	 * changed them since.
+	 */
+	private void restoreThresholds() {
+		for (final Map.Entry<MemoryPoolMXBean, long[]> entry : thresholds
+			.entrySet())
+		{
+			final MemoryPoolMXBean pool = entry.getKey();
+			final long[] values = entry.getValue();
+			if (pool.getCollectionUsageThreshold() == values[0]) {
+				pool.setCollectionUsageThreshold(values[1]);
+			}
+		}
+		thresholds.clear();
+	}
+
+	/** Parses a byte count such as {@code 512m}; returns 0 if absent. */
+	private long parseBytes(final String value) {
+		if (value == null || value.trim().isEmpty()) return 0;
+		final String v = value.trim().toLowerCase();
+		final char unit = v.charAt(v.length() - 1);
+		final int shift = unit == 'k' ? 10 : unit == 'm' ? 20 : unit == 'g' ? 30 : 0;
+		try {
+			final String digits = shift == 0 ? v : v.substring(0, v.length() - 1);
+			return Long.parseLong(digits.trim()) << shift;
+		}
+		catch (final NumberFormatException exc) {
+			if (log != null) log.warn("Invalid " + BUDGET_PROPERTY + ": " + value);
+			return 0;
+		}
+	}
+
+	// -- Helper classes --
+
+	/** Wraps an object for identity-based hashing. */
+	private static final class Identity {
+
+		private final Object obj;
+
+		private Identity(final Object obj) {
+			this.obj = obj;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(obj);
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			return o instanceof Identity && ((Identity) o).obj == obj;
+		}
+	}
 }
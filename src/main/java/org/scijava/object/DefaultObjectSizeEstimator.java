@@ -0,0 +1,236 @@
+/*
+ * #%L
+ * SciJava Common shared library for SciJava software.
+ * %%
+ * Copyright (C) 2009 - 2026 SciJava developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package org.scijava.object;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.scijava.Context;
+import org.scijava.Contextual;
+import org.scijava.service.Service;
+import org.scijava.util.PrimitiveArray;
+
+/**
+ * Default {@link ObjectSizeEstimator}, which estimates the memory retained by
+ * an object by walking the object graph reachable from it.
+ * <p>
+ * Arrays, strings, collections and maps are measured directly. The fields of
+ * other objects are read via reflection, except for those of JDK classes,
+ * whose internals are not accessible: a JDK object other than the above is of
+ * unknown size on its own, and counts as a bare object header when referenced.
+ * Contexts, services and other {@link Contextual} objects are shared
+ * infrastructure rather than data, so references to them are not followed.
+ * Neither are references to classes, class loaders or threads.
+ * </p>
+ * <p>
+ * To bound its cost, the walk stops after {@value #MAX_OBJECTS} objects, in
+ * which case the estimate is a lower bound.
+ * </p>
+ */
+public class DefaultObjectSizeEstimator implements ObjectSizeEstimator {
+
+	/** Approximate size of an object or array header, in bytes. */
+	private static final int HEADER = 16;
+
+	/** Approximate size of an object reference, in bytes. */
+	private static final int REFERENCE = 4;
+
+	/** Maximum number of objects visited per estimate. */
+	private static final int MAX_OBJECTS = 1 << 16;
+
+	/** Shallow size and followable reference fields of each class. */
+	private static final ClassValue<Layout> LAYOUTS = new ClassValue<Layout>() {
+
+		@Override
+		protected Layout computeValue(final Class<?> type) {
+			long size = HEADER;
+			final List<Field> references = new ArrayList<>();
+			for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+				for (final Field field : c.getDeclaredFields()) {
+					if (Modifier.isStatic(field.getModifiers())) continue;
+					size += elementSize(field.getType());
+					if (field.getType().isPrimitive() || isJDK(c)) continue;
+					try {
+						field.setAccessible(true);
+						references.add(field);
+					}
+					catch (final RuntimeException exc) {
+						// NB: Inaccessible field; counted, but not followed.
+					}
+				}
+			}
+			return new Layout(size, references.toArray(new Field[0]));
+		}
+	};
+
+	@Override
+	public long estimate(final Object obj) {
+		if (obj == null || obj instanceof Context || obj instanceof Service) {
+			return 0;
+		}
+		if (isJDK(obj.getClass()) && !isMeasurable(obj)) return 0;
+		final Set<Object> visited = Collections.newSetFromMap(
+			new IdentityHashMap<>());
+		final Deque<Object> queue = new ArrayDeque<>();
+		visited.add(obj);
+		queue.add(obj);
+		long size = 0;
+		while (!queue.isEmpty()) {
+			final Object o = queue.remove();
+			try {
+				size += measure(o, child -> {
+					if (child == null || isExcluded(child)) return;
+					if (visited.size() < MAX_OBJECTS && visited.add(child)) {
+						queue.add(child);
+					}
+				});
+			}
+			catch (final RuntimeException exc) {
+				// NB: E.g., a collection modified concurrently.
+				size += HEADER;
+			}
+		}
+		return size;
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Gets the shallow size of the given object, passing the objects it refers
+	 * to to the given visitor.
+	 */
+	private static long measure(final Object obj,
+		final Consumer<Object> visitor)
+	{
+		final Class<?> type = obj.getClass();
+		if (obj instanceof String) {
+			return 2 * HEADER + 2L * ((String) obj).length();
+		}
+		if (type.isArray()) {
+			final Class<?> componentType = type.getComponentType();
+			final int length = Array.getLength(obj);
+			if (!componentType.isPrimitive()) {
+				for (final Object element : (Object[]) obj) {
+					visitor.accept(element);
+				}
+			}
+			return HEADER + (long) length * elementSize(componentType);
+		}
+		if (obj instanceof PrimitiveArray) {
+			visitor.accept(((PrimitiveArray<?, ?>) obj).getArray());
+			return HEADER;
+		}
+		if (isJDK(type)) {
+			if (obj instanceof Collection) {
+				final Collection<?> c = (Collection<?>) obj;
+				for (final Object element : c) {
+					visitor.accept(element);
+				}
+				return HEADER + (long) c.size() * REFERENCE;
+			}
+			if (obj instanceof Map) {
+				final Map<?, ?> map = (Map<?, ?>) obj;
+				for (final Map.Entry<?, ?> entry : map.entrySet()) {
+					visitor.accept(entry.getKey());
+					visitor.accept(entry.getValue());
+				}
+				// NB: Each entry holds a key, a value and a link.
+				return HEADER + (long) map.size() * (HEADER + 3 * REFERENCE);
+			}
+			return HEADER;
+		}
+		final Layout layout = LAYOUTS.get(type);
+		for (final Field field : layout.references) {
+			try {
+				visitor.accept(field.get(obj));
+			}
+			catch (final IllegalAccessException exc) {
+				// NB: Counted, but not followed.
+			}
+		}
+		return layout.size;
+	}
+
+	/** Gets whether the JDK object is measured directly, by its API. */
+	private static boolean isMeasurable(final Object obj) {
+		return obj instanceof String || obj.getClass().isArray() ||
+			obj instanceof Collection || obj instanceof Map;
+	}
+
+	/** Gets whether references to the given object are not followed. */
+	private static boolean isExcluded(final Object obj) {
+		return obj instanceof Context || obj instanceof Contextual ||
+			obj instanceof Service || obj instanceof Class ||
+			obj instanceof ClassLoader || obj instanceof Thread;
+	}
+
+	/** Gets whether the class belongs to the JDK. */
+	private static boolean isJDK(final Class<?> type) {
+		if (type.isArray()) return false;
+		final String name = type.getName();
+		return type.getClassLoader() == null || name.startsWith("java.") || //
+			name.startsWith("javax.") || name.startsWith("jdk.") || //
+			name.startsWith("sun.") || name.startsWith("com.sun.");
+	}
+
+	private static int elementSize(final Class<?> type) {
+		if (type == boolean.class || type == byte.class) return 1;
+		if (type == char.class || type == short.class) return 2;
+		if (type == int.class || type == float.class) return 4;
+		if (type == long.class || type == double.class) return 8;
+		return REFERENCE;
+	}
+
+	// -- Helper classes --
+
+	/** The shallow size of a class's instances, and their reference fields. */
+	private static final class Layout {
+
+		private final long size;
+		private final Field[] references;
+
+		private Layout(final long size, final Field[] references) {
+			this.size = size;
+			this.references = references;
+		}
+	}
+
+}
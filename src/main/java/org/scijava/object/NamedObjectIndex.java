@@ -28,35 +28,121 @@
  */
 package org.scijava.object;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.WeakHashMap;
 
 /**
  * An {@link ObjectIndex} where each object can have an associated name.
+ * <p>
+ * Names are indexed in both directions: {@link #getName(Object)} and
+ * {@link #getObjectsByName(String)} both take constant time. An object is
+ * listed beneath its name for as long as it is registered in the index. Each
+ * object has a single name: registering it again under another name lists all
+ * its registrations beneath the new name.
+ * </p>
  *
  * @author Jan Eglinger
  */
 public class NamedObjectIndex<E> extends ObjectIndex<E> {
 	
-	private WeakHashMap<Object, String> nameMap;
+	private final Map<Object, String> nameMap;
+
+	/** Registered objects by name. Guarded by the index's lock. */
+	private final Map<String, List<E>> objectMap;
 
 	public NamedObjectIndex(final Class<E> baseClass) {
 		super(baseClass);
-		nameMap = new WeakHashMap<>();
+		nameMap = Collections.synchronizedMap(new WeakHashMap<>());
+		objectMap = new HashMap<>();
 	}
 
-	public boolean add(E object, String name) {
-		if (name != null)
-			nameMap.put(object, name);
-		return add(object);
+	public synchronized boolean add(E object, String name) {
+		final boolean result = add(object);
+		if (result && name != null) addName(object, name);
+		return result;
 	}
 
-	public boolean add(E object, Class<?> type, String name, boolean batch) {
-		if (name != null)
-			nameMap.put(object, name);
-		return add(object, type, batch);
+	public synchronized boolean add(E object, Class<?> type, String name,
+		boolean batch)
+	{
+		final boolean result = add(object, type, batch);
+		if (result && name != null) addName(object, name);
+		return result;
 	}
 
 	public String getName(E object) {
 		return nameMap.get(object);
 	}
+
+	/**
+	 * Gets the registered objects with the given name, in order of
+	 * registration.
+	 * 
+	 * @return Read-only list of matching objects, or an empty list if none (this
+	 *         method never returns null).
+	 */
+	public synchronized List<E> getObjectsByName(final String name) {
+		final List<E> objects = objectMap.get(name);
+		return objects == null ? Collections.emptyList() : //
+			Collections.unmodifiableList(new ArrayList<>(objects));
+	}
+
+	/**
+	 * Gets the first registered object with the given name, or null if none.
+	 */
+	public synchronized E getObjectByName(final String name) {
+		final List<E> objects = objectMap.get(name);
+		return objects == null ? null : objects.get(0);
+	}
+
+	// -- Collection methods --
+
+	@Override
+	public synchronized void clear() {
+		super.clear();
+		objectMap.clear();
+		nameMap.clear();
+	}
+
+	// -- Internal methods --
+
+	@Override
+	protected synchronized boolean remove(final Object o, final Class<?> type,
+		final boolean batch)
+	{
+		final boolean result = super.remove(o, type, batch);
+		if (result) removeName(o);
+		return result;
+	}
+
+	// -- Helper methods --
+
+	private void addName(final E object, final String name) {
+		final String previous = nameMap.put(object, name);
+		final List<E> objects = objectMap.computeIfAbsent(name,
+			k -> new ArrayList<>(1));
+		if (previous != null && !previous.equals(name)) {
+			// NB: Move the object's earlier registrations beneath the new name.
+			final List<E> old = objectMap.get(previous);
+			while (old != null && old.remove(object)) {
+				objects.add(object);
+			}
+			if (old != null && old.isEmpty()) objectMap.remove(previous);
+		}
+		objects.add(object);
+	}
+
+	private void removeName(final Object object) {
+		final String name = nameMap.get(object);
+		if (name == null) return;
+		final List<E> objects = objectMap.get(name);
+		if (objects == null || !objects.remove(object)) return;
+		if (objects.isEmpty()) objectMap.remove(name);
+		// NB: Forget the name once the object is no longer listed beneath it.
+		if (!objects.contains(object)) nameMap.remove(object);
+	}
 }
@@ -36,11 +36,12 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.scijava.util.ClassUtils;
 
@@ -68,6 +69,20 @@ import org.scijava.util.ClassUtils;
  * added to the index more than once, in which case it will appear on compatible
  * type lists multiple times.
  * </p>
+ * <p>
+ * Reads do not copy: {@link #get(Class)} returns an immutable snapshot of the
+ * type list, which is shared between callers until the next modification of
+ * that list. Each modification discards the affected snapshots, and the next
+ * read publishes a new one. Hence, a burst of writes costs at most one copy per
+ * type list, and any number of subsequent reads cost none.
+ * </p>
+ * <p>
+ * The index is safe for concurrent use. Reads of published snapshots never
+ * block. Writes are serialized per index: since every object is listed beneath
+ * the common "all" type, there is no finer-grained partition of the type lists
+ * which writes could lock independently. Callers may synchronize on the index
+ * to perform several operations atomically.
+ * </p>
  * 
  * @author Curtis Rueden
  */
@@ -80,11 +95,26 @@ public class ObjectIndex<E> implements Collection<E> {
 	protected final Map<Class<?>, List<E>> hoard =
 		new ConcurrentHashMap<>();
 
+	/**
+	 * Immutable snapshots of the type lists, published lazily by
+	 * {@link #get(Class)} and discarded whenever the corresponding list changes.
+	 */
+	private final Map<Class<?>, List<E>> snapshots = new ConcurrentHashMap<>();
+
 	private final Class<E> baseClass;
 
 	/** List of objects to add later as needed (i.e., lazily). */
-	private final List<LazyObjects<? extends E>> pending =
-		new LinkedList<>();
+	private final Queue<LazyObjects<? extends E>> pending =
+		new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Number of pending objects each thread is currently resolving. Guarded by
+	 * the {@link #pending} queue's monitor.
+	 */
+	private final Map<Thread, Integer> resolvers = new HashMap<>();
+
+	/** Total number of pending objects being resolved by all threads. */
+	private volatile int resolving;
 
 	public ObjectIndex(final Class<E> baseClass) {
 		this.baseClass = baseClass;
@@ -122,17 +152,16 @@ public class ObjectIndex<E> implements Collection<E> {
 	/**
 	 * Gets a list of registered objects compatible with the given type.
 	 * 
-	 * @return New list of registered objects of the given type, or an empty
-	 *         list if no such objects exist (this method never returns null).
+	 * @return Read-only snapshot of the registered objects of the given type, or
+	 *         an empty list if no such objects exist (this method never returns
+	 *         null). The snapshot is unaffected by later modifications of the
+	 *         index.
 	 */
 	public List<E> get(final Class<?> type) {
-		// lazily register any pending objects
-		if (!pending.isEmpty()) resolvePending();
+		resolve();
 
-		List<E> list = retrieveList(type);
-		// NB: Return a copy of the data, to facilitate thread safety.
-		list = new ArrayList<>(list);
-		return list;
+		final List<E> snapshot = snapshots.get(type);
+		return snapshot != null ? snapshot : snapshot(type);
 	}
 
 	/**
@@ -145,9 +174,7 @@ public class ObjectIndex<E> implements Collection<E> {
 	 * </p>
 	 */
 	public void addLater(final LazyObjects<? extends E> c) {
-		synchronized (pending) {
-			pending.add(c);
-		}
+		pending.add(c);
 	}
 
 	// -- Collection methods --
@@ -227,14 +254,16 @@ public class ObjectIndex<E> implements Collection<E> {
 	}
 
 	@Override
-	public void clear() {
+	public synchronized void clear() {
 		hoard.clear();
+		type2Lists.clear();
+		snapshots.clear();
 	}
 
 	// -- Object methods --
 
 	@Override
-	public String toString() {
+	public synchronized String toString() {
 		final List<Class<?>> classes = new ArrayList<>(hoard.keySet());
 		Collections.sort(classes, new Comparator<Class<?>>() {
 
@@ -264,6 +293,11 @@ public class ObjectIndex<E> implements Collection<E> {
 
 	// -- Internal methods --
 
+	/** Lazily registers any pending objects (see {@link #addLater}). */
+	protected void resolve() {
+		if (!pending.isEmpty() || resolving > 0) resolvePending();
+	}
+
 	/** Adds the object to all compatible type lists. */
 	protected boolean add(final E o, final boolean batch) {
 		return add(o, getType(o), batch);
@@ -282,10 +316,14 @@ public class ObjectIndex<E> implements Collection<E> {
 		return remove(o, getType(e), batch);
 	}
 
-	private Map<Class<?>, List<E>[]> type2Lists =
-		new HashMap<>();
+	/** Type lists beneath each type hierarchy. Guarded by the index's lock. */
+	private final Map<Class<?>, List<E>[]> type2Lists = new HashMap<>();
 
-	protected synchronized List<E>[] retrieveListsForType(final Class<?> type) {
+	/**
+	 * Retrieves the type lists beneath the given type hierarchy, creating them if
+	 * necessary. Must be called while holding this index's lock.
+	 */
+	protected List<E>[] retrieveListsForType(final Class<?> type) {
 		final List<E>[] lists = type2Lists.get(type);
 		if (lists != null) return lists;
 
@@ -306,25 +344,49 @@ public class ObjectIndex<E> implements Collection<E> {
 
 	/** Adds an object to type lists beneath the given type hierarchy. */
 	@SuppressWarnings("unchecked")
-	protected boolean add(final E o, final Class<?> type, final boolean batch) {
+	protected synchronized boolean add(final E o, final Class<?> type,
+		final boolean batch)
+	{
 		boolean result = false;
 		for (final List<?> list : retrieveListsForType(type)) {
 			if (addToList(o, (List<E>)list, batch)) result = true;
 		}
+		if (result) invalidate(type);
 		return result;
 	}
 
 	/** Removes an object from type lists beneath the given type hierarchy. */
-	protected boolean remove(final Object o, final Class<?> type,
+	protected synchronized boolean remove(final Object o, final Class<?> type,
 		final boolean batch)
 	{
 		boolean result = false;
 		for (final List<E> list : retrieveListsForType(type)) {
 			if (removeFromList(o, list, batch)) result = true;
 		}
+		if (result) invalidate(type);
 		return result;
 	}
 
+	/**
+	 * Discards the snapshots of all type lists beneath the given type hierarchy.
+	 * Must be called, while holding this index's lock, after modifying those
+	 * lists other than through {@link #add(Object, Class, boolean)} or
+	 * {@link #remove(Object, Class, boolean)}.
+	 */
+	protected void invalidate(final Class<?> type) {
+		for (final Class<?> c : getTypes(type)) {
+			snapshots.remove(c);
+		}
+	}
+
+	/**
+	 * Discards the snapshots of all type lists. Must be called, while holding
+	 * this index's lock, after modifying the lists directly.
+	 */
+	protected void invalidateAll() {
+		snapshots.clear();
+	}
+
 	protected boolean addToList(final E obj, final List<E> list,
 		@SuppressWarnings("unused") final boolean batch)
 	{
@@ -339,23 +401,30 @@ public class ObjectIndex<E> implements Collection<E> {
 
 	// -- Helper methods --
 
-	private static Map<Class<?>, Class<?>[]> typeMap =
-		new HashMap<>();
+	/** Cache of each type's hierarchy; see {@link #getTypes(Class)}. */
+	private static final ClassValue<Class<?>[]> TYPES =
+		new ClassValue<Class<?>[]>()
+		{
 
-	/** Gets a new set containing the type and all its supertypes. */
-	protected static synchronized Class<?>[] getTypes(final Class<?> type) {
-		Class<?>[] types = typeMap.get(type);
-		if (types != null) return types;
-		final Set<Class<?>>set = new LinkedHashSet<>();
-		set.add(All.class); // NB: Always include the "All" class.
-		getTypes(type, set);
-		types = set.toArray(new Class[set.size()]);
-		typeMap.put(type, types);
-		return types;
+			@Override
+			protected Class<?>[] computeValue(final Class<?> type) {
+				final Set<Class<?>> set = new LinkedHashSet<>();
+				set.add(All.class); // NB: Always include the "All" class.
+				getTypes(type, set);
+				return set.toArray(new Class<?>[set.size()]);
+			}
+		};
+
+	/**
+	 * Gets the type and all its supertypes. The returned array is shared, and
+	 * must not be modified.
+	 */
+	protected static Class<?>[] getTypes(final Class<?> type) {
+		return TYPES.get(type);
 	}
 
 	/** Recursively adds the type and all its supertypes to the given set. */
-	private static synchronized void getTypes(final Class<?> type,
+	private static void getTypes(final Class<?> type,
 		final Set<Class<?>> types)
 	{
 		if (type == null) return;
@@ -368,22 +437,89 @@ public class ObjectIndex<E> implements Collection<E> {
 		}
 	}
 
-	/** Retrieves the type list for the given type, creating it if necessary. */
+	/**
+	 * Retrieves the type list for the given type, creating it if necessary. Must
+	 * be called while holding this index's lock.
+	 */
 	protected List<E> retrieveList(final Class<?> type) {
 		List<E> list = hoard.get(type);
 		if (list == null) {
-			list = new ArrayList<>();
+			list = createList();
 			hoard.put(type, list);
 		}
 		return list;
 	}
 
+	/** Creates an empty type list. */
+	protected List<E> createList() {
+		return new ArrayList<>();
+	}
+
+	/** Publishes a snapshot of the type list for the given type. */
+	private synchronized List<E> snapshot(final Class<?> type) {
+		List<E> snapshot = snapshots.get(type);
+		if (snapshot != null) return snapshot;
+		final List<E> list = hoard.get(type);
+		snapshot = list == null || list.isEmpty() ? Collections.emptyList() :
+			Collections.unmodifiableList(new ArrayList<>(list));
+		snapshots.put(type, snapshot);
+		return snapshot;
+	}
+
+	/**
+	 * Adds the pending objects. Each is removed from the queue before it is
+	 * requested, and no lock is held while requesting it, so that a
+	 * {@link LazyObjects#get()} which reads this index neither resolves itself
+	 * again nor deadlocks.
+	 */
 	private void resolvePending() {
-		synchronized (pending) {
-			while (!pending.isEmpty()) {
-				final LazyObjects<? extends E> c = pending.remove(0);
+		final Thread thread = Thread.currentThread();
+		while (true) {
+			final LazyObjects<? extends E> c;
+			synchronized (pending) {
+				// NB: Counted before the poll, so that a reader which finds the queue
+				// empty also finds the resolver.
+				resolving++;
+				c = pending.poll();
+				if (c == null) {
+					resolving--;
+					break;
+				}
+				resolvers.merge(thread, 1, Integer::sum);
+			}
+			try {
 				addAll(c.get());
 			}
+			finally {
+				synchronized (pending) {
+					resolvers.computeIfPresent(thread, (t, n) -> n == 1 ? null : n - 1);
+					resolving--;
+					pending.notifyAll();
+				}
+			}
+		}
+		awaitResolvers(thread);
+	}
+
+	/**
+	 * Waits until other threads have added the pending objects they took, so
+	 * that concurrent readers do not miss them. A thread which is resolving
+	 * objects itself, or holds this index's lock, does not wait, since the
+	 * other threads might in turn be waiting for it.
+	 */
+	private void awaitResolvers(final Thread thread) {
+		if (Thread.holdsLock(this)) return;
+		synchronized (pending) {
+			if (resolvers.containsKey(thread)) return;
+			while (!resolvers.isEmpty()) {
+				try {
+					pending.wait();
+				}
+				catch (final InterruptedException exc) {
+					thread.interrupt();
+					return;
+				}
+			}
 		}
 	}
 
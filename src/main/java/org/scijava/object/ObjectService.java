@@ -81,6 +81,31 @@ public interface ObjectService extends SciJavaService {
 		return obj.getClass().getName() + "@" + Integer.toHexString(obj.hashCode());
 	}
 
+	/**
+	 * Gets the registered object with the given name, as provided at
+	 * registration time (see {@link #addObject(Object, String)}).
+	 * 
+	 * @return The first object registered under the given name, or null if
+	 *         none.
+	 */
+	default Object getObject(final String name) {
+		return getIndex().getObjectByName(name);
+	}
+
+	/**
+	 * Gets the registered object of the given type with the given name, as
+	 * provided at registration time (see {@link #addObject(Object, String)}).
+	 * 
+	 * @return The first compatible object registered under the given name, or
+	 *         null if none.
+	 */
+	default <T> T getObject(final String name, final Class<T> type) {
+		for (final Object obj : getIndex().getObjectsByName(name)) {
+			if (type.isInstance(obj)) return type.cast(obj);
+		}
+		return null;
+	}
+
 	/** Registers an object with the object service. */
 	default void addObject(Object obj) {
 		addObject(obj, null);
@@ -98,6 +123,65 @@ public interface ObjectService extends SciJavaService {
 		eventService().publish(new ObjectsRemovedEvent(obj));
 	}
 
+	/**
+	 * Sets the maximum total estimated size of the registered objects, evicting
+	 * the oldest ones as needed. Objects are measured by the
+	 * {@link #getSizeEstimator() size estimator} when they are registered;
+	 * objects registered while neither a budget nor soft eviction is in effect
+	 * are not measured, and never evicted.
+	 * 
+	 * @param bytes The memory budget in bytes, or 0 for no limit.
+	 * @throws UnsupportedOperationException if the service cannot evict
+	 *           objects.
+	 */
+	default void setMemoryBudget(final long bytes) {
+		throw new UnsupportedOperationException();
+	}
+
+	/** Gets the memory budget in bytes, or 0 if unlimited. */
+	default long getMemoryBudget() {
+		return 0;
+	}
+
+	/** Gets the total estimated size of the evictable objects, in bytes. */
+	default long getMemoryUsage() {
+		return 0;
+	}
+
+	/**
+	 * Sets the estimator used to measure subsequently registered objects.
+	 * 
+	 * @throws UnsupportedOperationException if the service cannot evict
+	 *           objects.
+	 */
+	default void setSizeEstimator(final ObjectSizeEstimator sizeEstimator) {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Gets the estimator used to measure registered objects, or null if the
+	 * service does not evict objects.
+	 */
+	default ObjectSizeEstimator getSizeEstimator() {
+		return null;
+	}
+
+	/**
+	 * Sets whether registered objects are evicted when the JVM runs low on heap
+	 * memory, beyond any memory budget.
+	 * 
+	 * @throws UnsupportedOperationException if the service cannot evict
+	 *           objects.
+	 */
+	default void setSoftEviction(final boolean enabled) {
+		throw new UnsupportedOperationException();
+	}
+
+	/** Gets whether objects are evicted when the JVM runs low on memory. */
+	default boolean isSoftEviction() {
+		return false;
+	}
+
 	// -- Deprecated methods --
 
 	/** @deprecated Use {@link #eventService()} instead. */
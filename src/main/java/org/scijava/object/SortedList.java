@@ -0,0 +1,401 @@
+/*
+ * #%L
+ * SciJava Common shared library for SciJava software.
+ * %%
+ * Copyright (C) 2009 - 2026 SciJava developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package org.scijava.object;
+
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * A list which keeps its elements in sorted order, supporting insertion and
+ * removal in O(log n) time.
+ * <p>
+ * Elements which compare as equal are ordered by recency: an added element
+ * precedes the equal elements already present, while the elements of a single
+ * {@link #addAll(Collection)} call keep their relative order. Positional access
+ * (i.e., {@link #get(int)}) takes linear time; iteration is the intended way to
+ * read the list.
+ * </p>
+ * <p>
+ * Elements added in bulk are merged into a flat array, like a plain sorted
+ * list; the balanced tree is built, in linear time, upon the first single
+ * insertion or removal. Hence, filling the list in bulk costs no more than
+ * sorting.
+ * </p>
+ * 
+ * @see SortedObjectIndex
+ */
+final class SortedList<E extends Comparable<? super E>> extends
+	AbstractList<E>
+{
+
+	/** Elements in list order, until the tree is built; null afterwards. */
+	private List<E> flat;
+
+	/** Elements in list order, once built; null before. */
+	private TreeSet<Key<E>> tree;
+
+	/**
+	 * Keys of each element, for removal by equality; null until the tree is
+	 * built. Values are single keys, or lists of keys for elements which were
+	 * added more than once.
+	 */
+	private Map<Object, Object> keys;
+
+	/** Tie breaker for the next added element; decreasing, so newer is first. */
+	private long nextSeq;
+
+	public SortedList() {
+		flat = new ArrayList<>();
+	}
+
+	// -- List methods --
+
+	@Override
+	public E get(final int index) {
+		if (index < 0 || index >= size()) {
+			throw new IndexOutOfBoundsException("Index: " + index);
+		}
+		if (flat != null) return flat.get(index);
+		final Iterator<E> iter = iterator();
+		for (int i = 0; i < index; i++) iter.next();
+		return iter.next();
+	}
+
+	@Override
+	public int size() {
+		return flat != null ? flat.size() : tree.size();
+	}
+
+	@Override
+	public boolean contains(final Object o) {
+		return flat != null ? flat.contains(o) : keys.containsKey(o);
+	}
+
+	@Override
+	public boolean add(final E e) {
+		build();
+		insert(e);
+		return true;
+	}
+
+	@Override
+	public boolean addAll(final Collection<? extends E> c) {
+		if (c.isEmpty()) return false;
+		if (c instanceof SortedList && isEmpty()) {
+			// NB: Copy the already sorted structure in linear time.
+			@SuppressWarnings("unchecked")
+			final SortedList<E> that = (SortedList<E>) c;
+			if (that.flat != null) flat = new ArrayList<>(that.flat);
+			else {
+				flat = null;
+				tree = new TreeSet<>(that.tree);
+				keys = new HashMap<>();
+				for (final Map.Entry<Object, Object> entry : that.keys.entrySet()) {
+					final Object value = entry.getValue();
+					keys.put(entry.getKey(), value instanceof List ? //
+						new ArrayList<>((List<?>) value) : value);
+				}
+			}
+			nextSeq = that.nextSeq;
+			return true;
+		}
+		final List<E> sorted = new ArrayList<>(c);
+		Collections.sort(sorted);
+		return addSorted(sorted);
+	}
+
+	@Override
+	public boolean remove(final Object o) {
+		build();
+		final Object value = keys.get(o);
+		if (value == null) return false;
+		final Key<E> key;
+		if (value instanceof Key) {
+			key = typed(value);
+			keys.remove(o);
+		}
+		else {
+			// remove the first occurrence of the element
+			final List<?> list = (List<?>) value;
+			Key<E> first = null;
+			for (final Object k : list) {
+				final Key<E> candidate = typed(k);
+				if (first == null || candidate.compareTo(first) < 0) first = candidate;
+			}
+			key = first;
+			list.remove(key);
+			if (list.size() == 1) keys.put(o, list.get(0));
+		}
+		if (!tree.remove(key)) {
+			// NB: The element's ordering changed since it was added, so it cannot
+			// be found by its key anymore. Fall back to a linear search.
+			final Iterator<Key<E>> iter = tree.iterator();
+			while (iter.hasNext()) {
+				if (iter.next() == key) {
+					iter.remove();
+					break;
+				}
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		flat = new ArrayList<>();
+		tree = null;
+		keys = null;
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		if (flat != null) return flat.iterator();
+		final Iterator<Key<E>> iter = tree.iterator();
+		return new Iterator<E>() {
+
+			private E last;
+
+			@Override
+			public boolean hasNext() {
+				return iter.hasNext();
+			}
+
+			@Override
+			public E next() {
+				if (!iter.hasNext()) throw new NoSuchElementException();
+				last = iter.next().element;
+				return last;
+			}
+
+			@Override
+			public void remove() {
+				if (last == null) throw new IllegalStateException();
+				SortedList.this.remove(last);
+				last = null;
+			}
+		};
+	}
+
+	// -- SortedList methods --
+
+	/**
+	 * Adds the given elements, which must already be in sorted order, merging
+	 * them with the existing elements in linear time. Once the tree is built,
+	 * small batches are inserted one by one instead.
+	 */
+	boolean addSorted(final List<? extends E> sorted) {
+		final int count = sorted.size();
+		if (count == 0) return false;
+		if (flat != null) {
+			flat = merge(flat.iterator(), flat.size(), sorted);
+			return true;
+		}
+		final List<Key<E>> run = keys(sorted);
+		final int size = tree.size();
+		if ((long) count * (32 - Integer.numberOfLeadingZeros(size)) < size) {
+			tree.addAll(run);
+		}
+		else {
+			final List<Key<E>> merged = merge(tree.iterator(), size, run);
+			tree.clear();
+			// NB: An empty tree adds a sorted set in linear time.
+			tree.addAll(new SortedRun<>(merged));
+		}
+		return true;
+	}
+
+	// -- Helper methods --
+
+	/** Builds the tree from the flat elements, in linear time. */
+	private void build() {
+		if (flat == null) return;
+		keys = new HashMap<>();
+		tree = new TreeSet<>(new SortedRun<>(keys(flat)));
+		flat = null;
+	}
+
+	/** Creates and records keys for the given elements, in sorted order. */
+	private List<Key<E>> keys(final List<? extends E> sorted) {
+		final int count = sorted.size();
+		// NB: Number the elements upwards from the lowest tie breaker, so that
+		// equal elements keep their relative order but precede the existing ones.
+		final long base = nextSeq - count + 1;
+		nextSeq -= count;
+		final List<Key<E>> result = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			final Key<E> key = new Key<>(sorted.get(i), base + i);
+			result.add(key);
+			index(key);
+		}
+		return result;
+	}
+
+	private void insert(final E e) {
+		final Key<E> key = new Key<>(e, nextSeq--);
+		tree.add(key);
+		index(key);
+	}
+
+	/** Records the key of its element, for removal by equality. */
+	private void index(final Key<E> key) {
+		final E e = key.element;
+		final Object value = keys.get(e);
+		if (value == null) keys.put(e, key);
+		else if (value instanceof Key) {
+			final List<Object> list = new ArrayList<>(2);
+			list.add(value);
+			list.add(key);
+			keys.put(e, list);
+		}
+		else {
+			@SuppressWarnings("unchecked")
+			final List<Object> list = (List<Object>) value;
+			list.add(key);
+		}
+	}
+
+	/**
+	 * Merges a sorted run into the sorted elements of the given iterator. Run
+	 * elements precede the equal ones already present.
+	 */
+	private static <T extends Comparable<? super T>> List<T> merge(
+		final Iterator<T> iter, final int size, final List<? extends T> run)
+	{
+		final List<T> merged = new ArrayList<>(size + run.size());
+		T next = iter.hasNext() ? iter.next() : null;
+		for (final T t : run) {
+			while (next != null && next.compareTo(t) < 0) {
+				merged.add(next);
+				next = iter.hasNext() ? iter.next() : null;
+			}
+			merged.add(t);
+		}
+		if (next != null) merged.add(next);
+		while (iter.hasNext()) merged.add(iter.next());
+		return merged;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Key<E> typed(final Object key) {
+		return (Key<E>) key;
+	}
+
+	// -- Helper classes --
+
+	/** Keys which are already sorted, viewed as a set for building a tree. */
+	private static final class SortedRun<E extends Comparable<? super E>>
+		extends AbstractSet<Key<E>> implements SortedSet<Key<E>>
+	{
+
+		private final List<Key<E>> keys;
+
+		private SortedRun(final List<Key<E>> keys) {
+			this.keys = keys;
+		}
+
+		@Override
+		public Iterator<Key<E>> iterator() {
+			return keys.iterator();
+		}
+
+		@Override
+		public int size() {
+			return keys.size();
+		}
+
+		@Override
+		public Comparator<? super Key<E>> comparator() {
+			return null;
+		}
+
+		@Override
+		public Key<E> first() {
+			if (keys.isEmpty()) throw new NoSuchElementException();
+			return keys.get(0);
+		}
+
+		@Override
+		public Key<E> last() {
+			if (keys.isEmpty()) throw new NoSuchElementException();
+			return keys.get(keys.size() - 1);
+		}
+
+		@Override
+		public SortedSet<Key<E>> subSet(final Key<E> fromElement,
+			final Key<E> toElement)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public SortedSet<Key<E>> headSet(final Key<E> toElement) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public SortedSet<Key<E>> tailSet(final Key<E> fromElement) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	/** An element, together with its tie breaker. */
+	private static final class Key<E extends Comparable<? super E>> implements
+		Comparable<Key<E>>
+	{
+
+		private final E element;
+		private final long seq;
+
+		private Key(final E element, final long seq) {
+			this.element = element;
+			this.seq = seq;
+		}
+
+		@Override
+		public int compareTo(final Key<E> that) {
+			if (this == that) return 0;
+			final int result = element.compareTo(that.element);
+			return result != 0 ? result : Long.compare(seq, that.seq);
+		}
+	}
+
+}
@@ -0,0 +1,152 @@
+/*
+ * #%L
+ * SciJava Common shared library for SciJava software.
+ * %%
+ * Copyright (C) 2009 - 2026 SciJava developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package org.scijava.plugin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Records which code paths cause plugin classes to be loaded.
+ * <p>
+ * Loading a plugin class is the expensive step that SciJava tries hard to
+ * defer; most queries over plugins can be answered from the indexed metadata
+ * alone (see {@link PluginIndex#getPluginsAssignableTo} and
+ * {@link PluginIndex#getPluginsWithAttr}). When the
+ * {@code scijava.plugin.lint} system property is set to {@code true}, every
+ * class load performed by {@link PluginInfo#loadClass()} is recorded together
+ * with its call site, and a report grouped by call site is printed to stderr at
+ * shutdown. Call sites responsible for many loads are good candidates for
+ * metadata-based filtering.
+ * </p>
+ */
+public final class ClassLoadLint {
+
+	/** System property which enables class load recording. */
+	public static final String LINT_PROPERTY = "scijava.plugin.lint";
+
+	/** Number of stack frames recorded per call site. */
+	private static final int DEPTH = 3;
+
+	/** Loaded class names, keyed by call site. */
+	private static final Map<String, List<String>> LOADS = new TreeMap<>();
+
+	private static boolean hookInstalled;
+
+	private ClassLoadLint() {
+		// NB: Prevent instantiation of utility class.
+	}
+
+	// -- ClassLoadLint methods --
+
+	/** Gets whether class load recording is enabled. */
+	public static boolean isEnabled() {
+		return Boolean.getBoolean(LINT_PROPERTY);
+	}
+
+	/** Records that the named plugin class was loaded by the calling code. */
+	public static void record(final String className) {
+		final String site = callSite(new Throwable().getStackTrace());
+		synchronized (LOADS) {
+			LOADS.computeIfAbsent(site, k -> new ArrayList<>()).add(className);
+			if (!hookInstalled) {
+				hookInstalled = true;
+				Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+					if (!getLoads().isEmpty()) System.err.print(report());
+				}, "SciJava-ClassLoadLint"));
+			}
+		}
+	}
+
+	/** Gets the loaded plugin class names recorded so far, by call site. */
+	public static Map<String, List<String>> getLoads() {
+		final Map<String, List<String>> loads = new TreeMap<>();
+		synchronized (LOADS) {
+			for (final Map.Entry<String, List<String>> e : LOADS.entrySet()) {
+				loads.put(e.getKey(), new ArrayList<>(e.getValue()));
+			}
+		}
+		return loads;
+	}
+
+	/** Discards all recorded class loads. */
+	public static void reset() {
+		synchronized (LOADS) {
+			LOADS.clear();
+		}
+	}
+
+	/**
+	 * Gets a human-readable report of the recorded class loads, with the call
+	 * sites responsible for the most loads listed first.
+	 */
+	public static String report() {
+		final List<Map.Entry<String, List<String>>> entries =
+			new ArrayList<>(getLoads().entrySet());
+		entries.sort((e1, e2) -> e2.getValue().size() - e1.getValue().size());
+		int total = 0;
+		for (final Map.Entry<String, List<String>> e : entries) {
+			total += e.getValue().size();
+		}
+		final StringBuilder sb = new StringBuilder();
+		sb.append("[ClassLoadLint] " + total + " plugin classes loaded from " +
+			entries.size() + " call sites\n");
+		for (final Map.Entry<String, List<String>> e : entries) {
+			sb.append(String.format("%6d  %s\n", e.getValue().size(), e.getKey()));
+			for (final String className : e.getValue()) {
+				sb.append("          " + className + "\n");
+			}
+		}
+		return sb.toString();
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Describes the first few stack frames outside of the class loading
+	 * machinery itself.
+	 */
+	private static String callSite(final StackTraceElement[] trace) {
+		final StringBuilder sb = new StringBuilder();
+		int count = 0;
+		for (final StackTraceElement frame : trace) {
+			if (frame.getClassName().equals(ClassLoadLint.class.getName())) continue;
+			if (frame.getMethodName().equals("loadClass")) continue;
+			if (count > 0) sb.append(" <- ");
+			sb.append(frame.getClassName() + "." + frame.getMethodName() + ":" +
+				frame.getLineNumber());
+			if (++count == DEPTH) break;
+		}
+		return sb.toString();
+	}
+
+}
@@ -36,6 +36,8 @@ import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 import org.scijava.Context;
+import org.scijava.ContextProfiler;
+import org.scijava.ContextProfiler.Phase;
 import org.scijava.annotations.Index;
 import org.scijava.annotations.IndexItem;
 
@@ -75,14 +77,25 @@ public class DefaultPluginFinder implements PluginFinder {
 		final HashMap<String, Throwable> exceptions =
 			new HashMap<>();
 
+		final ContextProfiler profiler = ContextProfiler.active();
+
 		// load the annotation indexes
+		Phase phase = profiler == null ? null : //
+			profiler.begin("plugins", "index discovery");
 		final ClassLoader classLoader = getClassLoader();
 		final Index<Plugin> annotationIndex =
 			Index.load(Plugin.class, classLoader);
-
-		// create a PluginInfo object for each item in the index
+		final List<IndexItem<Plugin>> items = new ArrayList<>();
 		for (final IndexItem<Plugin> item : annotationIndex) {
 			if (blocklist.contains(item.className())) continue;
+			items.add(item);
+		}
+		if (profiler != null) profiler.end(phase);
+
+		// create a PluginInfo object for each item in the index
+		phase = profiler == null ? null : //
+			profiler.begin("plugins", "PluginInfo creation");
+		for (final IndexItem<Plugin> item : items) {
 			try {
 				final PluginInfo<?> info = createInfo(item, classLoader);
 				plugins.add(info);
@@ -91,6 +104,7 @@ public class DefaultPluginFinder implements PluginFinder {
 				exceptions.put(item.className(), t);
 			}
 		}
+		if (profiler != null) profiler.end(phase);
 
 		return exceptions;
 	}
@@ -107,7 +121,10 @@ public class DefaultPluginFinder implements PluginFinder {
 		final Class<SciJavaPlugin> pluginType =
 			(Class<SciJavaPlugin>) plugin.type();
 
-		return new PluginInfo<>(className, pluginType, plugin, classLoader);
+		final PluginInfo<SciJavaPlugin> info =
+			new PluginInfo<>(className, pluginType, plugin, classLoader);
+		info.setSupertypeNames(item.supertypes());
+		return info;
 	}
 
 	private ClassLoader getClassLoader() {
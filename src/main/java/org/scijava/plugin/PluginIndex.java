@@ -30,10 +30,17 @@
 package org.scijava.plugin;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import org.scijava.object.LazyObjects;
 import org.scijava.object.SortedObjectIndex;
+import org.scijava.util.DigestUtils;
 
 /**
  * Data structure for managing registered plugins.
@@ -67,9 +74,25 @@ public class PluginIndex extends SortedObjectIndex<PluginInfo<?>> {
 	 */
 	private final PluginFinder pluginFinder;
 
+	/**
+	 * Frozen index from which plugins are copied, rather than being discovered.
+	 *
+	 * @see #fromTemplate(PluginIndex)
+	 */
+	private final PluginIndex template;
+
+	/**
+	 * Whether the template's plugins are private to this index, so that they
+	 * can be taken over rather than copied.
+	 */
+	private boolean ownsTemplate;
+
 	/** Exception table from last invocation of {@link #discover()}. */
 	private Map<String, Throwable> exceptions;
 
+	/** Whether this index has been made immutable. */
+	private volatile boolean frozen;
+
 	/**
 	 * Constructs a new plugin index which uses a {@link DefaultPluginFinder} to
 	 * discover plugins.
@@ -86,26 +109,150 @@ public class PluginIndex extends SortedObjectIndex<PluginInfo<?>> {
 	 * during {@link #discover()} calls.
 	 * </p>
 	 */
-	@SuppressWarnings({ "rawtypes", "unchecked" })
 	public PluginIndex(final PluginFinder pluginFinder) {
+		this(pluginFinder, null, false);
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private PluginIndex(final PluginFinder pluginFinder,
+		final PluginIndex template, final boolean ownsTemplate)
+	{
 		// NB: See: https://stackoverflow.com/questions/4765520/
 		super((Class) PluginInfo.class);
 		this.pluginFinder = pluginFinder;
+		this.template = template;
+		this.ownsTemplate = ownsTemplate;
 	}
 
 	// -- PluginIndex methods --
 
+	/**
+	 * Creates a new plugin index which is populated from the given frozen
+	 * plugin index, rather than by discovering plugins anew.
+	 * <p>
+	 * The new index receives its own copies of the template's
+	 * {@link PluginInfo} objects (see {@link PluginInfo#copy()}), which share
+	 * any plugin classes already loaded, so that {@link #discover()} is very
+	 * cheap. The new index is independent of the template: plugins may be
+	 * freely added to and removed from it, and modified. This makes it
+	 * practical to create many isolated {@link org.scijava.Context} instances
+	 * from the same set of plugins (see
+	 * {@link org.scijava.Context#createChild()}).
+	 * </p>
+	 *
+	 * @throws IllegalArgumentException if the template is not frozen.
+	 * @see #freeze()
+	 * @see #snapshot()
+	 */
+	public static PluginIndex fromTemplate(final PluginIndex template) {
+		if (!template.isFrozen()) {
+			throw new IllegalArgumentException("Template index is not frozen");
+		}
+		return new PluginIndex(null, template, false);
+	}
+
+	/**
+	 * Creates a new plugin index which is populated from this index, as of this
+	 * call, rather than by discovering plugins anew.
+	 * <p>
+	 * This is equivalent to {@code fromTemplate(this)} if this index is frozen,
+	 * and to {@code fromTemplate(snapshot())} otherwise, except that the
+	 * plugins of the snapshot, which no other index can see, are not copied a
+	 * second time.
+	 * </p>
+	 */
+	public PluginIndex createChild() {
+		return frozen ? fromTemplate(this) : new PluginIndex(null, snapshot(),
+			true);
+	}
+
 	/**
 	 * Adds all plugins discovered by the attached {@link PluginFinder} to this
 	 * index, or does nothing if the attached {@link PluginFinder} is null.
+	 * <p>
+	 * If this index was created from a template (see
+	 * {@link #fromTemplate(PluginIndex)}), the template's plugins are added
+	 * instead. If this index is frozen, this method does nothing.
+	 * </p>
 	 */
 	public void discover() {
+		// NB: A frozen index has, by definition, already been populated.
+		if (frozen) return;
+		if (template != null) {
+			copyTemplate();
+			return;
+		}
 		if (pluginFinder == null) return;
 		final ArrayList<PluginInfo<?>> plugins = new ArrayList<>();
 		exceptions = pluginFinder.findPlugins(plugins);
 		addAll(plugins);
 	}
 
+	/**
+	 * Makes this index immutable. Subsequent attempts to add or remove plugins
+	 * will throw {@link UnsupportedOperationException}, and calls to
+	 * {@link #discover()} will do nothing.
+	 * <p>
+	 * A frozen index can safely be shared between threads, and used as the
+	 * template of other indices (see {@link #fromTemplate(PluginIndex)}).
+	 * </p>
+	 */
+	public void freeze() {
+		if (frozen) return;
+		getAll(); // NB: Register any pending objects first.
+		frozen = true;
+	}
+
+	/** Gets whether this index is immutable. */
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	/**
+	 * Creates a frozen copy of this index, suitable as the template of other
+	 * indices (see {@link #fromTemplate(PluginIndex)}). This index itself
+	 * remains mutable; later changes to it, or to its plugins, do not affect
+	 * the copy.
+	 * <p>
+	 * The copy holds copies of this index's {@link PluginInfo} objects (see
+	 * {@link PluginInfo#copy()}). Instances of {@link PluginInfo} subclasses are
+	 * shared, though, since they cannot be copied faithfully.
+	 * </p>
+	 */
+	public PluginIndex snapshot() {
+		getAll(); // NB: Register any pending objects first.
+		final PluginIndex snapshot = new PluginIndex(null, null, false);
+		synchronized (this) {
+			snapshot.exceptions = exceptions;
+			snapshot.copyLists(this, true);
+		}
+		snapshot.frozen = true;
+		return snapshot;
+	}
+
+	/**
+	 * Computes a fingerprint of the indexed plugins: a hash of each plugin's
+	 * class name, plugin type and priority, independent of registration order.
+	 * Two indices with the same fingerprint describe the same set of plugins,
+	 * so artifacts derived from one (e.g., a class data sharing archive; see
+	 * {@link org.scijava.util.ClassDataSharing}) remain valid for the other.
+	 */
+	public String fingerprint() {
+		final List<String> lines = new ArrayList<>();
+		for (final PluginInfo<?> info : getAll()) {
+			final Class<?> pluginType = info.getPluginType();
+			lines.add(info.getClassName() + "\t" + //
+				(pluginType == null ? "" : pluginType.getName()) + "\t" + //
+				info.getPriority());
+		}
+		Collections.sort(lines);
+		final StringBuilder sb = new StringBuilder();
+		for (final String line : lines) {
+			sb.append(line).append('\n');
+		}
+		return DigestUtils.bestHex(sb.toString());
+	}
+
 	/**
 	 * Gets the exceptions which occurred during the last invocation of
 	 * {@link #discover()}.
@@ -134,8 +281,79 @@ public class PluginIndex extends SortedObjectIndex<PluginInfo<?>> {
 		return result;
 	}
 
+	/**
+	 * Gets the registered plugins of the given plugin type whose plugin class is
+	 * assignable to the given type (e.g., all {@code Service} plugins
+	 * implementing a particular service interface).
+	 * <p>
+	 * Unlike filtering the result of {@link #getPlugins(Class)} by
+	 * {@link PluginInfo#loadClass()}, this method consults the indexed supertype
+	 * names, and loads plugin classes only when those are unknown.
+	 * </p>
+	 * 
+	 * @see PluginInfo#isAssignableTo(Class)
+	 */
+	public <PT extends SciJavaPlugin> List<PluginInfo<PT>>
+		getPluginsAssignableTo(final Class<PT> pluginType, final Class<?> type)
+	{
+		final List<PluginInfo<PT>> result = new ArrayList<>();
+		for (final PluginInfo<PT> info : getPlugins(pluginType)) {
+			if (info.isAssignableTo(type)) result.add(info);
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the registered plugins of the given plugin type with the given
+	 * attribute value, as declared via {@link Plugin#attrs()}. No plugin classes
+	 * are loaded.
+	 * 
+	 * @param pluginType The type of plugins to consider.
+	 * @param key The attribute key.
+	 * @param value The required attribute value, or null to match any plugin
+	 *          which declares the attribute at all.
+	 */
+	public <PT extends SciJavaPlugin> List<PluginInfo<PT>> getPluginsWithAttr(
+		final Class<PT> pluginType, final String key, final String value)
+	{
+		final List<PluginInfo<PT>> result = new ArrayList<>();
+		for (final PluginInfo<PT> info : getPlugins(pluginType)) {
+			final String v = info.get(key);
+			if (value == null ? v != null : value.equals(v)) result.add(info);
+		}
+		return result;
+	}
+
+	// -- ObjectIndex methods --
+
+	@Override
+	public void addLater(final LazyObjects<? extends PluginInfo<?>> c) {
+		checkMutable();
+		super.addLater(c);
+	}
+
+	// -- Collection methods --
+
+	@Override
+	public boolean addAll(final Collection<? extends PluginInfo<?>> c) {
+		checkMutable();
+		return super.addAll(c);
+	}
+
+	@Override
+	public void clear() {
+		checkMutable();
+		super.clear();
+	}
+
 	// -- Internal methods --
 
+	@Override
+	protected boolean add(final PluginInfo<?> o, final boolean batch) {
+		checkMutable();
+		return super.add(o, batch);
+	}
+
 	/**
 	 * Overrides the type by which the entries are indexed.
 	 * 
@@ -160,8 +378,76 @@ public class PluginIndex extends SortedObjectIndex<PluginInfo<?>> {
 	@Override
 	protected boolean remove(final Object o, final boolean batch) {
 		if (!(o instanceof PluginInfo)) return false;
+		checkMutable();
 		final PluginInfo<?> info = (PluginInfo<?>) o;
 		return remove(info, info.getPluginType(), batch);
 	}
 
+	// -- Helper methods --
+
+	private void checkMutable() {
+		if (frozen) throw new UnsupportedOperationException("Index is frozen");
+	}
+
+	/**
+	 * Populates this index with copies of the plugins of the template index,
+	 * skipping those already present.
+	 */
+	private void copyTemplate() {
+		exceptions = template.getExceptions();
+		if (isEmpty()) {
+			// NB: Plugins private to this index are taken over, but only once.
+			copyLists(template, !ownsTemplate);
+			ownsTemplate = false;
+			return;
+		}
+		final Set<String> present = new HashSet<>();
+		for (final PluginInfo<?> info : getAll()) {
+			present.add(key(info));
+		}
+		final List<PluginInfo<?>> plugins = new ArrayList<>();
+		for (final PluginInfo<?> info : template.getAll()) {
+			if (!present.contains(key(info))) plugins.add(copy(info));
+		}
+		addAll(plugins);
+	}
+
+	/**
+	 * Fills the type lists of this empty index with the plugins of the given
+	 * index, or copies thereof, whose lock must be held unless it is frozen.
+	 */
+	private void copyLists(final PluginIndex source, final boolean copy) {
+		// NB: The source's type lists are already sorted and classified, so we
+		// can copy them wholesale, without reclassifying each plugin.
+		final Map<PluginInfo<?>, PluginInfo<?>> copies = new IdentityHashMap<>();
+		synchronized (this) {
+			for (final Map.Entry<Class<?>, List<PluginInfo<?>>> entry : //
+			source.hoard.entrySet())
+			{
+				final List<PluginInfo<?>> infos = entry.getValue();
+				final List<PluginInfo<?>> run = copy ? new ArrayList<>(infos
+					.size()) : infos;
+				if (copy) {
+					for (final PluginInfo<?> info : infos) {
+						run.add(copies.computeIfAbsent(info, PluginIndex::copy));
+					}
+				}
+				// NB: Add each list at once, rather than plugin by plugin, so that it is
+				// merged in bulk.
+				retrieveList(entry.getKey()).addAll(run);
+			}
+			invalidateAll();
+		}
+	}
+
+	private static PluginInfo<?> copy(final PluginInfo<?> info) {
+		return info.getClass() == PluginInfo.class ? info.copy() : info;
+	}
+
+	private static String key(final PluginInfo<?> info) {
+		final Class<?> pluginType = info.getPluginType();
+		return info.getClassName() + "\t" + //
+			(pluginType == null ? "" : pluginType.getName());
+	}
+
 }
@@ -31,7 +31,10 @@ package org.scijava.plugin;
 
 import java.net.URL;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 
 import org.scijava.AbstractUIDetails;
 import org.scijava.Identifiable;
@@ -83,6 +86,12 @@ public class PluginInfo<PT extends SciJavaPlugin> extends AbstractUIDetails
 	/** Class loader to use when loading the class with {@link #loadClass()}. */
 	private ClassLoader classLoader;
 
+	/**
+	 * Names of all supertypes of the plugin class, as recorded in the annotation
+	 * index; or null if unknown.
+	 */
+	private Set<String> supertypeNames;
+
 	/**
 	 * Creates a new plugin metadata object.
 	 * 
@@ -228,6 +237,86 @@ public class PluginInfo<PT extends SciJavaPlugin> extends AbstractUIDetails
 		return pluginType;
 	}
 
+	/**
+	 * Sets the names of all supertypes (superclasses and interfaces, direct or
+	 * inherited) of the plugin class. This allows {@link #isAssignableTo} to
+	 * answer without loading the class.
+	 * 
+	 * @param supertypeNames The fully qualified supertype names, or null if
+	 *          unknown.
+	 */
+	public void setSupertypeNames(final Collection<String> supertypeNames) {
+		this.supertypeNames = supertypeNames == null ? null : Collections
+			.unmodifiableSet(new HashSet<>(supertypeNames));
+	}
+
+	/**
+	 * Gets the names of all supertypes of the plugin class, if known.
+	 * 
+	 * @return The supertype names, or null if they were not recorded (e.g.,
+	 *         because the plugin comes from an older annotation index).
+	 */
+	public Set<String> getSupertypeNames() {
+		return supertypeNames;
+	}
+
+	/**
+	 * Tests whether the plugin class is assignable to the given type.
+	 * <p>
+	 * If the plugin class has not been loaded yet, the check is answered from
+	 * the {@link #getSupertypeNames() supertype names} where possible, comparing
+	 * by name. The class is only loaded as a last resort,
+	 * when its supertypes are unknown.
+	 * </p>
+	 * 
+	 * @param type The type to check against.
+	 * @return true iff the plugin class is (or appears to be, by name) a subtype
+	 *         of the given type; false if it is not, or cannot be loaded.
+	 */
+	public boolean isAssignableTo(final Class<?> type) {
+		if (pluginClass != null) return type.isAssignableFrom(pluginClass);
+		final String name = type.getName();
+		if (name.equals(className)) return true;
+		if (supertypeNames != null) return supertypeNames.contains(name);
+		// NB: Nothing is known about the class hierarchy; we must load it.
+		try {
+			return type.isAssignableFrom(loadClass());
+		}
+		catch (final InstantiableException exc) {
+			return false;
+		}
+	}
+
+	/**
+	 * Creates a copy of this plugin metadata. The copy shares the plugin class,
+	 * if already loaded, but no mutable state: e.g., changing the priority of
+	 * one does not affect the other.
+	 */
+	public PluginInfo<PT> copy() {
+		final PluginInfo<PT> copy = new PluginInfo<>(getClassName(), null,
+			pluginType, null, classLoader);
+		copy.className = className;
+		copy.pluginClass = pluginClass;
+		copy.annotation = annotation;
+		copy.supertypeNames = supertypeNames;
+		copy.setBasicDetails(this);
+		final MenuPath menuPath = new MenuPath();
+		for (final MenuEntry entry : getMenuPath()) {
+			menuPath.add(new MenuEntry(entry.getName(), entry.getWeight(), entry
+				.getMnemonic(), entry.getAccelerator(), entry.getIconPath()));
+		}
+		copy.setMenuPath(menuPath);
+		copy.setMenuRoot(getMenuRoot());
+		copy.setIconPath(getIconPath());
+		copy.setPriority(getPriority());
+		copy.setSelectable(isSelectable());
+		copy.setSelectionGroup(getSelectionGroup());
+		copy.setSelected(isSelected());
+		copy.setEnabled(isEnabled());
+		copy.setVisible(isVisible());
+		return copy;
+	}
+
 	/** Gets the associated @{@link Plugin} annotation. */
 	public Plugin getAnnotation() {
 		return annotation;
@@ -282,6 +371,7 @@ public class PluginInfo<PT extends SciJavaPlugin> extends AbstractUIDetails
 		if (pluginClass == null) {
 			try {
 				final Class<?> c = Types.load(className, classLoader, false);
+				if (ClassLoadLint.isEnabled()) ClassLoadLint.record(className);
 				@SuppressWarnings("unchecked")
 				final Class<? extends PT> typedClass = (Class<? extends PT>) c;
 				pluginClass = typedClass;
@@ -33,11 +33,15 @@ import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.scijava.AbstractContextual;
 import org.scijava.Context;
+import org.scijava.ContextProfiler;
+import org.scijava.ContextProfiler.Phase;
 import org.scijava.Optional;
 import org.scijava.event.EventHandler;
 import org.scijava.event.EventService;
@@ -59,13 +63,19 @@ public class ServiceHelper extends AbstractContextual {
 	private LogService log;
 
 	/**
-	 * Classes to scan when searching for dependencies. Data structure is a map
-	 * with keys being relevant classes, and values being associated priorities.
+	 * Loaded classes of the class pool. Data structure is a map with keys being
+	 * relevant classes, and values being associated plugin metadata.
 	 */
 	private final Map<Class<? extends Service>, PluginInfo<?>> classPoolMap;
 
-	/** Classes to scan when searching for dependencies, sorted by priority. */
-	private final List<Class<? extends Service>> classPoolList;
+	/**
+	 * Services to scan when searching for dependencies, sorted by priority.
+	 * Their classes are loaded lazily, once they are known to be compatible.
+	 */
+	private final List<PluginInfo<Service>> classPoolList;
+
+	/** Services of the class pool whose classes could not be loaded. */
+	private final Set<PluginInfo<Service>> invalidServices;
 
 	/** Classes to instantiate as services. */
 	private final List<Class<? extends Service>> serviceClasses;
@@ -115,14 +125,18 @@ public class ServiceHelper extends AbstractContextual {
 		if (log == null) log = new StderrLogService();
 		classPoolMap = new HashMap<>();
 		classPoolList = new ArrayList<>();
-		findServiceClasses(classPoolMap, classPoolList);
+		invalidServices = new HashSet<>();
+		findServiceClasses(serviceClasses == null);
 		if (classPoolList.isEmpty()) {
 			log.warn("Class pool is empty: forgot to call Thread#setClassLoader?");
 		}
 		this.serviceClasses = new ArrayList<>();
 		if (serviceClasses == null) {
 			// load all discovered services
-			this.serviceClasses.addAll(classPoolList);
+			for (final PluginInfo<Service> info : classPoolList) {
+				final Class<? extends Service> c = serviceClass(info);
+				if (c != null) this.serviceClasses.add(c);
+			}
 		}
 		else {
 			// load only the services that were explicitly specified
@@ -160,8 +174,9 @@ public class ServiceHelper extends AbstractContextual {
 	public void loadServices() {
 		for (final Class<? extends Service> serviceClass : serviceClasses) {
 			// Load all compatible classes
-			for (Class<? extends Service> c : classPoolList) {
-				if (serviceClass.isAssignableFrom(c)) loadService(c);
+			for (final PluginInfo<Service> info : classPoolList) {
+				final Class<? extends Service> c = compatibleClass(info, serviceClass);
+				if (c != null) loadService(c);
 			}
 
 			// Make sure loadService gets called once on the actual provided class
@@ -222,8 +237,9 @@ public class ServiceHelper extends AbstractContextual {
 		if (service != null) return service;
 
 		// scan the class pool for a suitable match
-		for (final Class<? extends Service> serviceClass : classPoolList) {
-			if (c.isAssignableFrom(serviceClass)) {
+		for (final PluginInfo<Service> info : classPoolList) {
+			final Class<? extends Service> serviceClass = compatibleClass(info, c);
+			if (serviceClass != null) {
 				// found a match; now instantiate it
 				@SuppressWarnings("unchecked")
 				final S result = (S) createExactService(serviceClass, required);
@@ -264,8 +280,15 @@ public class ServiceHelper extends AbstractContextual {
 			long start = 0, end = 0;
 			boolean debug = log.isDebug();
 			if (debug) start = System.currentTimeMillis();
-			final S service = createServiceRecursively(c);
-			context().getServiceIndex().add(service);
+			final Phase phase = begin("service", c);
+			final S service;
+			try {
+				service = createServiceRecursively(c);
+				context().getServiceIndex().add(service);
+			}
+			finally {
+				end(phase);
+			}
 			if (debug) {
 				end = System.currentTimeMillis();
 				log.debug("Created service '" + name + "' in " + (end - start) + " ms");
@@ -297,8 +320,10 @@ public class ServiceHelper extends AbstractContextual {
 	private <S extends Service> S createServiceRecursively(final Class<S> c)
 		throws InstantiationException, IllegalAccessException
 	{
+		Phase phase = begin("construct", c);
 		final S service = c.newInstance();
 		service.setContext(getContext());
+		end(phase);
 
 		// propagate plugin metadata and priority if known
 		final PluginInfo<?> info = classPoolMap.get(c);
@@ -311,6 +336,7 @@ public class ServiceHelper extends AbstractContextual {
 		boolean eventServiceRequired = true;
 
 		// populate service parameters
+		phase = begin("inject", c);
 		final List<Field> fields =
 			ClassUtils.getAnnotatedFields(c, Parameter.class);
 		for (final Field f : fields) {
@@ -348,31 +374,90 @@ public class ServiceHelper extends AbstractContextual {
 			// NB: There are @EventHandler methods; we need an EventService.
 			loadService(EventService.class, eventServiceRequired);
 		}
+		end(phase);
 
+		phase = begin("initialize", c);
 		service.initialize();
+		end(phase);
+
+		phase = begin("subscribe", c);
 		service.registerEventHandlers();
+		end(phase);
 		return service;
 	}
 
-	/** Asks the plugin index for all available service implementations. */
-	private void findServiceClasses(
-		final Map<Class<? extends Service>, PluginInfo<?>> serviceMap,
-		final List<Class<? extends Service>> serviceList)
-	{
+	/**
+	 * Asks the plugin index for all available service implementations.
+	 * 
+	 * @param loadAll Whether all service classes will be needed anyway.
+	 */
+	private void findServiceClasses(final boolean loadAll) {
 		// ask the plugin index for the (sorted) list of available services
-		final List<PluginInfo<Service>> services =
-			context().getPluginIndex().getPlugins(Service.class);
+		classPoolList.addAll(context().getPluginIndex().getPlugins(Service.class));
 
-		for (final PluginInfo<Service> info : services) {
-			try {
-				final Class<? extends Service> c = info.loadClass();
-				serviceMap.put(c, info);
-				serviceList.add(c);
-			}
-			catch (final Throwable e) {
-				log.error("Invalid service: " + info, e);
-			}
+		if (loadAll) return;
+		for (final PluginInfo<Service> info : classPoolList) {
+			// NB: Without indexed supertypes, the class must be loaded to check its
+			// compatibility anyway. Load it now, so that failures are reported.
+			if (info.getSupertypeNames() == null) serviceClass(info);
+		}
+	}
+
+	/**
+	 * Gets the class of the given service plugin if it is compatible with the
+	 * given type, loading it only when the indexed metadata cannot rule it out.
+	 * 
+	 * @return The loaded class, or null if incompatible or invalid.
+	 */
+	private Class<? extends Service> compatibleClass(
+		final PluginInfo<Service> info, final Class<?> type)
+	{
+		if (invalidServices.contains(info) || !info.isAssignableTo(type)) {
+			return null;
 		}
+		final Class<? extends Service> c = serviceClass(info);
+		// NB: The name-based check could be fooled by duplicate class names.
+		return c != null && type.isAssignableFrom(c) ? c : null;
+	}
+
+	/**
+	 * Loads the class of the given service plugin, registering it in the class
+	 * pool.
+	 * 
+	 * @return The loaded class, or null if it cannot be loaded.
+	 */
+	private Class<? extends Service> serviceClass(
+		final PluginInfo<Service> info)
+	{
+		if (invalidServices.contains(info)) return null;
+		final boolean loaded = info.getPluginClass() != null;
+		final ContextProfiler profiler = context().getProfiler();
+		final Phase phase = loaded || profiler == null ? null : //
+			profiler.begin("load class", info.getClassName());
+		try {
+			final Class<? extends Service> c = info.loadClass();
+			classPoolMap.put(c, info);
+			return c;
+		}
+		catch (final Throwable e) {
+			invalidServices.add(info);
+			log.error("Invalid service: " + info, e);
+			return null;
+		}
+		finally {
+			if (phase != null) profiler.end(phase);
+		}
+	}
+
+	/** Begins a profiled phase for the given service, if profiling. */
+	private Phase begin(final String category, final Class<?> c) {
+		final ContextProfiler profiler = context().getProfiler();
+		return profiler == null ? null : profiler.begin(category, c.getName());
+	}
+
+	/** Ends the given profiled phase, if profiling. */
+	private void end(final Phase phase) {
+		if (phase != null) context().getProfiler().end(phase);
 	}
 
 	/** Returns true iff the given class is {@link Optional}. */
@@ -31,24 +31,84 @@ package org.scijava.thread;
 
 import java.awt.EventQueue;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.WeakHashMap;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 
+import org.scijava.Cancelable;
+import org.scijava.Context;
 import org.scijava.log.LogService;
 import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
 import org.scijava.service.AbstractService;
 import org.scijava.service.Service;
+import org.scijava.thread.ThreadPoolPolicy.Backpressure;
 
 /**
  * Default service for managing active threads.
+ * <p>
+ * By default, code passed to {@link #run} executes in a cached pool of
+ * platform threads. On Java runtimes which support virtual threads (Java 21 and
+ * later), the service can instead start a virtual thread per task: call
+ * {@link #setVirtualThreads(boolean)}, or set the system property
+ * {@value #VIRTUAL_PROPERTY} to {@code true}. Virtual threads are named,
+ * parented and recognized by {@link #getThreadContext} just like pooled ones.
+ * </p>
+ * <p>
+ * CPU-bound work submitted with {@link #run(Callable, Workload)} runs in a
+ * separate pool, by default with one thread per available processor. The
+ * {@link ThreadPoolPolicy} of each pool can be changed with
+ * {@link #setPoolPolicy}, or with the system properties
+ * {@code scijava.thread.<workload>.core}, {@code .max}, {@code .queue} and
+ * {@code .backpressure}, where {@code <workload>} is {@code cpu} or
+ * {@code io}; e.g. {@code -Dscijava.thread.io.max=64
+ * -Dscijava.thread.io.backpressure=caller_runs}. A pool which is replaced,
+ * e.g. by a policy change, is not shut down, since callers may still hold it
+ * (see {@link #getExecutorService()}); its threads expire once idle. Pools
+ * installed via {@link #setExecutorService} belong to the caller: they are
+ * neither replaced nor shut down by the service.
+ * </p>
+ * <p>
+ * Data-parallel work submitted with {@link #parallelFor} and
+ * {@link #parallelMap} runs in a {@link ForkJoinPool} of this service, whose
+ * parallelism is the maximum size of the {@link Workload#CPU} pool at the time
+ * of first use. Its workers belong to the service's context, and know the
+ * thread which started the computation as their parent.
+ * </p>
+ * <p>
+ * The service can record {@link ThreadMetrics} of its executors: enable them
+ * with {@link #setMetricsEnabled(boolean)}, or with the system property
+ * {@value #METRICS_PROPERTY}. To log a report periodically, call
+ * {@link #setMetricsLogInterval(long)} or set the system property
+ * {@value #METRICS_INTERVAL_PROPERTY} to the interval in seconds.
+ * </p>
  * 
  * @author Curtis Rueden
  */
@@ -57,37 +117,185 @@ public final class DefaultThreadService extends AbstractService implements
 	ThreadService
 {
 
+	/** System property enabling virtual threads for {@link #run}. */
+	public static final String VIRTUAL_PROPERTY = "scijava.thread.virtual";
+
+	/** Prefix of the system properties configuring the thread pools. */
+	public static final String POOL_PROPERTY_PREFIX = "scijava.thread.";
+
+	/** System property enabling the recording of {@link ThreadMetrics}. */
+	public static final String METRICS_PROPERTY = "scijava.thread.metrics";
+
+	/** System property giving the interval in seconds for logging metrics. */
+	public static final String METRICS_INTERVAL_PROPERTY =
+		"scijava.thread.metrics.interval";
+
+	private static final long KEEP_ALIVE_SECONDS = 60;
+
 	private static final String SCIJAVA_THREAD_PREFIX = "SciJava-";
 
 	private static final long SHUTDOWN_TIMEOUT = 5000;
 
-	private static WeakHashMap<Thread, Thread> parents =
-		new WeakHashMap<>();
+	/**
+	 * Lineage of the tasks currently running in threads other than our own
+	 * {@link OwnedThread}s, such as the event dispatch thread.
+	 */
+	private static final Map<Thread, Lineage> lineages =
+		new ConcurrentHashMap<>();
 
 	@Parameter
 	private LogService log;
 
-	private ExecutorService executor;
+	private volatile ExecutorService executor;
+
+	/** Whether {@link #executor} was created by this service. */
+	private boolean ownExecutor;
+
+	private volatile ExecutorService cpuExecutor;
+
+	/** Pools created by this service and since replaced; see {@link #retire}. */
+	private final List<ExecutorService> retired = new ArrayList<>();
+
+	private volatile ForkJoinPool forkJoinPool;
+
+	private final Map<Workload, ThreadPoolPolicy> policies = new EnumMap<>(
+		Workload.class);
 
 	/** Mapping from ID to single-thread {@link ExecutorService} queue. */
 	private Map<String, ExecutorService> queues;
 
-	private int nextThread = 0;
+	private final AtomicInteger nextThread = new AtomicInteger();
+
+	private boolean virtual;
+
+	private volatile ThreadMetrics metrics;
+
+	/** Periodically logs the metrics, if requested. */
+	private ScheduledExecutorService reporter;
+
+	private long metricsLogInterval;
 
-	private boolean disposed;
+	private volatile boolean disposed;
+
+	public DefaultThreadService() {
+		policies.put(Workload.CPU, ThreadPoolPolicy.fixed(Runtime.getRuntime()
+			.availableProcessors()));
+		policies.put(Workload.IO, ThreadPoolPolicy.unbounded());
+	}
+
+	// -- DefaultThreadService methods --
+
+	/** Gets whether the Java runtime supports virtual threads. */
+	public static boolean isVirtualThreadSupported() {
+		return VirtualThreads.FACTORY != null;
+	}
+
+	/**
+	 * Enables or disables recording {@link ThreadMetrics} of the executors.
+	 * Disabling discards the metrics recorded so far.
+	 */
+	public void setMetricsEnabled(final boolean enabled) {
+		if (enabled == (metrics != null)) return;
+		metrics = enabled ? new ThreadMetrics() : null;
+	}
+
+	/** Gets the recorded metrics, or null if they are not enabled. */
+	public ThreadMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Logs a report of the {@link ThreadMetrics} at the given interval, enabling
+	 * the metrics if needed.
+	 *
+	 * @param seconds the interval in seconds, or 0 to stop logging
+	 */
+	public synchronized void setMetricsLogInterval(final long seconds) {
+		if (reporter != null) {
+			reporter.shutdownNow();
+			reporter = null;
+		}
+		metricsLogInterval = Math.max(0, seconds);
+		if (seconds <= 0 || disposed) return;
+		setMetricsEnabled(true);
+		reporter = Executors.newSingleThreadScheduledExecutor(this);
+		reporter.scheduleAtFixedRate(() -> {
+			final ThreadMetrics m = metrics;
+			if (m != null) log.info(m.report());
+		}, seconds, seconds, TimeUnit.SECONDS);
+	}
+
+	/** Gets the interval in seconds for logging metrics, or 0 if not logged. */
+	public synchronized long getMetricsLogInterval() {
+		return metricsLogInterval;
+	}
 
 	// -- ThreadService methods --
 
 	@Override
 	public <V> Future<V> run(final Callable<V> code) {
-		if (disposed) return null;
-		return executor().submit(wrap(code));
+		return run(code, Workload.IO);
 	}
 
 	@Override
 	public Future<?> run(final Runnable code) {
+		return run(code, Workload.IO);
+	}
+
+	@Override
+	public <V> Future<V> run(final Callable<V> code, final Workload workload) {
+		if (disposed) return null;
+		return submit(poolName(workload), executor(workload), code);
+	}
+
+	@Override
+	public Future<?> run(final Runnable code, final Workload workload) {
 		if (disposed) return null;
-		return executor().submit(wrap(code));
+		return submit(poolName(workload), executor(workload), code);
+	}
+
+	@Override
+	public synchronized void setPoolPolicy(final Workload workload,
+		final ThreadPoolPolicy policy)
+	{
+		if (policy == null) throw new NullPointerException("Null policy");
+		if (policy.equals(policies.put(workload, policy))) return;
+		if (workload == Workload.CPU) {
+			if (cpuExecutor != null) retire(cpuExecutor);
+			cpuExecutor = null;
+		}
+		else if (!virtual && ownExecutor && executor != null) {
+			retire(executor);
+			executor = null;
+		}
+	}
+
+	@Override
+	public synchronized ThreadPoolPolicy getPoolPolicy(final Workload workload) {
+		return policies.get(workload);
+	}
+
+	@Override
+	public ForkJoinPool getForkJoinPool() {
+		final ForkJoinPool pool = forkJoinPool;
+		return pool == null ? initForkJoinPool() : pool;
+	}
+
+	@Override
+	public void parallelFor(final int from, final int to,
+		final IntConsumer body, final Cancelable cancelable)
+	{
+		if (from >= to) return;
+		final ForkJoinPool pool = getForkJoinPool();
+		// NB: Split into a few pieces per worker, to balance uneven loads.
+		final long grain = Math.max(1, ((long) to - from) / (4L * pool
+			.getParallelism()));
+		final Lineage lineage = new Lineage(Thread.currentThread(), context());
+		pool.invoke(new RangeTask(from, to, (int) grain, body, cancelable,
+			lineage));
+		if (cancelable != null && cancelable.isCanceled()) {
+			throw new CancellationException(cancelable.getCancelReason());
+		}
 	}
 
 	@Override
@@ -96,8 +304,10 @@ public final class DefaultThreadService extends AbstractService implements
 	}
 
 	@Override
-	public void setExecutorService(final ExecutorService executor) {
+	public synchronized void setExecutorService(final ExecutorService executor) {
+		if (ownExecutor && this.executor != null) retire(this.executor);
 		this.executor = executor;
+		ownExecutor = false;
 	}
 
 	@Override
@@ -115,44 +325,85 @@ public final class DefaultThreadService extends AbstractService implements
 		}
 		else {
 			// invoke on the EDT
-			EventQueue.invokeAndWait(wrap(code));
+			EventQueue.invokeAndWait(wrap(code, inheritedContext(), null));
 		}
 	}
 
 	@Override
 	public void queue(final Runnable code) {
-		EventQueue.invokeLater(wrap(code));
+		EventQueue.invokeLater(wrap(code, inheritedContext(), null));
 	}
 
 	@Override
 	public Future<?> queue(final String id, final Runnable code) {
-		return executor(id).submit(wrap(code));
+		return submit("queue:" + id, executor(id), code);
 	}
 
 	@Override
 	public <V> Future<V> queue(final String id, final Callable<V> code) {
-		return executor(id).submit(wrap(code));
+		return submit("queue:" + id, executor(id), code);
 	}
 
 	@Override
 	public Thread getParent(final Thread thread) {
-		return parents.get(thread != null ? thread : Thread.currentThread());
+		final Lineage lineage = lineage(thread != null ? thread : Thread
+			.currentThread());
+		return lineage == null ? null : lineage.parent;
 	}
 
 	@Override
 	public ThreadContext getThreadContext(final Thread thread) {
-		final String name = thread.getName();
+		final Context threadContext = contextOf(thread);
+		if (threadContext != null) {
+			return threadContext == context() ? ThreadContext.SAME
+				: ThreadContext.OTHER;
+		}
+		// NB: Threads of a thread service we cannot see, e.g. one loaded by a
+		// different class loader, are still recognizable by their names.
+		return thread.getName().startsWith(SCIJAVA_THREAD_PREFIX)
+			? ThreadContext.OTHER : ThreadContext.NONE;
+	}
 
-		// check for same context
-		if (name.startsWith(contextThreadPrefix())) return ThreadContext.SAME;
+	@Override
+	public synchronized void setVirtualThreads(final boolean virtual) {
+		if (virtual && !isVirtualThreadSupported()) {
+			throw new UnsupportedOperationException(
+				"Virtual threads are not supported by this Java runtime");
+		}
+		if (this.virtual == virtual) return;
+		this.virtual = virtual;
+		if (ownExecutor && executor != null) {
+			retire(executor);
+			executor = null;
+		}
+	}
+
+	@Override
+	public boolean isVirtualThreads() {
+		return virtual;
+	}
 
-		// check for different context
-		if (name.startsWith(SCIJAVA_THREAD_PREFIX)) return ThreadContext.OTHER;
+	// -- Service methods --
 
-		// recursively check parent thread
-		final Thread parent = getParent(thread);
-		if (parent == thread || parent == null) return ThreadContext.NONE;
-		return getThreadContext(parent);
+	@Override
+	public void initialize() {
+		for (final Workload workload : Workload.values()) {
+			initPolicy(workload);
+		}
+		if (Boolean.getBoolean(METRICS_PROPERTY)) setMetricsEnabled(true);
+		final String interval = System.getProperty(METRICS_INTERVAL_PROPERTY);
+		if (interval != null) {
+			try {
+				setMetricsLogInterval(Long.parseLong(interval.trim()));
+			}
+			catch (final NumberFormatException exc) {
+				log.warn("Invalid " + METRICS_INTERVAL_PROPERTY + ": " + interval);
+			}
+		}
+		if (!Boolean.getBoolean(VIRTUAL_PROPERTY)) return;
+		if (isVirtualThreadSupported()) virtual = true;
+		else log.warn(VIRTUAL_PROPERTY + " is set, but this Java runtime " +
+			"does not support virtual threads; using platform threads");
 	}
 
 	// -- Disposable methods --
@@ -160,25 +411,27 @@ public final class DefaultThreadService extends AbstractService implements
 	@Override
 	public synchronized void dispose() {
 		disposed = true;
-		if (executor != null) {
-			executor.shutdown();
-			try {
-				executor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
-			}
-			catch (final InterruptedException exc) {
-				log.debug(exc);
-			}
-			executor = null;
+		if (reporter != null) {
+			reporter.shutdownNow();
+			reporter = null;
+		}
+		if (ownExecutor && executor != null) shutdown(executor);
+		executor = null;
+		if (cpuExecutor != null) {
+			shutdown(cpuExecutor);
+			cpuExecutor = null;
+		}
+		for (final ExecutorService pool : retired) {
+			shutdown(pool);
+		}
+		retired.clear();
+		if (forkJoinPool != null) {
+			shutdown(forkJoinPool);
+			forkJoinPool = null;
 		}
 		if (queues != null) {
 			for (final ExecutorService queue : queues.values()) {
-				queue.shutdown();
-				try {
-					queue.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
-				}
-				catch (final InterruptedException exc) {
-					log.debug(exc);
-				}
+				shutdown(queue);
 			}
 		}
 	}
@@ -187,8 +440,8 @@ public final class DefaultThreadService extends AbstractService implements
 
 	@Override
 	public Thread newThread(final Runnable r) {
-		final String threadName = contextThreadPrefix() + nextThread++;
-		final Thread thread = new Thread(r, threadName);
+		final Thread thread = //
+			new ServiceThread(r, nextThreadName(), context());
 		// NB: Use daemon threads for the thread pool, so that idling threads do
 		// not prevent the JVM shutdown sequence from starting. The application
 		// context, and therefore the thread service, will try to dispose itself
@@ -201,8 +454,15 @@ public final class DefaultThreadService extends AbstractService implements
 	// -- Helper methods --
 
 	private ExecutorService executor() {
-		if (executor == null) initExecutor();
-		return executor;
+		// NB: Read the field once, as it may be replaced concurrently.
+		final ExecutorService e = executor;
+		return e != null ? e : initExecutor();
+	}
+
+	private ExecutorService executor(final Workload workload) {
+		if (workload == Workload.IO) return executor();
+		final ExecutorService e = cpuExecutor;
+		return e != null ? e : initCPUExecutor();
 	}
 
 	private synchronized ExecutorService executor(final String id) {
@@ -211,50 +471,552 @@ public final class DefaultThreadService extends AbstractService implements
 		if (!queues.containsKey(id)) {
 			final ThreadFactory factory = r -> {
 				final String threadName = contextThreadPrefix() + id;
-				return new Thread(r, threadName);
+				return new ServiceThread(r, threadName, context());
 			};
-			final ExecutorService queue = Executors.newSingleThreadExecutor(factory);
+			final ExecutorService queue = new ServicePool(1, 1, 0,
+				new LinkedBlockingQueue<>(), factory,
+				new ThreadPoolExecutor.AbortPolicy());
 			queues.put(id, queue);
 		}
 		return queues.get(id);
 	}
 
-	private synchronized void initExecutor() {
-		if (executor != null) return;
-		executor = Executors.newCachedThreadPool(this);
+	private synchronized ExecutorService initExecutor() {
+		if (executor == null) {
+			checkDisposed();
+			executor = virtual ? newVirtualExecutor() : //
+				newExecutor(policies.get(Workload.IO));
+			ownExecutor = true;
+		}
+		return executor;
+	}
+
+	private synchronized ExecutorService initCPUExecutor() {
+		if (cpuExecutor == null) {
+			checkDisposed();
+			cpuExecutor = newExecutor(policies.get(Workload.CPU));
+		}
+		return cpuExecutor;
+	}
+
+	/** Fails if the service is disposed, rather than creating a stray pool. */
+	private void checkDisposed() {
+		if (disposed) {
+			throw new RejectedExecutionException("Thread service is disposed");
+		}
+	}
+
+	/**
+	 * Stops using the given pool, which this service created. Since callers may
+	 * still hold the pool and submit tasks to it, it is not shut down (until the
+	 * service is disposed); instead, all its threads expire once idle.
+	 */
+	private void retire(final ExecutorService pool) {
+		if (pool instanceof ThreadPoolExecutor) {
+			((ThreadPoolExecutor) pool).allowCoreThreadTimeOut(true);
+		}
+		// NB: Idle pools have no threads left to shut down.
+		retired.removeIf(p -> p instanceof ThreadPoolExecutor &&
+			((ThreadPoolExecutor) p).getPoolSize() == 0 &&
+			((ThreadPoolExecutor) p).getQueue().isEmpty());
+		retired.add(pool);
+	}
+
+	private synchronized ForkJoinPool initForkJoinPool() {
+		if (forkJoinPool != null) return forkJoinPool;
+		checkDisposed();
+		// NB: An unbounded CPU pool should not make the fork/join pool huge.
+		final int parallelism = Math.min(policies.get(Workload.CPU).getMaxSize(),
+			Runtime.getRuntime().availableProcessors() * 4);
+		forkJoinPool = new ForkJoinPool(parallelism, //
+			pool -> new ServiceWorkerThread(pool, nextThreadName(), context()), //
+			null, false);
+		return forkJoinPool;
+	}
+
+	/** Creates a pool of platform threads which follows the given policy. */
+	private ExecutorService newExecutor(final ThreadPoolPolicy policy) {
+		final int capacity = policy.getQueueCapacity();
+		final BlockingQueue<Runnable> queue = //
+			capacity == 0 ? new SynchronousQueue<>() : //
+				capacity == ThreadPoolPolicy.UNBOUNDED ? new LinkedBlockingQueue<>() : //
+					new ArrayBlockingQueue<>(capacity);
+		return new ServicePool(policy.getCoreSize(), policy.getMaxSize(),
+			KEEP_ALIVE_SECONDS, queue, this, rejectionHandler(policy
+				.getBackpressure()));
+	}
+
+	private static RejectedExecutionHandler rejectionHandler(
+		final Backpressure backpressure)
+	{
+		return (r, pool) -> {
+			// NB: Never discard a task silently; its future would never complete.
+			if (pool.isShutdown()) {
+				throw new RejectedExecutionException("Thread pool is shut down");
+			}
+			switch (backpressure) {
+				case CALLER_RUNS:
+					r.run();
+					break;
+				case BLOCK:
+					try {
+						pool.getQueue().put(r);
+					}
+					catch (final InterruptedException exc) {
+						Thread.currentThread().interrupt();
+						throw new RejectedExecutionException(exc);
+					}
+					break;
+				default:
+					throw new RejectedExecutionException("Thread pool is saturated: " +
+						pool);
+			}
+		};
+	}
+
+	/**
+	 * Applies the system properties configuring the pool for the given kind of
+	 * work, if any are set.
+	 */
+	private void initPolicy(final Workload workload) {
+		final String prefix = POOL_PROPERTY_PREFIX + poolName(workload) + ".";
+		final String core = System.getProperty(prefix + "core");
+		final String max = System.getProperty(prefix + "max");
+		final String queue = System.getProperty(prefix + "queue");
+		final String backpressure = System.getProperty(prefix + "backpressure");
+		if (core == null && max == null && queue == null && backpressure == null) {
+			return;
+		}
+		final ThreadPoolPolicy policy = getPoolPolicy(workload);
+		try {
+			setPoolPolicy(workload, new ThreadPoolPolicy( //
+				core == null ? policy.getCoreSize() : parseSize(core), //
+				max == null ? policy.getMaxSize() : parseSize(max), //
+				queue == null ? policy.getQueueCapacity() : parseSize(queue), //
+				backpressure == null ? policy.getBackpressure() : Backpressure.valueOf(
+					backpressure.trim().toUpperCase(Locale.ENGLISH))));
+		}
+		catch (final IllegalArgumentException exc) {
+			log.warn("Invalid " + prefix + "* thread pool configuration: " + //
+				exc.getMessage());
+		}
+	}
+
+	/** Parses a pool size or capacity, which may be {@code unbounded}. */
+	private static int parseSize(final String size) {
+		if (size.trim().equalsIgnoreCase("unbounded")) {
+			return ThreadPoolPolicy.UNBOUNDED;
+		}
+		return Integer.parseInt(size.trim());
 	}
 
-	private Runnable wrap(final Runnable r) {
-		final Thread parent = Thread.currentThread();
+	private void shutdown(final ExecutorService executorService) {
+		executorService.shutdown();
+		try {
+			executorService.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+		}
+		catch (final InterruptedException exc) {
+			log.debug(exc);
+		}
+	}
+
+	/** Creates an executor which starts a new virtual thread per task. */
+	private ExecutorService newVirtualExecutor() {
+		final ThreadFactory factory = r -> {
+			final Thread thread = VirtualThreads.FACTORY.newThread(r);
+			thread.setName(nextThreadName());
+			return thread;
+		};
+		try {
+			return (ExecutorService) VirtualThreads.NEW_EXECUTOR.invoke(null,
+				factory);
+		}
+		catch (final ReflectiveOperationException exc) {
+			throw new IllegalStateException(exc);
+		}
+	}
+
+	private String nextThreadName() {
+		return contextThreadPrefix() + nextThread.getAndIncrement();
+	}
+
+	/** Submits the given code to the named executor, recording metrics. */
+	private <V> Future<V> submit(final String name,
+		final ExecutorService executorService, final Callable<V> code)
+	{
+		final ThreadMetrics m = metrics;
+		final ThreadMetrics.Pool pool = m == null ? null : m.pool(name,
+			executorService);
+		final Callable<V> task = wrap(code, context(), pool);
+		if (pool == null) return executorService.submit(task);
+		return submit(executorService, new MeteredTask<>(task, pool));
+	}
+
+	/** Submits the given code to the named executor, recording metrics. */
+	private Future<?> submit(final String name,
+		final ExecutorService executorService, final Runnable code)
+	{
+		final ThreadMetrics m = metrics;
+		final ThreadMetrics.Pool pool = m == null ? null : m.pool(name,
+			executorService);
+		final Runnable task = wrap(code, context(), pool);
+		if (pool == null) return executorService.submit(task);
+		return submit(executorService, new MeteredTask<>(Executors.callable(task),
+			pool));
+	}
+
+	/** Submits the given task to the executor, recording it as waiting. */
+	private static <V> Future<V> submit(final ExecutorService executorService,
+		final MeteredTask<V> task)
+	{
+		task.pool.submitted();
+		try {
+			executorService.execute(task);
+		}
+		catch (final RejectedExecutionException exc) {
+			task.rejected();
+			throw exc;
+		}
+		return task;
+	}
+
+	/**
+	 * Wraps the given code so that, while it runs, its thread knows the calling
+	 * thread and the given context, and its timing is recorded in the given
+	 * pool statistics (if not null).
+	 */
+	private Runnable wrap(final Runnable r, final Context taskContext,
+		final ThreadMetrics.Pool pool)
+	{
+		final Lineage lineage = new Lineage(Thread.currentThread(), taskContext);
+		final long submitTime = pool == null ? 0 : System.nanoTime();
 		return () -> {
+			final long startTime = pool == null ? 0 : pool.started(submitTime);
 			final Thread thread = Thread.currentThread();
+			// NB: If the caller ran the code itself, there is no lineage to record.
+			final boolean spawned = thread != lineage.parent;
+			final Lineage previous = spawned ? enter(thread, lineage) : null;
 			try {
-				if (parent != thread) parents.put(thread, parent);
 				r.run();
 			}
 			finally {
-				if (parent != thread) parents.remove(thread);
+				if (spawned) exit(thread, previous);
+				if (pool != null) pool.completed(startTime);
 			}
 		};
 	}
 
-	private <V> Callable<V> wrap(final Callable<V> c) {
-		final Thread parent = Thread.currentThread();
+	/**
+	 * Wraps the given code so that, while it runs, its thread knows the calling
+	 * thread and the given context, and its timing is recorded in the given
+	 * pool statistics (if not null).
+	 */
+	private <V> Callable<V> wrap(final Callable<V> c, final Context taskContext,
+		final ThreadMetrics.Pool pool)
+	{
+		final Lineage lineage = new Lineage(Thread.currentThread(), taskContext);
+		final long submitTime = pool == null ? 0 : System.nanoTime();
 		return () -> {
+			final long startTime = pool == null ? 0 : pool.started(submitTime);
 			final Thread thread = Thread.currentThread();
+			// NB: If the caller ran the code itself, there is no lineage to record.
+			final boolean spawned = thread != lineage.parent;
+			final Lineage previous = spawned ? enter(thread, lineage) : null;
 			try {
-				if (parent != thread) parents.put(thread, parent);
 				return c.call();
 			}
 			finally {
-				if (parent != thread) parents.remove(thread);
+				if (spawned) exit(thread, previous);
+				if (pool != null) pool.completed(startTime);
 			}
 		};
 	}
 
+	private static String poolName(final Workload workload) {
+		return workload.name().toLowerCase(Locale.ENGLISH);
+	}
+
+	/** Gets the context of the calling thread, for code it hands over. */
+	private Context inheritedContext() {
+		return contextOf(Thread.currentThread());
+	}
+
+	private static Lineage enter(final Thread thread, final Lineage lineage) {
+		if (thread instanceof OwnedThread) {
+			final OwnedThread owned = (OwnedThread) thread;
+			final Lineage previous = owned.getLineage();
+			owned.setLineage(lineage);
+			return previous;
+		}
+		return lineages.put(thread, lineage);
+	}
+
+	private static void exit(final Thread thread, final Lineage previous) {
+		if (thread instanceof OwnedThread) {
+			((OwnedThread) thread).setLineage(previous);
+		}
+		else if (previous == null) lineages.remove(thread);
+		else lineages.put(thread, previous);
+	}
+
+	private static Lineage lineage(final Thread thread) {
+		if (thread instanceof OwnedThread) {
+			return ((OwnedThread) thread).getLineage();
+		}
+		return lineages.get(thread);
+	}
+
+	/**
+	 * Gets the context of the given thread: that of the thread service which
+	 * created it, or else that of the code it is running, if known.
+	 */
+	private static Context contextOf(final Thread thread) {
+		if (thread instanceof OwnedThread) {
+			return ((OwnedThread) thread).getOwner();
+		}
+		final Lineage lineage = lineages.get(thread);
+		return lineage == null ? null : lineage.context;
+	}
+
 	private String contextThreadPrefix() {
 		final String contextHash = Integer.toHexString(context().hashCode());
 		return SCIJAVA_THREAD_PREFIX + contextHash + "-Thread-";
 	}
 
+	// -- Helper classes --
+
+	/** A thread which belongs to the context of a thread service. */
+	private interface OwnedThread {
+
+		Context getOwner();
+
+		Lineage getLineage();
+
+		void setLineage(Lineage lineage);
+	}
+
+	/**
+	 * Where a task comes from: the thread which submitted it, and the context it
+	 * belongs to. The context is resolved when the task is submitted, so that
+	 * {@link #getThreadContext} need not walk up the chain of parents.
+	 */
+	private static class Lineage {
+
+		private final Thread parent;
+		private final Context context;
+
+		public Lineage(final Thread parent, final Context context) {
+			this.parent = parent;
+			this.context = context;
+		}
+	}
+
+	/**
+	 * A thread created by a thread service. It belongs to the service's context
+	 * for its whole life, and records the lineage of its current task directly,
+	 * rather than in the shared map.
+	 */
+	private static class ServiceThread extends Thread implements OwnedThread {
+
+		private final Context context;
+
+		/** Lineage of the running task; only written by the thread itself. */
+		private volatile Lineage lineage;
+
+		public ServiceThread(final Runnable r, final String name,
+			final Context context)
+		{
+			super(r, name);
+			this.context = context;
+		}
+
+		@Override
+		public Context getOwner() {
+			return context;
+		}
+
+		@Override
+		public Lineage getLineage() {
+			return lineage;
+		}
+
+		@Override
+		public void setLineage(final Lineage lineage) {
+			this.lineage = lineage;
+		}
+	}
+
+	/** A worker thread of the {@link #getForkJoinPool() fork/join pool}. */
+	private static class ServiceWorkerThread extends ForkJoinWorkerThread
+		implements OwnedThread
+	{
+
+		private final Context context;
+
+		/** Lineage of the running task; only written by the thread itself. */
+		private volatile Lineage lineage;
+
+		public ServiceWorkerThread(final ForkJoinPool pool, final String name,
+			final Context context)
+		{
+			super(pool);
+			setName(name);
+			this.context = context;
+		}
+
+		@Override
+		public Context getOwner() {
+			return context;
+		}
+
+		@Override
+		public Lineage getLineage() {
+			return lineage;
+		}
+
+		@Override
+		public void setLineage(final Lineage lineage) {
+			this.lineage = lineage;
+		}
+	}
+
+	/**
+	 * A pool of platform threads created by a thread service. Shutting it down
+	 * immediately cancels the tasks still waiting, so that their futures
+	 * complete and their metrics no longer count them as waiting.
+	 */
+	private static class ServicePool extends ThreadPoolExecutor {
+
+		public ServicePool(final int coreSize, final int maxSize,
+			final long keepAliveSeconds, final BlockingQueue<Runnable> queue,
+			final ThreadFactory factory, final RejectedExecutionHandler handler)
+		{
+			super(coreSize, maxSize, keepAliveSeconds, TimeUnit.SECONDS, queue,
+				factory, handler);
+		}
+
+		@Override
+		public List<Runnable> shutdownNow() {
+			final List<Runnable> dropped = super.shutdownNow();
+			for (final Runnable r : dropped) {
+				if (r instanceof Future) ((Future<?>) r).cancel(false);
+			}
+			return dropped;
+		}
+	}
+
+	/**
+	 * A task submitted to an executor whose metrics are recorded. It stops
+	 * waiting exactly once: when it starts, is canceled or is rejected.
+	 */
+	private static class MeteredTask<V> extends FutureTask<V> {
+
+		private final ThreadMetrics.Pool pool;
+		private final AtomicBoolean waiting = new AtomicBoolean(true);
+
+		public MeteredTask(final Callable<V> callable,
+			final ThreadMetrics.Pool pool)
+		{
+			super(callable);
+			this.pool = pool;
+		}
+
+		@Override
+		public void run() {
+			if (waiting.compareAndSet(true, false)) pool.dequeued();
+			super.run();
+		}
+
+		@Override
+		protected void done() {
+			// NB: Canceled before it started.
+			if (waiting.compareAndSet(true, false)) pool.dequeued();
+		}
+
+		private void rejected() {
+			if (waiting.compareAndSet(true, false)) pool.rejected();
+		}
+	}
+
+	/**
+	 * Runs the loop body over a range of indices, splitting the range in halves
+	 * down to a grain size. Each piece runs with the lineage of the code which
+	 * started the loop, and no piece starts once the loop has been canceled.
+	 */
+	private static class RangeTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int from, to, grain;
+		private final IntConsumer body;
+		private final Cancelable cancelable;
+		private final Lineage lineage;
+
+		public RangeTask(final int from, final int to, final int grain,
+			final IntConsumer body, final Cancelable cancelable,
+			final Lineage lineage)
+		{
+			this.from = from;
+			this.to = to;
+			this.grain = grain;
+			this.body = body;
+			this.cancelable = cancelable;
+			this.lineage = lineage;
+		}
+
+		@Override
+		protected void compute() {
+			if (cancelable != null && cancelable.isCanceled()) return;
+			if ((long) to - from <= grain) {
+				final Thread thread = Thread.currentThread();
+				final boolean spawned = thread != lineage.parent;
+				final Lineage previous = spawned ? enter(thread, lineage) : null;
+				try {
+					for (int i = from; i < to; i++) {
+						body.accept(i);
+					}
+				}
+				finally {
+					if (spawned) exit(thread, previous);
+				}
+				return;
+			}
+			final int mid = (int) (((long) from + to) / 2);
+			invokeAll(new RangeTask(from, mid, grain, body, cancelable, lineage),
+				new RangeTask(mid, to, grain, body, cancelable, lineage));
+		}
+	}
+
+	/**
+	 * Access to the virtual thread API of Java 21+, by reflection since this
+	 * library targets older Java versions. Initialized on first use.
+	 */
+	private static class VirtualThreads {
+
+		/** {@code Thread.ofVirtual().factory()}, or null if unsupported. */
+		private static final ThreadFactory FACTORY;
+
+		/** {@code Executors.newThreadPerTaskExecutor(ThreadFactory)}. */
+		private static final Method NEW_EXECUTOR;
+
+		static {
+			ThreadFactory factory = null;
+			Method newExecutor = null;
+			try {
+				final Object builder = Thread.class.getMethod("ofVirtual").invoke(
+					null);
+				factory = (ThreadFactory) Class.forName("java.lang.Thread$Builder")
+					.getMethod("factory").invoke(builder);
+				newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor",
+					ThreadFactory.class);
+			}
+			catch (final ReflectiveOperationException | RuntimeException exc) {
+				// NB: Virtual threads are unavailable (or a preview feature).
+				factory = null;
+			}
+			FACTORY = factory;
+			NEW_EXECUTOR = newExecutor;
+		}
+	}
+
 }
@@ -0,0 +1,328 @@
+/*
+ * #%L
+ * SciJava Common shared library for SciJava software.
+ * %%
+ * Copyright (C) 2009 - 2026 SciJava developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package org.scijava.thread;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Utilization and timing statistics of the executors of a thread service.
+ * <p>
+ * Records, per executor, how many tasks are running and waiting, how many
+ * were rejected, and histograms of how long tasks waited between submission
+ * and the start of their execution, and of how long they executed. Executors
+ * are named {@code io} and {@code cpu} for the pools of the corresponding
+ * {@link ThreadService.Workload}, and {@code queue:<id>} for the executors of
+ * {@link ThreadService#queue(String, Runnable)}.
+ * </p>
+ *
+ * @see DefaultThreadService#setMetricsEnabled(boolean)
+ */
+public class ThreadMetrics {
+
+	private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+
+	// -- ThreadMetrics methods --
+
+	/** Gets the statistics of the named executor, or null if it was not used. */
+	public Pool getPool(final String name) {
+		return pools.get(name);
+	}
+
+	/** Gets the statistics of all executors used so far, by name. */
+	public Map<String, Pool> getPools() {
+		return Collections.unmodifiableMap(new TreeMap<>(pools));
+	}
+
+	/**
+	 * Discards the timings and rejection counts recorded so far. The numbers of
+	 * running and waiting tasks are unaffected.
+	 */
+	public void reset() {
+		for (final Pool pool : pools.values()) {
+			pool.reset();
+		}
+	}
+
+	/** Gets a human-readable report of the statistics. */
+	public String report() {
+		final String nl = System.getProperty("line.separator");
+		final StringBuilder sb = new StringBuilder();
+		sb.append("-- Threads: executor utilization --" + nl);
+		sb.append(String.format("%8s %8s %8s %8s %10s  %s%n", "threads", "active",
+			"idle", "queued", "rejected", "executor"));
+		final Map<String, Pool> sorted = getPools();
+		for (final Pool pool : sorted.values()) {
+			sb.append(String.format("%8d %8d %8d %8d %10d  %s%n", pool
+				.getThreadCount(), pool.getActiveCount(), pool.getIdleCount(), pool
+					.getQueueDepth(), pool.getRejectedCount(), pool.getName()));
+		}
+		sb.append(nl + "-- Threads: task latency and execution time --" + nl);
+		sb.append(String.format("%10s %12s %12s %12s %12s %12s  %s%n", "tasks",
+			"wait (ms)", "wait p99", "run (ms)", "run p99", "run max", "executor"));
+		for (final Pool pool : sorted.values()) {
+			final Histogram latency = pool.getLatency();
+			final Histogram execution = pool.getExecutionTime();
+			sb.append(String.format("%10d %12.3f %12.3f %12.3f %12.3f %12.3f  %s%n",
+				execution.getCount(), latency.getMean() / 1e6, latency.getPercentile(
+					0.99) / 1e6, execution.getMean() / 1e6, execution.getPercentile(
+						0.99) / 1e6, execution.getMax() / 1e6, pool.getName()));
+		}
+		return sb.toString();
+	}
+
+	// -- Internal methods --
+
+	/** Gets the statistics of the named executor, creating them if needed. */
+	Pool pool(final String name, final ExecutorService executor) {
+		Pool pool = pools.get(name);
+		if (pool == null) pool = pools.computeIfAbsent(name, Pool::new);
+		// NB: The executor of a name changes when its pool policy does.
+		if (pool.executor != executor) pool.executor = executor;
+		return pool;
+	}
+
+	// -- Helper classes --
+
+	/** Statistics of one executor. */
+	public static class Pool {
+
+		private final String name;
+		private volatile ExecutorService executor;
+
+		private final LongAdder queued = new LongAdder();
+		private final LongAdder started = new LongAdder();
+		private final LongAdder completed = new LongAdder();
+		private final LongAdder rejected = new LongAdder();
+		private final Histogram latency = new Histogram();
+		private final Histogram executionTime = new Histogram();
+
+		private Pool(final String name) {
+			this.name = name;
+		}
+
+		/** Gets the name of the executor. */
+		public String getName() {
+			return name;
+		}
+
+		/** Gets the number of threads of the executor. */
+		public int getThreadCount() {
+			final ExecutorService e = executor;
+			if (e instanceof ThreadPoolExecutor) {
+				return ((ThreadPoolExecutor) e).getPoolSize();
+			}
+			// NB: Other executors, e.g. of virtual threads, use a thread per task.
+			return (int) getActiveCount();
+		}
+
+		/** Gets the number of tasks currently executing. */
+		public long getActiveCount() {
+			return Math.max(0, started.sum() - completed.sum());
+		}
+
+		/** Gets the number of threads waiting for a task. */
+		public long getIdleCount() {
+			return Math.max(0, getThreadCount() - getActiveCount());
+		}
+
+		/** Gets the number of tasks waiting for a thread. */
+		public long getQueueDepth() {
+			return Math.max(0, queued.sum());
+		}
+
+		/** Gets the number of tasks the executor refused to accept. */
+		public long getRejectedCount() {
+			return rejected.sum();
+		}
+
+		/** Gets the times tasks waited between submission and execution. */
+		public Histogram getLatency() {
+			return latency;
+		}
+
+		/** Gets the times tasks took to execute. */
+		public Histogram getExecutionTime() {
+			return executionTime;
+		}
+
+		/** Records the submission of a task, which then waits for a thread. */
+		void submitted() {
+			queued.increment();
+		}
+
+		/**
+		 * Records that a submitted task stopped waiting for a thread, because it
+		 * started or was cancelled. Must be called at most once per task.
+		 */
+		void dequeued() {
+			queued.decrement();
+		}
+
+		/** Records that the executor refused a submitted task. */
+		void rejected() {
+			queued.decrement();
+			rejected.increment();
+		}
+
+		/**
+		 * Records the start of a task's execution.
+		 *
+		 * @param submitTime the {@link System#nanoTime()} of the submission
+		 * @return the {@link System#nanoTime()} of the start
+		 */
+		long started(final long submitTime) {
+			final long now = System.nanoTime();
+			started.increment();
+			latency.add(now - submitTime);
+			return now;
+		}
+
+		/**
+		 * Records the end of a task's execution.
+		 *
+		 * @param startTime the value returned by {@link #started}
+		 */
+		void completed(final long startTime) {
+			executionTime.add(System.nanoTime() - startTime);
+			completed.increment();
+		}
+
+		private void reset() {
+			rejected.reset();
+			latency.reset();
+			executionTime.reset();
+		}
+	}
+
+	/**
+	 * Distribution of durations, in buckets of powers of two nanoseconds. Bucket
+	 * {@code i} counts the durations of at least 2<sup>i</sup> and less than
+	 * 2<sup>i+1</sup> ns; bucket 0 also counts durations of 0 ns.
+	 */
+	public static class Histogram {
+
+		private static final int BUCKETS = 64;
+
+		private final LongAdder[] buckets = new LongAdder[BUCKETS];
+		private final LongAdder total = new LongAdder();
+		private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+		private Histogram() {
+			for (int i = 0; i < BUCKETS; i++) {
+				buckets[i] = new LongAdder();
+			}
+		}
+
+		/** Gets the number of recorded durations. */
+		public long getCount() {
+			long count = 0;
+			for (final LongAdder bucket : buckets) {
+				count += bucket.sum();
+			}
+			return count;
+		}
+
+		/** Gets the sum of all recorded durations, in nanoseconds. */
+		public long getTotal() {
+			return total.sum();
+		}
+
+		/** Gets the longest recorded duration, in nanoseconds. */
+		public long getMax() {
+			return max.get();
+		}
+
+		/** Gets the mean recorded duration, in nanoseconds. */
+		public double getMean() {
+			final long n = getCount();
+			return n == 0 ? 0 : (double) getTotal() / n;
+		}
+
+		/** Gets the number of recorded durations in each bucket. */
+		public long[] getBuckets() {
+			final long[] counts = new long[BUCKETS];
+			for (int i = 0; i < BUCKETS; i++) {
+				counts[i] = buckets[i].sum();
+			}
+			return counts;
+		}
+
+		/**
+		 * Estimates a percentile of the recorded durations, as the upper bound of
+		 * the bucket containing it (but at most the maximum).
+		 *
+		 * @param p the percentile, between 0 and 1 (e.g. 0.99)
+		 * @return the estimate in nanoseconds, or 0 if nothing was recorded
+		 */
+		public long getPercentile(final double p) {
+			final long[] counts = getBuckets();
+			long n = 0;
+			for (final long count : counts) {
+				n += count;
+			}
+			if (n == 0) return 0;
+			final long rank = Math.max(1, (long) Math.ceil(p * n));
+			long seen = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				seen += counts[i];
+				if (seen >= rank) {
+					final long bound = i >= 62 ? Long.MAX_VALUE : (2L << i) - 1;
+					return Math.min(bound, getMax());
+				}
+			}
+			return getMax();
+		}
+
+		private void add(final long nanos) {
+			final long value = Math.max(0, nanos);
+			buckets[value == 0 ? 0 : 63 - Long.numberOfLeadingZeros(value)]
+				.increment();
+			total.add(value);
+			max.accumulate(value);
+		}
+
+		private void reset() {
+			for (final LongAdder bucket : buckets) {
+				bucket.reset();
+			}
+			total.reset();
+			max.reset();
+		}
+	}
+
+}
@@ -0,0 +1,166 @@
+/*
+ * #%L
+ * SciJava Common shared library for SciJava software.
+ * %%
+ * Copyright (C) 2009 - 2026 SciJava developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package org.scijava.thread;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Sizing and backpressure settings of a {@link ThreadService} thread pool.
+ * <p>
+ * A pool keeps up to {@link #getCoreSize()} threads alive. Further tasks wait
+ * in a queue of up to {@link #getQueueCapacity()} tasks; once it is full, the
+ * pool grows to at most {@link #getMaxSize()} threads. Tasks submitted beyond
+ * that are handled according to the {@link #getBackpressure() backpressure}
+ * setting.
+ * </p>
+ *
+ * @see ThreadService#setPoolPolicy(ThreadService.Workload, ThreadPoolPolicy)
+ */
+public final class ThreadPoolPolicy {
+
+	/** Size or capacity meaning "no limit". */
+	public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+	/** What to do with tasks submitted to a saturated pool. */
+	public enum Backpressure {
+		/** Rejects the task with a {@link RejectedExecutionException}. */
+		ABORT,
+
+		/** Runs the task in the submitting thread. */
+		CALLER_RUNS,
+
+		/** Blocks the submitting thread until the queue has room for the task. */
+		BLOCK
+	}
+
+	private final int coreSize;
+	private final int maxSize;
+	private final int queueCapacity;
+	private final Backpressure backpressure;
+
+	public ThreadPoolPolicy(final int coreSize, final int maxSize,
+		final int queueCapacity, final Backpressure backpressure)
+	{
+		if (coreSize < 0 || maxSize < 1 || maxSize < coreSize) {
+			throw new IllegalArgumentException("Invalid pool size: core=" +
+				coreSize + ", max=" + maxSize);
+		}
+		if (queueCapacity < 0) {
+			throw new IllegalArgumentException("Invalid queue capacity: " +
+				queueCapacity);
+		}
+		if (queueCapacity == UNBOUNDED && coreSize == 0) {
+			// NB: The pool only grows beyond its core size when the queue is full.
+			throw new IllegalArgumentException(
+				"An unbounded queue needs at least one core thread");
+		}
+		if (backpressure == null) {
+			throw new IllegalArgumentException("Null backpressure");
+		}
+		this.coreSize = coreSize;
+		this.maxSize = maxSize;
+		this.queueCapacity = queueCapacity;
+		this.backpressure = backpressure;
+	}
+
+	// -- ThreadPoolPolicy methods --
+
+	/**
+	 * Gets a policy with no thread limit, which starts a thread whenever no idle
+	 * one is available. This is the classic behavior of
+	 * {@link ThreadService#run}.
+	 */
+	public static ThreadPoolPolicy unbounded() {
+		return new ThreadPoolPolicy(0, UNBOUNDED, 0, Backpressure.ABORT);
+	}
+
+	/**
+	 * Gets a policy with the given number of threads, whose tasks wait in an
+	 * unbounded queue.
+	 */
+	public static ThreadPoolPolicy fixed(final int threads) {
+		return new ThreadPoolPolicy(threads, threads, UNBOUNDED,
+			Backpressure.ABORT);
+	}
+
+	/** Gets the number of threads kept alive, even when idle. */
+	public int getCoreSize() {
+		return coreSize;
+	}
+
+	/** Gets the maximum number of threads. */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Gets the maximum number of tasks waiting for a thread, or
+	 * {@link #UNBOUNDED}. With a capacity of 0, tasks are handed directly to a
+	 * thread.
+	 */
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	/** Gets what happens to tasks submitted to a saturated pool. */
+	public Backpressure getBackpressure() {
+		return backpressure;
+	}
+
+	// -- Object methods --
+
+	@Override
+	public boolean equals(final Object o) {
+		if (!(o instanceof ThreadPoolPolicy)) return false;
+		final ThreadPoolPolicy that = (ThreadPoolPolicy) o;
+		return coreSize == that.coreSize && maxSize == that.maxSize &&
+			queueCapacity == that.queueCapacity && backpressure == that.backpressure;
+	}
+
+	@Override
+	public int hashCode() {
+		return ((coreSize * 31 + maxSize) * 31 + queueCapacity) * 31 +
+			backpressure.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return "core=" + coreSize + ", max=" + size(maxSize) + ", queue=" +
+			size(queueCapacity) + ", backpressure=" + backpressure;
+	}
+
+	// -- Helper methods --
+
+	private static String size(final int size) {
+		return size == UNBOUNDED ? "unbounded" : String.valueOf(size);
+	}
+
+}
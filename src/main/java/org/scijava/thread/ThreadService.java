@@ -30,11 +30,21 @@
 package org.scijava.thread;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
+import org.scijava.Cancelable;
 import org.scijava.Context;
 import org.scijava.service.SciJavaService;
 
@@ -65,6 +75,21 @@ public interface ThreadService extends SciJavaService, ThreadFactory {
 		NONE
 	}
 
+	/** The kinds of work which are run in separate thread pools. */
+	public enum Workload {
+		/**
+		 * Work which keeps a processor busy, and therefore gains nothing from
+		 * running in more threads than there are processors.
+		 */
+		CPU,
+
+		/**
+		 * Work which spends much of its time waiting, e.g. for I/O. This is the
+		 * pool used by {@link ThreadService#run(Callable)}.
+		 */
+		IO
+	}
+
 	/**
 	 * Asynchronously executes the given code in a new thread, as decided by the
 	 * thread service. Typically this means that the service allocates a thread
@@ -90,6 +115,59 @@ public interface ThreadService extends SciJavaService, ThreadFactory {
 	 */
 	Future<?> run(Runnable code);
 
+	/**
+	 * Asynchronously executes the given code in a thread of the pool for the
+	 * given kind of work. This method returns immediately, unless the pool is
+	 * saturated and its {@link ThreadPoolPolicy} says otherwise.
+	 *
+	 * @param code The code to execute.
+	 * @param workload The kind of work the code does.
+	 * @return A {@link Future} that will contain the result once the execution
+	 *         has finished.
+	 */
+	default <V> Future<V> run(final Callable<V> code, final Workload workload) {
+		return run(code);
+	}
+
+	/**
+	 * Asynchronously executes the given code in a thread of the pool for the
+	 * given kind of work. This method returns immediately, unless the pool is
+	 * saturated and its {@link ThreadPoolPolicy} says otherwise.
+	 *
+	 * @param code The code to execute.
+	 * @param workload The kind of work the code does.
+	 * @return A {@link Future} that can be used to block until the execution has
+	 *         finished.
+	 */
+	default Future<?> run(final Runnable code, final Workload workload) {
+		return run(code);
+	}
+
+	/**
+	 * Sets the sizing and backpressure policy of the pool for the given kind of
+	 * work. Tasks already submitted are unaffected: the previous pool completes
+	 * them, and lets its threads expire once idle.
+	 *
+	 * @throws UnsupportedOperationException if this {@link ThreadService} does
+	 *           not have configurable thread pools.
+	 */
+	default void setPoolPolicy(final Workload workload,
+		final ThreadPoolPolicy policy)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Gets the sizing and backpressure policy of the pool for the given kind of
+	 * work.
+	 *
+	 * @return The policy, or null if this {@link ThreadService} does not have
+	 *         configurable thread pools.
+	 */
+	default ThreadPoolPolicy getPoolPolicy(final Workload workload) {
+		return null;
+	}
+
 	/**
 	 * Gets the {@link ExecutorService} object used when {@link #run} is called.
 	 * 
@@ -205,4 +283,126 @@ public interface ThreadService extends SciJavaService, ThreadFactory {
 	 */
 	ThreadContext getThreadContext(Thread thread);
 
+	/**
+	 * Sets whether {@link #run(Callable)} and {@link #run(Runnable)} execute
+	 * code in a new virtual thread per task, rather than in a pool of platform
+	 * threads. Virtual threads are cheap to create and block, so this suits
+	 * large numbers of concurrent, mostly I/O-bound tasks.
+	 * <p>
+	 * Code already running is unaffected: the executor previously used by
+	 * {@link #run} completes its pending tasks, and lets its threads expire once
+	 * idle. An executor installed via {@link #setExecutorService} is not
+	 * replaced.
+	 * </p>
+	 *
+	 * @param virtual Whether to run code in virtual threads.
+	 * @throws UnsupportedOperationException if the thread service or the Java
+	 *           runtime does not support virtual threads.
+	 */
+	default void setVirtualThreads(final boolean virtual) {
+		if (virtual) {
+			throw new UnsupportedOperationException(
+				"Virtual threads are not supported");
+		}
+	}
+
+	/**
+	 * Gets whether {@link #run(Callable)} and {@link #run(Runnable)} execute
+	 * code in virtual threads.
+	 *
+	 * @see #setVirtualThreads(boolean)
+	 */
+	default boolean isVirtualThreads() {
+		return false;
+	}
+
+	/**
+	 * Gets the {@link ForkJoinPool} for data-parallel work in this context.
+	 * Code which would otherwise create its own pool should use this one, so
+	 * that concurrent computations share the processors rather than
+	 * oversubscribing them.
+	 */
+	default ForkJoinPool getForkJoinPool() {
+		return ForkJoinPool.commonPool();
+	}
+
+	/**
+	 * Executes the given loop body for each index of a range in parallel, using
+	 * the {@link #getForkJoinPool() fork/join pool}, and waits for completion.
+	 *
+	 * @param from The first index, inclusive.
+	 * @param to The last index, exclusive.
+	 * @param body The code to execute for each index.
+	 */
+	default void parallelFor(final int from, final int to,
+		final IntConsumer body)
+	{
+		parallelFor(from, to, body, null);
+	}
+
+	/**
+	 * Executes the given loop body for each index of a range in parallel, using
+	 * the {@link #getForkJoinPool() fork/join pool}, and waits for completion.
+	 * The loop stops early if the given operation is canceled.
+	 *
+	 * @param from The first index, inclusive.
+	 * @param to The last index, exclusive.
+	 * @param body The code to execute for each index.
+	 * @param cancelable The operation whose cancelation stops the loop, or
+	 *          null.
+	 * @throws CancellationException if the operation was canceled, in which
+	 *           case some indices were not processed.
+	 */
+	default void parallelFor(final int from, final int to,
+		final IntConsumer body, final Cancelable cancelable)
+	{
+		// NB: A parallel stream runs in the pool of the task which starts it.
+		getForkJoinPool().submit(() -> IntStream.range(from, to).parallel()
+			.forEach(i -> {
+				if (cancelable != null && cancelable.isCanceled()) return;
+				body.accept(i);
+			})).join();
+		if (cancelable != null && cancelable.isCanceled()) {
+			throw new CancellationException(cancelable.getCancelReason());
+		}
+	}
+
+	/**
+	 * Applies the given function to each item of a collection in parallel,
+	 * using the {@link #getForkJoinPool() fork/join pool}.
+	 *
+	 * @param items The items to map.
+	 * @param function The function to apply.
+	 * @return The results, in the iteration order of the items.
+	 */
+	default <T, R> List<R> parallelMap(final Collection<? extends T> items,
+		final Function<? super T, ? extends R> function)
+	{
+		return parallelMap(items, function, null);
+	}
+
+	/**
+	 * Applies the given function to each item of a collection in parallel,
+	 * using the {@link #getForkJoinPool() fork/join pool}. The mapping stops
+	 * early if the given operation is canceled.
+	 *
+	 * @param items The items to map.
+	 * @param function The function to apply.
+	 * @param cancelable The operation whose cancelation stops the mapping, or
+	 *          null.
+	 * @return The results, in the iteration order of the items.
+	 * @throws CancellationException if the operation was canceled.
+	 */
+	default <T, R> List<R> parallelMap(final Collection<? extends T> items,
+		final Function<? super T, ? extends R> function,
+		final Cancelable cancelable)
+	{
+		final List<? extends T> list = new ArrayList<>(items);
+		@SuppressWarnings("unchecked")
+		final R[] results = (R[]) new Object[list.size()];
+		parallelFor(0, results.length, i -> results[i] = function.apply(list.get(
+			i)), cancelable);
+		return Arrays.asList(results);
+	}
+
 }
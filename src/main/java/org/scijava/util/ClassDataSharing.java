@@ -0,0 +1,222 @@
+/*
+ * #%L
+ * SciJava Common shared library for SciJava software.
+ * %%
+ * Copyright (C) 2009 - 2026 SciJava developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package org.scijava.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.scijava.Context;
+import org.scijava.plugin.PluginIndex;
+import org.scijava.plugin.PluginInfo;
+
+/**
+ * Generates class lists and archives for the JDK's (application) class data
+ * sharing, to speed up the cold start of short-lived JVMs which create a
+ * SciJava {@link Context}.
+ * <p>
+ * The class list is recorded by a child JVM (using
+ * {@code -XX:DumpLoadedClassList}) which creates a context and loads all
+ * discovered plugin classes. The archive is then dumped from that list (using
+ * {@code -Xshare:dump}) and accompanied by a {@code .fingerprint} file
+ * recording the {@link PluginIndex#fingerprint() plugin index fingerprint}, so
+ * that stale archives can be detected once plugins are added or removed.
+ * Archives are used by launching with {@code -XX:SharedArchiveFile=...} and
+ * the same class path. Application class data sharing requires Java 10 or
+ * later, and a class path consisting of JAR files only.
+ * </p>
+ * <p>
+ * Usage:
+ * </p>
+ * 
+ * <pre>
+ * java -cp ... org.scijava.util.ClassDataSharing classlist app.classlist
+ * java -cp ... org.scijava.util.ClassDataSharing archive app.jsa
+ * java -cp ... org.scijava.util.ClassDataSharing check app.jsa
+ * </pre>
+ */
+public final class ClassDataSharing {
+
+	/** Suffix of the file recording the fingerprint of an archive. */
+	public static final String FINGERPRINT_SUFFIX = ".fingerprint";
+
+	private ClassDataSharing() {
+		// NB: Prevent instantiation of utility class.
+	}
+
+	// -- ClassDataSharing methods --
+
+	/**
+	 * Performs a typical startup: creates a context with all available
+	 * services, and loads the classes of all discovered plugins.
+	 */
+	public static void exercise() {
+		final Context context = new Context();
+		try {
+			for (final PluginInfo<?> info : context.getPluginIndex().getAll()) {
+				try {
+					info.loadClass();
+				}
+				catch (final Throwable t) {
+					// NB: Invalid plugins are not worth archiving.
+				}
+			}
+		}
+		finally {
+			context.dispose();
+		}
+	}
+
+	/**
+	 * Records the classes loaded during a typical startup (see
+	 * {@link #exercise()}) in a child JVM, writing them to the given class list.
+	 * 
+	 * @param classList The class list file to write.
+	 * @param classPath The class path of the child JVM.
+	 */
+	public static void writeClassList(final File classList,
+		final String classPath)
+	{
+		java(classPath, "-XX:DumpLoadedClassList=" + classList.getAbsolutePath(),
+			ClassDataSharing.class.getName(), "exercise");
+	}
+
+	/**
+	 * Dumps a class data sharing archive for the given class list, and records
+	 * the fingerprint of the given plugin index alongside it.
+	 * 
+	 * @param classList The class list to archive (see
+	 *          {@link #writeClassList(File, String)}).
+	 * @param archive The archive file to write.
+	 * @param classPath The class path, which must match the one used at runtime.
+	 * @param pluginIndex The plugin index the archive corresponds to.
+	 */
+	public static void writeArchive(final File classList, final File archive,
+		final String classPath, final PluginIndex pluginIndex) throws IOException
+	{
+		java(classPath, "-Xshare:dump", "-XX:SharedClassListFile=" + classList
+			.getAbsolutePath(), "-XX:SharedArchiveFile=" + archive
+				.getAbsolutePath());
+		writeFingerprint(archive, pluginIndex);
+	}
+
+	/** Records the fingerprint of the given plugin index for an archive. */
+	public static void writeFingerprint(final File archive,
+		final PluginIndex pluginIndex) throws IOException
+	{
+		Files.write(fingerprintFile(archive).toPath(), pluginIndex.fingerprint()
+			.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Checks whether the given archive exists and was created for the plugins of
+	 * the given index.
+	 */
+	public static boolean isUpToDate(final File archive,
+		final PluginIndex pluginIndex) throws IOException
+	{
+		final File fingerprint = fingerprintFile(archive);
+		if (!archive.exists() || !fingerprint.exists()) return false;
+		final String recorded = new String(Files.readAllBytes(fingerprint
+			.toPath()), StandardCharsets.UTF_8).trim();
+		return recorded.equals(pluginIndex.fingerprint());
+	}
+
+	/** Gets the file recording the fingerprint of the given archive. */
+	public static File fingerprintFile(final File archive) {
+		return new File(archive.getPath() + FINGERPRINT_SUFFIX);
+	}
+
+	// -- Main method --
+
+	public static void main(final String... args) throws IOException {
+		final String command = args.length > 0 ? args[0] : "";
+		final String classPath = System.getProperty("java.class.path");
+		switch (command) {
+			case "exercise":
+				exercise();
+				return;
+			case "classlist":
+				if (args.length != 2) break;
+				writeClassList(new File(args[1]), classPath);
+				return;
+			case "archive":
+				if (args.length < 2 || args.length > 3) break;
+				final File archive = new File(args[1]);
+				final File classList = args.length > 2 ? new File(args[2]) : File
+					.createTempFile("scijava-", ".classlist");
+				if (args.length == 2) {
+					classList.deleteOnExit();
+					writeClassList(classList, classPath);
+				}
+				writeArchive(classList, archive, classPath, discover());
+				return;
+			case "check":
+				if (args.length != 2) break;
+				final boolean upToDate = isUpToDate(new File(args[1]), discover());
+				System.out.println(args[1] + (upToDate ? " is up to date"
+					: " does not match the current plugins"));
+				System.exit(upToDate ? 0 : 1);
+				return;
+		}
+		System.err.println("Usage: " + ClassDataSharing.class.getName() +
+			" (classlist <file> | archive <file.jsa> [<classlist>] |" +
+			" check <file.jsa>)");
+		System.exit(2);
+	}
+
+	// -- Helper methods --
+
+	private static PluginIndex discover() {
+		final PluginIndex pluginIndex = new PluginIndex();
+		pluginIndex.discover();
+		return pluginIndex;
+	}
+
+	/** Runs a child JVM of the current Java installation. */
+	private static void java(final String classPath, final String... args) {
+		final String exe = PlatformUtils.isWindows() ? "java.exe" : "java";
+		final File java = new File(new File(System.getProperty("java.home"),
+			"bin"), exe);
+		final List<String> command = new ArrayList<>();
+		command.add(java.getAbsolutePath());
+		command.add("-cp");
+		command.add(classPath);
+		command.addAll(Arrays.asList(args));
+		ProcessUtils.exec(null, System.err, System.out, command.toArray(
+			new String[command.size()]));
+	}
+
+}
@@ -224,6 +224,24 @@ public class ContextInjectionTest {
 		assertTrue(hasEvents.eventReceived);
 	}
 
+	/**
+	 * Tests that repeated injection of the same class (which reuses the cached
+	 * injection plan) populates inherited and nested parameters every time.
+	 */
+	@Test
+	public void testRepeatedInjection() {
+		context = new Context(FooService.class);
+		final FooService fooService = context.getService(FooService.class);
+
+		for (int i = 0; i < 3; i++) {
+			final NeedsFooAndMore needsFoo = new NeedsFooAndMore();
+			context.inject(needsFoo);
+			assertSame(fooService, needsFoo.getFooService());
+			assertSame(context, needsFoo.nested.context);
+			assertEquals(7, needsFoo.number);
+		}
+	}
+
 	// -- Helper classes --
 
 	/** A simple service with no dependencies. */
@@ -253,6 +271,24 @@ public class ContextInjectionTest {
 
 	}
 
+	/**
+	 * An object that inherits a {@link FooService} parameter, and has other
+	 * parameters which should be left alone or recursively injected.
+	 */
+	public static class NeedsFooAndMore extends NeedsFooPlain {
+
+		@Parameter
+		private int number = 7;
+
+		@Parameter
+		private final NeedsContext nested = new NeedsContext();
+
+		public FooService getFooService() {
+			return ((NeedsFooPlain) this).fooService;
+		}
+
+	}
+
 	/**
 	 * An object that needs a {@link Context} but does not implement
 	 * {@link Contextual}.
@@ -0,0 +1,166 @@
+/*
+ * #%L
+ * SciJava Common shared library for SciJava software.
+ * %%
+ * Copyright (C) 2009 - 2026 SciJava developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package org.scijava;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+import org.scijava.ContextProfiler.Phase;
+import org.scijava.thread.ThreadService;
+
+/**
+ * Tests {@link ContextProfiler}.
+ */
+public class ContextProfilerTest {
+
+	@After
+	public void tearDown() {
+		System.clearProperty(ContextProfiler.PROFILE_PROPERTY);
+		System.clearProperty(ContextProfiler.TRACE_PROPERTY);
+	}
+
+	/** Tests that profiling is off unless requested. */
+	@Test
+	public void testDisabledByDefault() {
+		final Context context = new Context(ThreadService.class);
+		assertNull(context.getProfiler());
+		context.dispose();
+	}
+
+	/** Tests that nested phases are timed, and self time is separated out. */
+	@Test
+	public void testNestedPhases() throws InterruptedException {
+		final ContextProfiler profiler = new ContextProfiler();
+		final Phase outer = profiler.begin("outer", "a");
+		final Phase inner = profiler.begin("inner", "b");
+		Thread.sleep(5);
+		profiler.end(inner);
+		profiler.end(outer);
+
+		final List<Phase> phases = profiler.getPhases();
+		assertEquals(2, phases.size());
+		assertEquals("inner", phases.get(0).getCategory());
+		assertEquals("b", phases.get(0).getName());
+		assertEquals("outer", phases.get(1).getCategory());
+		final long innerTime = phases.get(0).getDuration();
+		final long outerTime = phases.get(1).getDuration();
+		assertTrue(innerTime >= 5000000);
+		assertTrue(outerTime >= innerTime);
+		assertEquals(outerTime - innerTime, phases.get(1).getSelfDuration());
+	}
+
+	/** Tests that ending a phase also ends any phases left open within it. */
+	@Test
+	public void testUnbalancedPhases() {
+		final ContextProfiler profiler = new ContextProfiler();
+		final Phase outer = profiler.begin("outer", "a");
+		profiler.begin("inner", "b");
+		profiler.end(outer);
+		assertEquals(2, profiler.getPhases().size());
+
+		// NB: Ending an already ended phase does nothing.
+		profiler.end(outer);
+		assertEquals(2, profiler.getPhases().size());
+	}
+
+	/** Tests the Chrome trace output. */
+	@Test
+	public void testTrace() throws IOException {
+		final ContextProfiler profiler = new ContextProfiler();
+		profiler.end(profiler.begin("service", "org.\"quoted\".Service"));
+		final StringWriter out = new StringWriter();
+		profiler.writeTrace(out);
+		final String trace = out.toString();
+		assertTrue(trace.startsWith("{\"traceEvents\":["));
+		assertTrue(trace.contains("\"name\":\"org.\\\"quoted\\\".Service\""));
+		assertTrue(trace.contains("\"cat\":\"service\""));
+		assertTrue(trace.contains("\"ph\":\"X\""));
+	}
+
+	/** Tests that context creation is profiled when requested. */
+	@Test
+	public void testContextCreation() throws IOException {
+		final File traceFile = File.createTempFile("trace", ".json");
+		traceFile.deleteOnExit();
+		System.setProperty(ContextProfiler.TRACE_PROPERTY, //
+			traceFile.getAbsolutePath());
+		final Context context = new Context(ThreadService.class);
+		System.clearProperty(ContextProfiler.TRACE_PROPERTY);
+
+		final String trace = new String(Files.readAllBytes(traceFile.toPath()),
+			StandardCharsets.UTF_8);
+		assertTrue(trace.contains("\"name\":\"service loading\""));
+
+		final ContextProfiler profiler = context.getProfiler();
+		assertNotNull(profiler);
+		assertNull(ContextProfiler.active());
+
+		boolean discovery = false, initialize = false;
+		for (final Phase phase : profiler.getPhases()) {
+			if ("PluginInfo creation".equals(phase.getName())) discovery = true;
+			if ("initialize".equals(phase.getCategory()) && //
+				phase.getName().endsWith("DefaultThreadService")) initialize = true;
+		}
+		assertTrue(discovery);
+		assertTrue(initialize);
+		assertTrue(profiler.report().contains("service: "));
+		context.dispose();
+	}
+
+	/** Tests that a nested context restores the outer context's profiler. */
+	@Test
+	public void testNestedContexts() {
+		System.setProperty(ContextProfiler.PROFILE_PROPERTY, "true");
+		final ContextProfiler outer = new ContextProfiler();
+		outer.activate();
+		try {
+			final Context context = new Context(ThreadService.class);
+			assertNotNull(context.getProfiler());
+			assertSame(outer, ContextProfiler.active());
+			context.dispose();
+		}
+		finally {
+			outer.finish();
+		}
+		assertNull(ContextProfiler.active());
+	}
+}
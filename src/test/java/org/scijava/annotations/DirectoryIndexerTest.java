@@ -32,6 +32,7 @@ package org.scijava.annotations;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assume.assumeTrue;
 
@@ -123,6 +124,23 @@ public class DirectoryIndexerTest {
 		assertEquals(3, seen.size());
 	}
 
+	@Test
+	public void testSupertypes() {
+		final ClassLoader loader = getClass().getClassLoader();
+		final List<String> supertypes = new DirectoryIndexer().getSupertypes(
+			DirectoryIndexer.class.getName(), loader);
+		assertEquals(Collections.singletonList(AbstractIndexWriter.class
+			.getName()), supertypes);
+
+		// NB: Unknown supertypes are not mistaken for none at all.
+		assertNull(new DirectoryIndexer().getSupertypes("no.such.Class", loader));
+
+		for (final IndexItem<Simple> item : Index.load(Simple.class, loader)) {
+			if (item.supertypes() == null) continue; // index of an older writer
+			assertFalse(item.supertypes().contains(Object.class.getName()));
+		}
+	}
+
 	public static void
 		testDefaultAnnotations(Map<String, IndexItem<Complex>> map)
 	{
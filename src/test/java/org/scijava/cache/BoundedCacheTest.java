@@ -0,0 +1,357 @@
+/*
+ * #%L
+ * SciJava Common shared library for SciJava software.
+ * %%
+ * Copyright (C) 2009 - 2026 SciJava developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package org.scijava.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.scijava.Context;
+import org.scijava.cache.BoundedCache.Policy;
+
+/**
+ * Tests {@link BoundedCache} and {@link DefaultCacheService}.
+ */
+public class BoundedCacheTest {
+
+	@Test
+	public void testLRU() {
+		final BoundedCache cache = new BoundedCache(3, Policy.LRU);
+		cache.put("a", 1);
+		cache.put("b", 2);
+		cache.put("c", 3);
+		assertEquals(1, cache.get("a"));
+		cache.put("d", 4);
+		// "b" was the least recently used
+		assertNull(cache.get("b"));
+		assertEquals(1, cache.get("a"));
+		assertEquals(3, cache.get("c"));
+		assertEquals(4, cache.get("d"));
+		assertEquals(3, cache.size());
+		assertEquals(1, cache.getStats().getEvictionCount());
+		assertEquals(4, cache.getStats().getHitCount());
+		assertEquals(1, cache.getStats().getMissCount());
+
+		cache.put("a", null);
+		assertNull(cache.get("a"));
+		assertEquals(2, cache.size());
+		cache.put(null, "nothing");
+		assertEquals("nothing", cache.get(null));
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getWeight());
+	}
+
+	@Test
+	public void testWeigher() {
+		final BoundedCache cache = new BoundedCache(10, Policy.LRU);
+		cache.setWeigher((key, value) -> ((String) value).length());
+		cache.put(1, "aaaa");
+		cache.put(2, "bbbb");
+		assertEquals(8, cache.getWeight());
+		cache.put(3, "cccc");
+		assertNull(cache.get(1));
+		assertEquals(8, cache.getWeight());
+
+		// entries heavier than the whole cache are not kept
+		cache.put(4, "too heavy to cache");
+		assertNull(cache.get(4));
+		assertEquals(8, cache.getWeight());
+
+		cache.setMaximumWeight(4);
+		assertEquals(1, cache.size());
+		assertEquals("cccc", cache.get(3));
+	}
+
+	@Test
+	public void testTinyLFU() {
+		final int size = 100;
+		final BoundedCache cache = new BoundedCache(size, Policy.TINY_LFU);
+		// make a working set popular
+		for (int round = 0; round < 5; round++) {
+			for (int i = 0; i < size / 2; i++) {
+				if (cache.get(i) == null) cache.put(i, i);
+			}
+		}
+		// scan many keys which are each requested only once
+		for (int i = 1000; i < 3000; i++) {
+			if (cache.get(i) == null) cache.put(i, i);
+		}
+		int kept = 0;
+		for (int i = 0; i < size / 2; i++) {
+			if (cache.get(i) != null) kept++;
+		}
+		assertTrue("Only " + kept + " popular entries were kept", kept >= size *
+			0.4);
+		assertTrue(cache.size() <= size);
+
+		// the same scan flushes a plain LRU cache
+		cache.clear();
+		cache.setPolicy(Policy.LRU);
+		for (int i = 0; i < size / 2; i++) {
+			cache.put(i, i);
+		}
+		for (int i = 1000; i < 3000; i++) {
+			cache.put(i, i);
+		}
+		assertNull(cache.get(0));
+	}
+
+	@Test
+	public void testWeakKeys() throws InterruptedException {
+		final BoundedCache cache = new BoundedCache(10, Policy.LRU, true);
+		assertTrue(cache.isWeakKeys());
+		Object key = new Object();
+		cache.put(key, "value");
+		cache.put(null, "nothing");
+		cache.put(new String("a"), 1);
+		// equal keys find the entry, like those of a WeakHashMap
+		assertEquals(1, cache.get("a"));
+		assertEquals("value", cache.get(key));
+		assertEquals("nothing", cache.get(null));
+		assertEquals(3, cache.getWeight());
+
+		final WeakReference<Object> ref = new WeakReference<>(key);
+		key = null;
+		for (int i = 0; i < 100 && ref.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertNull(ref.get());
+		for (int i = 0; i < 100 && cache.size() > 1; i++) {
+			cache.cleanUp();
+			Thread.sleep(10);
+		}
+		// NB: The null key is never collected.
+		assertEquals(1, cache.size());
+		assertEquals(1, cache.getWeight());
+		assertEquals("nothing", cache.get(null));
+
+		cache.remove(null);
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getWeight());
+	}
+
+	@Test
+	public void testTimeToLive() {
+		final AtomicLong time = new AtomicLong();
+		final BoundedCache cache = new BoundedCache(10, Policy.TINY_LFU,
+			time::get);
+		cache.put("forever", 0);
+		cache.setTimeToLive(5, TimeUnit.SECONDS);
+		assertEquals(5000, cache.getTimeToLive(TimeUnit.MILLISECONDS));
+		cache.put("a", 1);
+		cache.put("b", 2);
+		time.addAndGet(TimeUnit.SECONDS.toNanos(4));
+		assertEquals(1, cache.get("a"));
+		time.addAndGet(TimeUnit.SECONDS.toNanos(1));
+		assertNull(cache.get("a"));
+		assertEquals(2, cache.size());
+		cache.cleanUp();
+		assertEquals(1, cache.size());
+		assertEquals(0, cache.get("forever"));
+		assertEquals(2, cache.getStats().getExpirationCount());
+	}
+
+	@Test
+	public void testConcurrentAccess() throws InterruptedException {
+		final BoundedCache cache = new BoundedCache(64, Policy.TINY_LFU);
+		final List<Thread> threads = new ArrayList<>();
+		final List<Throwable> errors = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			final int seed = t;
+			final Thread thread = new Thread(() -> {
+				for (int i = 0; i < 20000; i++) {
+					final Integer key = (i * 31 + seed) % 200;
+					final Object value = cache.get(key);
+					if (value == null) cache.put(key, key);
+					else if (!value.equals(key)) {
+						synchronized (errors) {
+							errors.add(new AssertionError(key + " -> " + value));
+						}
+					}
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		assertTrue(errors.toString(), errors.isEmpty());
+		assertTrue(cache.size() <= 64);
+		assertEquals(cache.size(), cache.getWeight());
+	}
+
+	@Test
+	public void testLoad() throws Exception {
+		final BoundedCache cache = new BoundedCache(10, Policy.TINY_LFU);
+		final AtomicInteger calls = new AtomicInteger();
+		final CountDownLatch release = new CountDownLatch(1);
+		final Callable<String> loader = () -> {
+			calls.incrementAndGet();
+			release.await();
+			return "value";
+		};
+		final int threadCount = 8;
+		final List<Thread> threads = new ArrayList<>();
+		final List<Object> results = new ArrayList<>();
+		for (int t = 0; t < threadCount; t++) {
+			threads.add(new Thread(() -> {
+				try {
+					final String value = cache.get("key", loader);
+					synchronized (results) {
+						results.add(value);
+					}
+				}
+				catch (final ExecutionException exc) {
+					synchronized (results) {
+						results.add(exc);
+					}
+				}
+			}));
+		}
+		for (final Thread thread : threads)
+			thread.start();
+		// NB: Give every thread the chance to join the load before it completes.
+		while (calls.get() == 0 || cache.getStats().getMissCount() < threadCount) {
+			Thread.sleep(1);
+		}
+		release.countDown();
+		for (final Thread thread : threads)
+			thread.join();
+
+		assertEquals(1, calls.get());
+		assertEquals(threadCount, results.size());
+		for (final Object result : results)
+			assertEquals("value", result);
+		assertEquals("value", cache.get("key", loader));
+		assertEquals(1, calls.get());
+		assertEquals(1, cache.getStats().getLoadCount());
+	}
+
+	@Test
+	public void testLoadFailure() throws ExecutionException {
+		final BoundedCache cache = new BoundedCache(10, Policy.LRU);
+		final IOException failure = new IOException("no value");
+		try {
+			cache.get("key", () -> {
+				throw failure;
+			});
+			fail("Expected ExecutionException");
+		}
+		catch (final ExecutionException exc) {
+			assertSame(failure, exc.getCause());
+		}
+		assertEquals(1, cache.getStats().getLoadFailureCount());
+
+		// failures and null values are not cached
+		assertNull(cache.get("key", () -> null));
+		assertEquals("value", cache.get("key", () -> "value"));
+		assertEquals(3, cache.getStats().getLoadCount());
+		assertEquals(1, cache.size());
+
+		try {
+			cache.get("self", () -> cache.get("self", () -> "value"));
+			fail("Expected ExecutionException");
+		}
+		catch (final ExecutionException exc) {
+			assertTrue(exc.getCause() instanceof IllegalStateException);
+		}
+	}
+
+	@Test
+	public void testCacheServiceLoad() throws Exception {
+		final Context context = new Context(CacheService.class);
+		try {
+			final CacheService cacheService = context.service(CacheService.class);
+			final AtomicInteger calls = new AtomicInteger();
+			final CountDownLatch release = new CountDownLatch(1);
+			final Callable<String> loader = () -> {
+				calls.incrementAndGet();
+				release.await();
+				return "value";
+			};
+			final Future<String> first = cacheService.getAsync("key", loader);
+			final Future<String> second = cacheService.getAsync("key", loader);
+			release.countDown();
+			assertEquals("value", first.get());
+			assertEquals("value", second.get());
+			assertEquals("value", cacheService.get("key", loader));
+			assertTrue(cacheService.getAsync("key", loader).isDone());
+			assertEquals(1, calls.get());
+		}
+		finally {
+			context.dispose();
+		}
+	}
+
+	@Test
+	public void testCacheService() {
+		final Context context = new Context(CacheService.class);
+		try {
+			final CacheService cacheService = context.service(CacheService.class);
+			final Object key = new Object();
+			cacheService.put(key, "value");
+			assertEquals("value", cacheService.get(key));
+			cacheService.remove(key);
+			assertNull(cacheService.get(key));
+			final CacheStats stats = cacheService.getStats();
+			assertEquals(1, stats.getHitCount());
+			assertEquals(1, stats.getMissCount());
+			final BoundedCache cache = ((DefaultCacheService) cacheService)
+				.getCache();
+			assertSame(stats, cache.getStats());
+			assertTrue(cache.isWeakKeys());
+			assertFalse(new BoundedCache(1, Policy.LRU).isWeakKeys());
+		}
+		finally {
+			context.dispose();
+		}
+	}
+
+}
@@ -0,0 +1,273 @@
+/*
+ * #%L
+ * SciJava Common shared library for SciJava software.
+ * %%
+ * Copyright (C) 2009 - 2026 SciJava developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package org.scijava.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.scijava.Context;
+import org.scijava.io.handle.DataHandle;
+import org.scijava.io.handle.DataHandleService;
+import org.scijava.io.location.BytesLocation;
+import org.scijava.io.location.Location;
+import org.scijava.service.event.ServicesLoadedEvent;
+
+/**
+ * Tests {@link DefaultEventHistory}.
+ */
+public class EventHistoryTest {
+
+	private Context context;
+	private EventService eventService;
+	private EventHistory eventHistory;
+	private final List<String> occurred = new ArrayList<>();
+
+	@Before
+	public void setUp() {
+		context = new Context(EventService.class, EventHistory.class,
+			DataHandleService.class);
+		eventService = context.service(EventService.class);
+		eventHistory = context.service(EventHistory.class);
+		eventHistory.addListener(details -> {
+			if (isTestEvent(details.getEventType().getName())) {
+				occurred.add(details.getEventString());
+			}
+		});
+	}
+
+	@After
+	public void tearDown() {
+		context.dispose();
+	}
+
+	@Test
+	public void testCapacity() throws IOException {
+		assertEquals(DefaultEventHistory.DEFAULT_CAPACITY, eventHistory
+			.getCapacity());
+		// NB: Keep the context's own startup event from taking up room.
+		eventHistory.setExcluded(Collections.singleton(ServicesLoadedEvent.class));
+		eventHistory.setCapacity(3);
+		assertEquals(3, eventHistory.getCapacity());
+		for (int i = 1; i <= 5; i++) {
+			eventService.publish(new NamedEvent("e" + i));
+		}
+		assertEquals(Arrays.asList("e1", "e2", "e3", "e4", "e5"), occurred);
+		assertEquals(Arrays.asList("e3", "e4", "e5"), exported(null));
+
+		// shrinking the history keeps the newest events
+		eventHistory.setCapacity(2);
+		assertEquals(Arrays.asList("e4", "e5"), exported(null));
+
+		eventHistory.clear();
+		assertEquals(Collections.emptyList(), exported(null));
+		eventService.publish(new NamedEvent("e6"));
+		assertEquals(Arrays.asList("e6"), exported(null));
+	}
+
+	@Test
+	public void testResizeWhileRecording() throws Exception {
+		eventHistory.setExcluded(Collections.singleton(ServicesLoadedEvent.class));
+		eventHistory.setCapacity(2);
+		eventService.publish(new NamedEvent("a"));
+		eventService.publish(new NamedEvent("b"));
+		eventHistory.setCapacity(5);
+		eventService.publish(new NamedEvent("c"));
+		assertEquals(Arrays.asList("a", "b", "c"), exported(null));
+
+		// no event is lost while the history is resized
+		final int threads = 4, count = 2000;
+		eventHistory.setCapacity(2 * threads * count);
+		final Thread[] publishers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			final int id = t;
+			publishers[t] = new Thread(() -> {
+				for (int i = 0; i < count; i++) {
+					eventService.publish(new NamedEvent(id + ":" + i));
+				}
+			});
+			publishers[t].start();
+		}
+		for (int i = 0; publishers[threads - 1].isAlive() || i < 10; i++) {
+			eventHistory.setCapacity(2 * threads * count + i % 2);
+		}
+		for (final Thread publisher : publishers) {
+			publisher.join();
+		}
+		assertEquals(threads * count + 3, exported(null).size());
+	}
+
+	@Test
+	public void testClearReleasesEvents() throws InterruptedException {
+		final List<WeakReference<EventDetails>> recorded = Collections
+			.synchronizedList(new ArrayList<>());
+		eventHistory.addListener(details -> recorded.add(new WeakReference<>(
+			details)));
+		eventService.publish(new NamedEvent("x"));
+		assertFalse(recorded.isEmpty());
+		eventHistory.clear();
+		for (int i = 0; i < 100 && recorded.stream().anyMatch(r -> r
+			.get() != null); i++)
+		{
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertTrue(recorded.stream().allMatch(r -> r.get() == null));
+	}
+
+	@Test
+	public void testExcluded() throws IOException {
+		eventHistory.setExcluded(Collections.singleton(NamedEvent.class));
+		eventService.publish(new NamedEvent("a"));
+		eventService.publish(new SubNamedEvent("b"));
+		eventService.publish(new OtherEvent("c"));
+		assertEquals(Arrays.asList("c"), occurred);
+		assertEquals(Arrays.asList("c"), exported(null));
+
+		eventHistory.setExcluded(null);
+		eventService.publish(new SubNamedEvent("d"));
+		assertEquals(Arrays.asList("c", "d"), exported(null));
+		assertEquals(Arrays.asList("d"), exported(new HashSet<>(Arrays.asList(
+			OtherEvent.class))));
+	}
+
+	@Test
+	public void testExport() throws IOException {
+		eventService.publish(new NamedEvent("say \"hi\"\n\tthere"));
+		final List<String> lines = exportLines(null);
+		lines.removeIf(line -> !line.contains(NamedEvent.class.getName()));
+		assertEquals(1, lines.size());
+		final String line = lines.get(0);
+		assertTrue(line, line.matches("\\{\"timestamp\":\\d+,\"type\":\"" +
+			NamedEvent.class.getName().replace("$", "\\$") +
+			"\",\"event\":\"say \\\\\"hi\\\\\"\\\\n\\\\tthere\"\\}"));
+		assertTrue(eventHistory.toHTML(null, null).contains("say"));
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Checks whether the event type is one of ours.
+	 * <p>
+	 * NB: The context publishes some events of its own asynchronously, which
+	 * may land in the history while a test is running.
+	 * </p>
+	 */
+	private static boolean isTestEvent(final String eventType) {
+		return eventType.startsWith(EventHistoryTest.class.getName() + "$");
+	}
+
+	/** Exports the history, and extracts the event strings. */
+	private List<String> exported(
+		final Set<Class<? extends SciJavaEvent>> filtered)
+		throws IOException
+	{
+		final List<String> events = new ArrayList<>();
+		for (final String line : exportLines(filtered)) {
+			if (!isTestEvent(line.substring(line.indexOf("\"type\":\"") + 8))) {
+				continue;
+			}
+			final String prefix = "\"event\":\"";
+			final int start = line.indexOf(prefix) + prefix.length();
+			events.add(line.substring(start, line.length() - 2));
+		}
+		return events;
+	}
+
+	private List<String> exportLines(
+		final Set<Class<? extends SciJavaEvent>> filtered)
+		throws IOException
+	{
+		final DataHandleService dataHandleService = context.service(
+			DataHandleService.class);
+		try (final DataHandle<Location> handle = dataHandleService.create(
+			new BytesLocation(0)))
+		{
+			eventHistory.export(handle, filtered);
+			handle.seek(0);
+			final List<String> lines = new ArrayList<>();
+			while (handle.offset() < handle.length()) {
+				lines.add(handle.readLine());
+			}
+			return lines;
+		}
+	}
+
+	// -- Helper classes --
+
+	public static class NamedEvent extends SciJavaEvent {
+
+		private final String name;
+
+		public NamedEvent(final String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	public static class SubNamedEvent extends NamedEvent {
+
+		public SubNamedEvent(final String name) {
+			super(name);
+		}
+	}
+
+	public static class OtherEvent extends SciJavaEvent {
+
+		private final String name;
+
+		public OtherEvent(final String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+}
@@ -30,16 +30,29 @@
 package org.scijava.event;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 import org.scijava.Context;
+import org.scijava.log.LogLevel;
+import org.scijava.log.LogService;
+import org.scijava.log.TestLogListener;
 import org.scijava.service.AbstractService;
 import org.scijava.service.event.ServicesLoadedEvent;
+import org.scijava.thread.ThreadService;
 
 /**
  * Verifies that the SciJava event service works as expected.
@@ -94,6 +107,151 @@ public class EventServiceTest {
 		assertTrue(snaeService.isContextCreated());
 	}
 
+	/**
+	 * Tests that event handler methods of any visibility, static or not and
+	 * with or without a return value are invoked.
+	 */
+	@Test
+	public void testEventHandlerInvocation() {
+		final Context context = new Context(EventService.class);
+		final EventService eventService = context.getService(EventService.class);
+		final VariousEventHandlers handlers = new VariousEventHandlers();
+		assertEquals(5, eventService.subscribe(handlers).size());
+
+		eventService.publish(new MyEvent());
+		eventService.publish(new MyEvent());
+		assertEquals(2 * 4, counter);
+		assertEquals(2, VariousEventHandlers.staticCount);
+		context.dispose();
+	}
+
+	/** Tests coalescing of events published with {@code publishLater}. */
+	@Test
+	public void testCoalescing() throws InterruptedException {
+		final Context context = new Context(EventService.class);
+		final EventService eventService = context.getService(EventService.class);
+		final KeyedEventHandler handler = new KeyedEventHandler();
+		eventService.subscribe(handler);
+
+		eventService.coalesce(KeyedEvent.class, e -> e.key);
+		publishHeld(context, "a1", "a2", "b1", "a3", "b2");
+		assertEquals(Arrays.asList("a3", "b2"), handler.delivered);
+
+		handler.delivered.clear();
+		eventService.coalesce(KeyedEvent.class, e -> e.key, (pending,
+			latest) -> new KeyedEvent(pending.key, pending.value + latest.value));
+		handler.contexts.clear();
+		publishHeld(context, "a1", "b2", "a3");
+		assertEquals(Arrays.asList("a13", "b2"), handler.delivered);
+		// merged events are published like any other
+		assertEquals(Arrays.asList(context, context), handler.contexts);
+		assertFalse(handler.callingThreads.contains(null));
+
+		handler.delivered.clear();
+		eventService.stopCoalescing(KeyedEvent.class);
+		publishHeld(context, "a1", "a2");
+		assertEquals(Arrays.asList("a1", "a2"), handler.delivered);
+		context.dispose();
+	}
+
+	/** Tests delivery of events published later via a ring buffer. */
+	@Test
+	public void testRingBuffer() throws InterruptedException {
+		final Context context = new Context(EventService.class);
+		final DefaultEventService eventService = (DefaultEventService) context
+			.service(EventService.class);
+		final KeyedEventHandler handler = new KeyedEventHandler();
+		eventService.subscribe(handler);
+
+		eventService.useRingBuffer(16, RingBufferDispatcher.WaitStrategy.BLOCKING);
+		assertTrue(eventService.isRingBuffer());
+		final List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			eventService.publishLater(new KeyedEvent("a", "" + i));
+			expected.add("a" + i);
+		}
+		eventService.useThreadPool();
+		assertFalse(eventService.isRingBuffer());
+		final long deadline = System.currentTimeMillis() + 10000;
+		while (handler.delivered.size() < expected.size() && System
+			.currentTimeMillis() < deadline)
+		{
+			Thread.sleep(1);
+		}
+		assertEquals(expected, handler.delivered);
+		context.dispose();
+	}
+
+	/** Tests recording of event metrics and reporting of slow handlers. */
+	@Test
+	public void testMetrics() throws InterruptedException {
+		final Context context = new Context(EventService.class);
+		final DefaultEventService eventService = (DefaultEventService) context
+			.service(EventService.class);
+		final TestLogListener listener = new TestLogListener();
+		context.service(LogService.class).addLogListener(listener);
+		final KeyedEventHandler handler = new KeyedEventHandler();
+		eventService.subscribe(handler);
+		final SlowEventHandler slowHandler = new SlowEventHandler();
+		eventService.subscribe(slowHandler);
+		assertNull(eventService.getMetrics());
+
+		eventService.setMetricsEnabled(true);
+		final EventMetrics metrics = eventService.getMetrics();
+		metrics.setSlowThreshold(10);
+		eventService.publish(new KeyedEvent("a", "1"));
+		eventService.publish(new KeyedEvent("a", "2"));
+		eventService.publish(new MyEvent());
+		publishHeld(context, "b1", "b2", "b3");
+
+		assertEquals(5, metrics.getPublishCount(KeyedEvent.class));
+		assertEquals(1, metrics.getPublishCount(MyEvent.class));
+		assertEquals(5, metrics.getLatency(KeyedEvent.class).getCount());
+		assertEquals(3, metrics.getMaxQueueDepth());
+		assertEquals(0, metrics.getQueueDepth());
+
+		final EventMetrics.Timing keyed = metrics.getHandlerTimes().get(
+			KeyedEventHandler.class.getName() + "#onEvent");
+		assertEquals(5, keyed.getCount());
+		final String slowName = SlowEventHandler.class.getName() + "#onEvent";
+		final EventMetrics.Timing slow = metrics.getHandlerTimes().get(slowName);
+		assertEquals(1, slow.getCount());
+		assertTrue(slow.getMax() >= 20_000_000);
+		assertTrue(listener.hasLogged(m -> m.level() == LogLevel.WARN && m.text()
+			.startsWith("Slow event handler: " + slowName)));
+		final String keyedName = KeyedEventHandler.class.getName();
+		assertFalse(listener.hasLogged(m -> m.text().contains(keyedName)));
+		assertTrue(metrics.report().contains(KeyedEvent.class.getName()));
+
+		eventService.setMetricsEnabled(false);
+		assertNull(eventService.getMetrics());
+		context.dispose();
+	}
+
+	/**
+	 * Publishes the given events with {@code publishLater} while the (single)
+	 * thread delivering them is blocked, then waits for their delivery.
+	 */
+	private void publishHeld(final Context context, final String... events)
+		throws InterruptedException
+	{
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		context.service(ThreadService.class).setExecutorService(executor);
+		final CountDownLatch latch = new CountDownLatch(1);
+		executor.submit(() -> {
+			latch.await();
+			return null;
+		});
+		final EventService eventService = context.service(EventService.class);
+		for (final String event : events) {
+			eventService.publishLater(new KeyedEvent(event.substring(0, 1), event
+				.substring(1)));
+		}
+		latch.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+	}
+
 	private static void gc() {
 		System.gc();
 		// for some reason, some systems need extra encouragement to collect their garbage
@@ -115,6 +273,77 @@ public class EventServiceTest {
 		}
 	}
 
+	private static class KeyedEvent extends SciJavaEvent {
+
+		private final String key;
+		private final String value;
+
+		public KeyedEvent(final String key, final String value) {
+			this.key = key;
+			this.value = value;
+		}
+	}
+
+	public static class KeyedEventHandler {
+
+		private final List<String> delivered = Collections.synchronizedList(
+			new ArrayList<>());
+		private final List<Context> contexts = Collections.synchronizedList(
+			new ArrayList<>());
+		private final List<Thread> callingThreads = Collections.synchronizedList(
+			new ArrayList<>());
+
+		@EventHandler
+		public void onEvent(final KeyedEvent e) {
+			delivered.add(e.key + e.value);
+			contexts.add(e.getContext());
+			callingThreads.add(e.getCallingThread());
+		}
+	}
+
+	public static class SlowEventHandler {
+
+		@EventHandler
+		public void onEvent(@SuppressWarnings("unused") final MyEvent e)
+			throws InterruptedException
+		{
+			Thread.sleep(20);
+		}
+	}
+
+	public static class VariousEventHandlers {
+
+		private static int staticCount;
+
+		@EventHandler
+		private void onPrivate(final MyEvent e) {
+			e.inc();
+		}
+
+		@EventHandler
+		protected void onProtected(final MyEvent e) {
+			e.inc();
+		}
+
+		@EventHandler
+		void onPackagePrivate(final MyEvent e) {
+			e.inc();
+		}
+
+		@EventHandler
+		public boolean onReturning(final MyEvent e) {
+			e.inc();
+			return true;
+		}
+
+		@EventHandler
+		public static void onStatic(
+			@SuppressWarnings("unused") final MyEvent e)
+		{
+			staticCount++;
+		}
+	}
+
 	public static class ServiceNeedingAnEventService extends AbstractService {
 
 		private boolean contextCreated;
@@ -0,0 +1,193 @@
+/*
+ * #%L
+ * SciJava Common shared library for SciJava software.
+ * %%
+ * Copyright (C) 2009 - 2026 SciJava developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package org.scijava.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import org.scijava.event.RingBufferDispatcher.WaitStrategy;
+
+/**
+ * Tests {@link RingBufferDispatcher}.
+ */
+public class RingBufferDispatcherTest {
+
+	@Test
+	public void testCapacity() {
+		final RingBufferDispatcher dispatcher = new RingBufferDispatcher(100,
+			WaitStrategy.BLOCKING, (event, time) -> {}, Thread::new, null);
+		assertEquals(128, dispatcher.capacity());
+		assertEquals(WaitStrategy.BLOCKING, dispatcher.getWaitStrategy());
+		dispatcher.shutdown();
+	}
+
+	@Test
+	public void testOrder() throws InterruptedException {
+		for (final WaitStrategy waitStrategy : WaitStrategy.values()) {
+			final List<Object> delivered = new ArrayList<>();
+			final RingBufferDispatcher dispatcher = new RingBufferDispatcher(4,
+				waitStrategy, (event, time) -> delivered.add(event), Thread::new,
+				null);
+			final List<Object> expected = new ArrayList<>();
+			for (int i = 0; i < 1000; i++) {
+				dispatcher.publish(i);
+				expected.add(i);
+			}
+			dispatcher.shutdown();
+			assertTrue(dispatcher.awaitTermination(10000));
+			assertEquals(waitStrategy.toString(), expected, delivered);
+			assertEquals(0, dispatcher.size());
+		}
+	}
+
+	/** Tests many publishers contending for a small ring buffer. */
+	@Test
+	public void testConcurrentPublishers() throws InterruptedException {
+		final List<Object> delivered = new ArrayList<>();
+		final RingBufferDispatcher dispatcher = new RingBufferDispatcher(8,
+			WaitStrategy.BLOCKING, (event, time) -> delivered.add(event),
+			Thread::new, null);
+		final int threadCount = 4, eventCount = 5000;
+		final Thread[] threads = new Thread[threadCount];
+		for (int t = 0; t < threadCount; t++) {
+			final int offset = t * eventCount;
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < eventCount; i++) {
+					dispatcher.publish(offset + i);
+				}
+			});
+			threads[t].start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		dispatcher.shutdown();
+		assertTrue(dispatcher.awaitTermination(10000));
+
+		assertEquals(threadCount * eventCount, delivered.size());
+		// events of each publisher arrive in the order they were published
+		final int[] last = new int[threadCount];
+		for (int t = 0; t < threadCount; t++) {
+			last[t] = t * eventCount - 1;
+		}
+		for (final Object event : delivered) {
+			final int i = (Integer) event;
+			assertEquals(last[i / eventCount] + 1, i);
+			last[i / eventCount] = i;
+		}
+	}
+
+	/** Tests that the dispatcher thread can publish into its own full ring. */
+	@Test
+	public void testReentrantPublish() throws InterruptedException {
+		final List<Object> delivered = Collections.synchronizedList(
+			new ArrayList<>());
+		final AtomicReference<RingBufferDispatcher> ref = new AtomicReference<>();
+		final RingBufferDispatcher dispatcher = new RingBufferDispatcher(2,
+			WaitStrategy.SLEEPING, (event, time) -> {
+				delivered.add(event);
+				if ("start".equals(event)) {
+					for (int i = 0; i < 10; i++) {
+						ref.get().publish(i);
+					}
+				}
+			}, Thread::new, null);
+		ref.set(dispatcher);
+		dispatcher.publish("start");
+		while (delivered.size() < 11) {
+			Thread.sleep(1);
+		}
+		dispatcher.shutdown();
+		assertTrue(dispatcher.awaitTermination(10000));
+		assertEquals(11, delivered.size());
+	}
+
+	/** Tests that an exception thrown by the consumer does not stop delivery. */
+	@Test
+	public void testConsumerException() throws InterruptedException {
+		final List<Object> delivered = new ArrayList<>();
+		final RingBufferDispatcher dispatcher = new RingBufferDispatcher(4,
+			WaitStrategy.YIELDING, (event, time) -> {
+				if (event == null) throw new NullPointerException();
+				delivered.add(event);
+			}, Thread::new, null);
+		dispatcher.publish("a");
+		dispatcher.publish(null);
+		dispatcher.publish("b");
+		dispatcher.shutdown();
+		assertTrue(dispatcher.awaitTermination(10000));
+		assertEquals(2, delivered.size());
+
+		// publishing after shutdown is refused
+		assertFalse(dispatcher.publish("c"));
+		assertEquals(2, delivered.size());
+	}
+
+	/** Tests that every event accepted while shutting down is delivered. */
+	@Test
+	public void testShutdownRace() throws InterruptedException {
+		final List<Object> delivered = Collections.synchronizedList(
+			new ArrayList<>());
+		final RingBufferDispatcher dispatcher = new RingBufferDispatcher(4,
+			WaitStrategy.BLOCKING, (event, time) -> delivered.add(event),
+			Thread::new, null);
+		final int threadCount = 4;
+		final AtomicInteger accepted = new AtomicInteger();
+		final Thread[] threads = new Thread[threadCount];
+		for (int t = 0; t < threadCount; t++) {
+			threads[t] = new Thread(() -> {
+				while (dispatcher.publish("event")) {
+					accepted.incrementAndGet();
+				}
+			});
+			threads[t].start();
+		}
+		while (accepted.get() < 1000) {
+			Thread.sleep(1);
+		}
+		dispatcher.shutdown();
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		assertTrue(dispatcher.isShutdown());
+		assertTrue(dispatcher.awaitTermination(10000));
+		assertEquals(accepted.get(), delivered.size());
+	}
+
+}
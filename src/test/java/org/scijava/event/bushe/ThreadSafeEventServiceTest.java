@@ -0,0 +1,250 @@
+/*
+ * #%L
+ * SciJava Common shared library for SciJava software.
+ * %%
+ * Copyright (C) 2009 - 2026 SciJava developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package org.scijava.event.bushe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link ThreadSafeEventService}.
+ */
+public class ThreadSafeEventServiceTest {
+
+	private final List<String> calls = new ArrayList<>();
+
+	/** Tests that publication sees subscription changes made after it began. */
+	@Test
+	public void testSubscriptionChanges() {
+		final ThreadSafeEventService eventService = new ThreadSafeEventService();
+		final Recorder any = new Recorder("any", 0);
+		final Recorder exact = new Recorder("exact", 0);
+		eventService.subscribeStrongly(Object.class, any);
+
+		eventService.publish("a");
+		assertEquals(Arrays.asList("any:a"), calls);
+
+		eventService.subscribeExactlyStrongly(String.class, exact);
+		eventService.publish("b");
+		assertEquals(Arrays.asList("any:a", "exact:b", "any:b"), calls);
+
+		eventService.publish(5);
+		assertEquals(Arrays.asList("any:a", "exact:b", "any:b", "any:5"), calls);
+
+		eventService.unsubscribe(Object.class, any);
+		eventService.publish("c");
+		eventService.publish(6);
+		assertEquals(Arrays.asList("any:a", "exact:b", "any:b", "any:5",
+			"exact:c"), calls);
+	}
+
+	/** Tests that prioritized subscribers are called in priority order. */
+	@Test
+	public void testPriorities() {
+		final ThreadSafeEventService eventService = new ThreadSafeEventService();
+		eventService.subscribeStrongly(CharSequence.class, new Recorder("late", 5));
+		eventService.subscribeStrongly(String.class, new Recorder("fifo1", 0));
+		eventService.subscribeExactlyStrongly(String.class, new Recorder("early",
+			-5));
+		eventService.publish("x");
+		eventService.subscribeStrongly(Object.class, new Recorder("fifo2", 0));
+		eventService.subscribeStrongly(Object.class, new Recorder("earliest",
+			-10));
+		eventService.publish("y");
+		assertEquals(Arrays.asList("early:x", "fifo1:x", "late:x", "earliest:y",
+			"early:y", "fifo1:y", "fifo2:y", "late:y"), calls);
+	}
+
+	/** Tests that vetoes apply to hierarchical and exact subscriptions. */
+	@Test
+	public void testVetoes() {
+		final ThreadSafeEventService eventService = new ThreadSafeEventService();
+		eventService.subscribeStrongly(Object.class, new Recorder("any", 0));
+		final VetoEventListener<Object> vetoLongs =
+			event -> event.toString().length() > 1;
+		eventService.subscribeVetoListenerStrongly(CharSequence.class, vetoLongs);
+		eventService.publish("a");
+		eventService.publish("bb");
+		eventService.publish(10);
+		assertEquals(Arrays.asList("any:a", "any:10"), calls);
+
+		eventService.unsubscribeVetoListener(CharSequence.class, vetoLongs);
+		eventService.subscribeVetoListenerExactlyStrongly(Integer.class,
+			vetoLongs);
+		eventService.publish("bb");
+		eventService.publish(10);
+		assertEquals(Arrays.asList("any:a", "any:10", "any:bb"), calls);
+	}
+
+	/** Tests concurrent publication while subscribers come and go. */
+	@Test
+	public void testConcurrentPublish() throws InterruptedException {
+		final ThreadSafeEventService eventService = new ThreadSafeEventService();
+		final AtomicInteger received = new AtomicInteger();
+		final EventSubscriber<Object> counter = event -> received
+			.incrementAndGet();
+		eventService.subscribeStrongly(Object.class, counter);
+
+		final int threadCount = 4, publishCount = 2000;
+		final CountDownLatch done = new CountDownLatch(threadCount);
+		final List<Throwable> errors = new ArrayList<>();
+		for (int t = 0; t < threadCount; t++) {
+			new Thread(() -> {
+				try {
+					for (int i = 0; i < publishCount; i++) {
+						eventService.publish(i);
+					}
+				}
+				catch (final Throwable exc) {
+					synchronized (errors) {
+						errors.add(exc);
+					}
+				}
+				finally {
+					done.countDown();
+				}
+			}).start();
+		}
+		while (done.getCount() > 0) {
+			final EventSubscriber<Object> other = event -> {};
+			eventService.subscribeStrongly(Number.class, other);
+			eventService.unsubscribe(Number.class, other);
+		}
+		done.await();
+		assertTrue(errors.toString(), errors.isEmpty());
+		assertEquals(threadCount * publishCount, received.get());
+	}
+
+	/** Tests that the event cache keeps the most recent events of each class. */
+	@Test
+	public void testEventCache() {
+		final ThreadSafeEventService eventService = new ThreadSafeEventService();
+		eventService.publish("a");
+		assertNull(eventService.getLastEvent(String.class));
+		assertNull(eventService.getCachedEvents(String.class));
+
+		eventService.setCacheSizeForEventClass(CharSequence.class, 2);
+		eventService.setCacheSizeForEventClass(Number.class, 3);
+		assertEquals(2, eventService.getCacheSizeForEventClass(String.class));
+		assertEquals(3, eventService.getCacheSizeForEventClass(Integer.class));
+		assertEquals(0, eventService.getCacheSizeForEventClass(Object.class));
+		for (int i = 1; i <= 4; i++) {
+			eventService.publish("s" + i);
+			eventService.publish(i);
+		}
+		eventService.publish(new Object());
+		assertEquals("s4", eventService.getLastEvent(String.class));
+		assertEquals(Arrays.asList("s4", "s3"), eventService.getCachedEvents(
+			String.class));
+		assertEquals(Arrays.asList(4, 3, 2), eventService.getCachedEvents(
+			Integer.class));
+		assertNull(eventService.getCachedEvents(Object.class));
+
+		// a resized cache keeps its newest events
+		eventService.setCacheSizeForEventClass(Integer.class, 2);
+		eventService.publish(5);
+		assertEquals(Arrays.asList(5, 4), eventService.getCachedEvents(
+			Integer.class));
+		eventService.setDefaultCacheSizePerClassOrTopic(1);
+		eventService.setCacheSizeForEventClass(Integer.class, 4);
+		eventService.publish(6);
+		eventService.publish(new Object());
+		assertEquals(Arrays.asList(6, 5, 4), eventService.getCachedEvents(
+			Integer.class));
+		assertEquals(1, eventService.getCachedEvents(Object.class).size());
+
+		// a cache lowered to zero is dropped on the next publication
+		eventService.setCacheSizeForEventClass(Integer.class, 0);
+		eventService.publish(7);
+		assertNull(eventService.getLastEvent(Integer.class));
+
+		eventService.clearCache(CharSequence.class);
+		assertNull(eventService.getLastEvent(String.class));
+		eventService.clearCache();
+		assertNull(eventService.getLastEvent(Object.class));
+	}
+
+	/** Tests that the topic cache honors exact and pattern cache sizes. */
+	@Test
+	public void testTopicCache() {
+		final ThreadSafeEventService eventService = new ThreadSafeEventService();
+		eventService.setCacheSizeForTopic(Pattern.compile("t.*"), 2);
+		eventService.setCacheSizeForTopic("tiny", 1);
+		for (int i = 1; i <= 3; i++) {
+			eventService.publish("topic", "d" + i);
+			eventService.publish("tiny", "d" + i);
+			eventService.publish("other", "d" + i);
+		}
+		assertEquals("d3", eventService.getLastTopicData("topic"));
+		assertEquals(Arrays.asList("d3", "d2"), eventService.getCachedTopicData(
+			"topic"));
+		assertEquals(Arrays.asList("d3"), eventService.getCachedTopicData("tiny"));
+		assertNull(eventService.getCachedTopicData("other"));
+
+		eventService.clearCache(Pattern.compile("to.*"));
+		assertNull(eventService.getLastTopicData("topic"));
+		eventService.clearCache("tiny");
+		assertNull(eventService.getLastTopicData("tiny"));
+	}
+
+	// -- Helper classes --
+
+	private class Recorder implements EventSubscriber<Object>, Prioritized {
+
+		private final String name;
+		private final int priority;
+
+		private Recorder(final String name, final int priority) {
+			this.name = name;
+			this.priority = priority;
+		}
+
+		@Override
+		public void onEvent(final Object event) {
+			calls.add(name + ":" + event);
+		}
+
+		@Override
+		public int getPriority() {
+			return priority;
+		}
+	}
+
+}
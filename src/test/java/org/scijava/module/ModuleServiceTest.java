@@ -46,6 +46,9 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.scijava.Context;
+import org.scijava.MenuPath;
+import org.scijava.event.EventService;
+import org.scijava.input.Accelerator;
 import org.scijava.parse.ParseService;
 
 /**
@@ -163,6 +166,52 @@ public class ModuleServiceTest {
 		assertSame(info.getInput("double2"), singleDouble);
 	}
 
+	/**
+	 * Tests {@link ModuleService#getModuleById(String)} and
+	 * {@link ModuleService#getModuleForAccelerator(Accelerator)}.
+	 */
+	@Test
+	public void testLookups() {
+		final FooModuleInfo info = new FooModuleInfo();
+		final String id = "module:" + FooModule.class.getName();
+		final Accelerator acc = Accelerator.create("control F");
+		assertNull(moduleService.getModuleById(id));
+
+		moduleService.addModule(info);
+		assertSame(info, moduleService.getModuleById(id));
+		assertEquals(Arrays.asList(info), moduleService.getIndex()
+			.getModulesByDelegateClassName(FooModule.class.getName()));
+		assertNull(moduleService.getModuleForAccelerator(acc));
+
+		// metadata changes take effect once announced
+		final MenuPath menuPath = new MenuPath("Plugins>Foo");
+		menuPath.getLeaf().setAccelerator(acc);
+		info.setMenuPath(menuPath);
+		info.update(moduleService.context().service(EventService.class));
+		assertSame(info, moduleService.getModuleForAccelerator(acc));
+
+		// unannounced changes do not leave stale entries behind
+		final Accelerator acc2 = Accelerator.create("control G");
+		menuPath.getLeaf().setAccelerator(acc2);
+		assertSame(info, moduleService.getModuleForAccelerator(acc));
+		assertNull(moduleService.getModuleForAccelerator(acc2));
+
+		moduleService.removeModule(info);
+		assertNull(moduleService.getModuleById(id));
+		assertNull(moduleService.getModuleForAccelerator(acc));
+		assertNull(moduleService.getModuleForAccelerator(acc2));
+		assertTrue(moduleService.getIndex().getModulesByDelegateClassName(
+			FooModule.class.getName()).isEmpty());
+
+		// batches are filed too
+		final FooModuleInfo info2 = new FooModuleInfo();
+		moduleService.addModules(Arrays.asList(info, info2));
+		assertEquals(2, moduleService.getIndex().getModulesByDelegateClassName(
+			FooModule.class.getName()).size());
+		moduleService.removeModules(Arrays.asList(info, info2));
+		assertNull(moduleService.getModuleById(id));
+	}
+
 	@Test
 	public void testSaveAndLoad() {
 		List<Object> objects = Arrays.asList( //
@@ -30,9 +30,12 @@ package org.scijava.object;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.Arrays;
+
 import org.junit.Test;
 
 public class NamedObjectIndexTest {
@@ -68,4 +71,41 @@ public class NamedObjectIndexTest {
 		assertEquals(name1, index.getName(obj1));
 		assertEquals(name2, index.getName(obj2));
 	}
+
+	@Test
+	public void testNameLookup() {
+		NamedObjectIndex<String> index = new NamedObjectIndex<>(String.class);
+		String obj1 = "first";
+		String obj2 = "second";
+		assertTrue(index.add(obj1, "name"));
+		assertTrue(index.add(obj2, "name"));
+		assertEquals(obj1, index.getObjectByName("name"));
+		assertEquals(Arrays.asList(obj1, obj2), index.getObjectsByName("name"));
+		assertTrue(index.getObjectsByName("other").isEmpty());
+
+		assertTrue(index.remove(obj1));
+		assertEquals(obj2, index.getObjectByName("name"));
+		assertNull(index.getName(obj1));
+		index.clear();
+		assertNull(index.getObjectByName("name"));
+		assertNull(index.getName(obj2));
+	}
+
+	@Test
+	public void testRename() {
+		NamedObjectIndex<String> index = new NamedObjectIndex<>(String.class);
+		String obj = "object";
+		assertTrue(index.add(obj, "old"));
+		assertTrue(index.add(obj, "new"));
+		assertEquals("new", index.getName(obj));
+		assertNull(index.getObjectByName("old"));
+		assertEquals(Arrays.asList(obj, obj), index.getObjectsByName("new"));
+
+		assertTrue(index.remove(obj));
+		assertEquals(Arrays.asList(obj), index.getObjectsByName("new"));
+		assertTrue(index.remove(obj));
+		assertNull(index.getObjectByName("new"));
+		assertNull(index.getObjectByName("old"));
+		assertNull(index.getName(obj));
+	}
 }
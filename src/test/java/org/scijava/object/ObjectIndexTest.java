@@ -34,11 +34,13 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
 import org.junit.Test;
 
@@ -201,6 +203,74 @@ public class ObjectIndexTest {
 		assertFalse(objectIndex.isEmpty());
 		objectIndex.clear();
 		assertTrue(objectIndex.isEmpty());
+
+		// the index remains usable after clearing
+		objectIndex.add(new Integer(7));
+		assertEquals(1, objectIndex.get(Integer.class).size());
+		assertEquals(1, objectIndex.get(Number.class).size());
+	}
+
+	@Test
+	public void testSnapshots() {
+		final ObjectIndex<Object> objectIndex =
+			new ObjectIndex<>(Object.class);
+		objectIndex.add(new Integer(5));
+		objectIndex.add("quick");
+
+		// repeated reads share the same immutable snapshot
+		final List<Object> numbers = objectIndex.get(Number.class);
+		assertSame(numbers, objectIndex.get(Number.class));
+		try {
+			numbers.add(new Integer(6));
+			fail("Expected UnsupportedOperationException");
+		}
+		catch (final UnsupportedOperationException exc) {
+			// NB: Expected.
+		}
+
+		// writes publish new snapshots for affected types only
+		final List<Object> strings = objectIndex.get(String.class);
+		objectIndex.add(new Float(2.5f));
+		assertEquals(1, numbers.size());
+		assertEquals(2, objectIndex.get(Number.class).size());
+		assertSame(strings, objectIndex.get(String.class));
+		objectIndex.remove("quick");
+		assertEquals(1, strings.size());
+		assertTrue(objectIndex.get(String.class).isEmpty());
+	}
+
+	@Test
+	public void testAddLater() throws InterruptedException {
+		final ObjectIndex<Object> objectIndex =
+			new ObjectIndex<>(Object.class);
+		objectIndex.add("quick");
+
+		// a lazy object which reads the index is resolved only once
+		final List<Object> calls = new ArrayList<>();
+		objectIndex.addLater(() -> {
+			calls.add(objectIndex.getAll());
+			return Arrays.asList(new Integer(5));
+		});
+		assertEquals(2, objectIndex.size());
+		assertEquals(1, calls.size());
+		assertEquals(Arrays.asList("quick"), calls.get(0));
+
+		// a caller holding the index lock does not wait for another thread which
+		// is resolving pending objects, since that thread needs the lock
+		final CountDownLatch requested = new CountDownLatch(1);
+		objectIndex.addLater(() -> {
+			requested.countDown();
+			return Arrays.asList("brown");
+		});
+		final Thread reader = new Thread(() -> objectIndex.get(String.class));
+		synchronized (objectIndex) {
+			reader.start();
+			requested.await();
+			assertEquals(1, objectIndex.get(String.class).size());
+		}
+		reader.join();
+		assertEquals(2, objectIndex.get(String.class).size());
+		assertEquals(3, objectIndex.size());
 	}
 
 	@Test
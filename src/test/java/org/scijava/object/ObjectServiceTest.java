@@ -31,12 +31,21 @@ package org.scijava.object;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.scijava.Context;
+import org.scijava.event.EventService;
+import org.scijava.event.EventHandler;
+import org.scijava.object.event.ObjectsRemovedEvent;
 import org.scijava.plugin.PluginInfo;
 import org.scijava.plugin.SciJavaPlugin;
 
@@ -91,12 +100,142 @@ public class ObjectServiceTest {
 		assertFalse("Object 4 removed", objectService.getObjects(Object.class).contains(obj4));
 	}
 
+	@Test
+	public void testGetObjectByName() {
+		final Object obj1 = new Object();
+		final Double obj2 = 0.5;
+		objectService.addObject(obj1, "shared");
+		objectService.addObject(obj2, "shared");
+		objectService.addObject("unnamed");
+
+		assertSame(obj1, objectService.getObject("shared"));
+		assertSame(obj2, objectService.getObject("shared", Number.class));
+		assertNull(objectService.getObject("unnamed"));
+
+		objectService.removeObject(obj1);
+		assertSame(obj2, objectService.getObject("shared"));
+		objectService.removeObject(obj2);
+		assertNull(objectService.getObject("shared"));
+	}
+
+	@Test
+	public void testMemoryBudget() {
+		final ObjectService service = objectService;
+		final RemovalListener listener = new RemovalListener();
+		context.service(EventService.class).subscribe(listener);
+		final List<Object> removed = listener.removed;
+
+		final byte[] first = new byte[1000], second = new byte[1000];
+		final Object unsized = new Object();
+		service.setMemoryBudget(2500);
+		service.addObject(first, "first");
+		service.addObject(unsized);
+		service.addObject(second);
+		assertEquals(2032, service.getMemoryUsage());
+		assertTrue(removed.isEmpty());
+
+		// exceeding the budget evicts the oldest evictable object
+		final int[] third = new int[250];
+		service.addObject(third);
+		assertEquals(Arrays.asList(first), removed);
+		assertFalse(service.getObjects(Object.class).contains(first));
+		assertNull(service.getObject("first"));
+		assertTrue(service.getObjects(Object.class).contains(unsized));
+		assertEquals(2032, service.getMemoryUsage());
+
+		// removed objects no longer count
+		service.removeObject(second);
+		assertEquals(1016, service.getMemoryUsage());
+		service.setMemoryBudget(1000);
+		assertFalse(service.getObjects(Object.class).contains(third));
+		assertEquals(0, service.getMemoryUsage());
+	}
+
+	@Test
+	public void testMemoryAccounting() {
+		final ObjectService service = objectService;
+		final ObjectSizeEstimator estimator = service.getSizeEstimator();
+		final List<Object> measured = new ArrayList<>();
+		service.setSizeEstimator(obj -> {
+			measured.add(obj);
+			return estimator.estimate(obj);
+		});
+
+		// objects are not measured while they cannot be evicted
+		final byte[] data = new byte[1000];
+		service.addObject(new byte[1000]);
+		assertTrue(measured.isEmpty());
+		assertEquals(0, service.getMemoryUsage());
+
+		// an object counts until its last registration is removed
+		service.setMemoryBudget(5000);
+		service.addObject(data, "first");
+		service.addObject(data, "second");
+		assertEquals(Arrays.asList(data, data), measured);
+		assertEquals(1016, service.getMemoryUsage());
+		service.removeObject(data);
+		assertTrue(service.getObjects(Object.class).contains(data));
+		assertEquals(1016, service.getMemoryUsage());
+		service.removeObject(data);
+		assertFalse(service.getObjects(Object.class).contains(data));
+		assertEquals(0, service.getMemoryUsage());
+	}
+
+	@Test
+	public void testSizeEstimator() {
+		final ObjectSizeEstimator estimator = objectService.getSizeEstimator();
+		assertEquals(1016, estimator.estimate(new byte[1000]));
+		assertEquals(0, estimator.estimate(new Object()));
+		assertEquals(0, estimator.estimate(context));
+
+		// domain objects are measured along with the data they refer to
+		final Sample sample = new Sample(context, new double[100]);
+		final long size = estimator.estimate(sample);
+		assertTrue(size > 816);
+		assertTrue(size < 1000);
+		sample.children.add(new Sample(context, sample.data));
+		sample.children.add(new Sample(context, new double[100]));
+		assertTrue(estimator.estimate(sample) > size + 816);
+		assertTrue(estimator.estimate(sample) < size + 1000);
+	}
+
+	@Test
+	public void testSoftEviction() {
+		assertFalse(objectService.isSoftEviction());
+		objectService.setSoftEviction(true);
+		assertTrue(objectService.isSoftEviction());
+		objectService.setSoftEviction(false);
+		assertFalse(objectService.isSoftEviction());
+	}
+
 	@Test
 	public void testNamedObjectIndex() {
 		ObjectIndex<Object> index = objectService.getIndex();
 		assertTrue(index instanceof NamedObjectIndex);
 	}
 
+	public static class RemovalListener {
+
+		private final List<Object> removed = new ArrayList<>();
+
+		@EventHandler
+		public void onEvent(final ObjectsRemovedEvent event) {
+			removed.addAll(event.getItems());
+		}
+	}
+
+	private static class Sample {
+
+		private final Context context;
+		private final double[] data;
+		private final List<Sample> children = new ArrayList<>();
+
+		private Sample(final Context context, final double[] data) {
+			this.context = context;
+			this.data = data;
+		}
+	}
+
 	private class TestPlugin implements SciJavaPlugin {
 
 	}
@@ -30,9 +30,17 @@
 package org.scijava.object;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Test;
 
@@ -85,4 +93,127 @@ public class SortedObjectIndexTest {
 		assertSame(o1, all.get(5));
 	}
 
+	@Test
+	public void testConcurrentAccess() throws Exception {
+		final SortedObjectIndex<Integer> objectIndex =
+			new SortedObjectIndex<>(Integer.class);
+		final int threadCount = 8, perThread = 500;
+		final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		final List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < threadCount; t++) {
+			final int offset = t * perThread;
+			futures.add(executor.submit(() -> {
+				for (int i = 0; i < perThread; i++) {
+					final Integer value = offset + i;
+					objectIndex.add(value);
+					objectIndex.get(Number.class).size();
+					// remove every other value again
+					if (i % 2 == 1) objectIndex.remove(value);
+				}
+			}));
+		}
+		for (final Future<?> future : futures) future.get();
+		executor.shutdown();
+
+		final List<Integer> all = objectIndex.get(Integer.class);
+		assertEquals(threadCount * perThread / 2, all.size());
+		for (int i = 1; i < all.size(); i++) {
+			assertTrue(all.get(i - 1) < all.get(i));
+		}
+		assertEquals(all, objectIndex.get(Comparable.class));
+	}
+
+	@Test
+	public void testEqualPriorities() {
+		final SortedObjectIndex<Item> objectIndex =
+			new SortedObjectIndex<>(Item.class);
+		final Item a = new Item(1), b = new Item(1), c = new Item(0);
+		final Item d = new Item(1), e = new Item(1);
+		objectIndex.addAll(Arrays.asList(a, b, c));
+		assertEquals(Arrays.asList(c, a, b), objectIndex.getAll());
+
+		// single items precede equal ones; batches keep their relative order
+		objectIndex.add(d);
+		assertEquals(Arrays.asList(c, d, a, b), objectIndex.getAll());
+		objectIndex.addAll(Arrays.asList(e, c));
+		assertEquals(Arrays.asList(c, c, e, d, a, b), objectIndex.getAll());
+
+		assertTrue(objectIndex.remove(c));
+		assertTrue(objectIndex.remove(a));
+		assertFalse(objectIndex.remove(a));
+		assertEquals(Arrays.asList(c, e, d, b), objectIndex.getAll());
+		assertTrue(objectIndex.contains(b));
+		assertFalse(objectIndex.contains(a));
+	}
+
+	@Test
+	public void testManyItems() {
+		final SortedObjectIndex<Item> objectIndex =
+			new SortedObjectIndex<>(Item.class);
+		final List<Item> items = new ArrayList<>();
+		final int count = 50000;
+		for (int i = 0; i < count; i++) {
+			// NB: Few distinct values, as with typical plugin priorities.
+			final Item item = new Item(i % 5);
+			items.add(item);
+			objectIndex.add(item);
+		}
+		for (int i = 0; i < count; i += 2) {
+			assertTrue(objectIndex.remove(items.get(i)));
+		}
+		final List<Item> all = objectIndex.getAll();
+		assertEquals(count / 2, all.size());
+		for (int i = 1; i < all.size(); i++) {
+			assertTrue(all.get(i - 1).compareTo(all.get(i)) <= 0);
+		}
+	}
+
+	@Test
+	public void testBulkCost() {
+		final SortedObjectIndex<Item> objectIndex =
+			new SortedObjectIndex<>(Item.class);
+		final int count = 20000;
+		final Random random = new Random(0xdecaf);
+		final List<Item> batch1 = new ArrayList<>(), batch2 = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			batch1.add(new Item(random.nextInt()));
+			batch2.add(new Item(random.nextInt()));
+		}
+		objectIndex.addAll(batch1);
+		Item.comparisons = 0;
+		objectIndex.addAll(batch2);
+
+		// NB: The batch is sorted once, then merged into each type list in linear
+		// time; sorting it again or inserting item by item per list costs more.
+		final int log = 32 - Integer.numberOfLeadingZeros(count);
+		assertTrue("Comparisons: " + Item.comparisons, //
+			Item.comparisons < 2L * count * log);
+
+		final List<Item> all = objectIndex.getAll();
+		assertEquals(2 * count, all.size());
+		for (int i = 1; i < all.size(); i++) {
+			assertTrue(all.get(i - 1).compareTo(all.get(i)) <= 0);
+		}
+		assertEquals(all, objectIndex.get(Comparable.class));
+	}
+
+	/** A comparable item whose ordering is not consistent with equals. */
+	private static class Item implements Comparable<Item> {
+
+		/** Number of comparisons so far, for measuring the cost of operations. */
+		private static long comparisons;
+
+		private final int value;
+
+		private Item(final int value) {
+			this.value = value;
+		}
+
+		@Override
+		public int compareTo(final Item that) {
+			comparisons++;
+			return Integer.compare(value, that.value);
+		}
+	}
+
 }
@@ -30,12 +30,19 @@
 package org.scijava.plugin;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.junit.Test;
 import org.scijava.Context;
+import org.scijava.service.Service;
 
 /**
  * Tests {@link PluginIndex}.
@@ -106,6 +113,184 @@ public class PluginIndexTest {
 		context.dispose();
 	}
 
+	/** Tests that a frozen index cannot be modified. */
+	@Test
+	public void testFreeze() {
+		final PluginIndex pluginIndex = new PluginIndex();
+		pluginIndex.discover();
+		final int size = pluginIndex.size();
+		pluginIndex.freeze();
+		assertTrue(pluginIndex.isFrozen());
+
+		// NB: Rediscovery is a no-op, rather than a source of duplicates.
+		pluginIndex.discover();
+		assertEquals(size, pluginIndex.size());
+
+		final PluginInfo<SciJavaPlugin> testPlugin =
+			new PluginInfo<>(FooBar.class.getName(), SciJavaPlugin.class);
+		try {
+			pluginIndex.add(testPlugin);
+			fail("Expected UnsupportedOperationException");
+		}
+		catch (final UnsupportedOperationException exc) {
+			// NB: Expected.
+		}
+		try {
+			pluginIndex.remove(pluginIndex.getAll().get(0));
+			fail("Expected UnsupportedOperationException");
+		}
+		catch (final UnsupportedOperationException exc) {
+			// NB: Expected.
+		}
+	}
+
+	/** Tests populating an index from a frozen template index. */
+	@Test
+	public void testTemplate() {
+		final PluginIndex template = new PluginIndex();
+		template.discover();
+		try {
+			PluginIndex.fromTemplate(template);
+			fail("Expected IllegalArgumentException");
+		}
+		catch (final IllegalArgumentException exc) {
+			// NB: Expected.
+		}
+		template.freeze();
+
+		final PluginIndex pluginIndex = PluginIndex.fromTemplate(template);
+		assertTrue(pluginIndex.isEmpty());
+		pluginIndex.discover();
+		assertEquals(classNames(template.getAll()), //
+			classNames(pluginIndex.getAll()));
+		assertEquals(classNames(template.getPlugins(Service.class)), //
+			classNames(pluginIndex.getPlugins(Service.class)));
+
+		// NB: Rediscovery does not duplicate the template's plugins.
+		pluginIndex.discover();
+		assertEquals(template.size(), pluginIndex.size());
+
+		// the plugins are copies, which can be modified independently
+		final PluginInfo<?> info = pluginIndex.getAll().get(0);
+		assertNotSame(template.getAll().get(0), info);
+		info.setEnabled(!info.isEnabled());
+		assertNotEquals(info.isEnabled(), template.getAll().get(0).isEnabled());
+
+		// the copy is independent of the template
+		final PluginInfo<SciJavaPlugin> testPlugin =
+			new PluginInfo<>(FooBar.class.getName(), SciJavaPlugin.class);
+		pluginIndex.add(testPlugin);
+		assertEquals(template.size() + 1, pluginIndex.size());
+		assertTrue(pluginIndex.getAll().contains(testPlugin));
+		assertFalse(template.getAll().contains(testPlugin));
+	}
+
+	/** Tests {@link PluginIndex#createChild()}. */
+	@Test
+	public void testCreateChild() {
+		final PluginIndex parent = new PluginIndex();
+		parent.discover();
+		final PluginIndex child = parent.createChild();
+		assertFalse(parent.isFrozen());
+		assertTrue(child.isEmpty());
+		child.discover();
+		assertEquals(classNames(parent.getAll()), classNames(child.getAll()));
+
+		// the child's plugins are copies, which can be modified independently
+		final PluginInfo<?> info = child.getAll().get(0);
+		assertNotSame(parent.getAll().get(0), info);
+		info.setEnabled(!info.isEnabled());
+		assertNotEquals(info.isEnabled(), parent.getAll().get(0).isEnabled());
+
+		// NB: Rediscovery does not duplicate the plugins.
+		child.discover();
+		assertEquals(parent.size(), child.size());
+	}
+
+	/** Tests {@link Context#createChild()}. */
+	@Test
+	public void testChildContext() {
+		final Context parent = new Context(PluginService.class);
+		final Context child = parent.createChild();
+		assertFalse(parent.getPluginIndex().isFrozen());
+		assertFalse(child.getPluginIndex().isFrozen());
+		assertEquals(classNames(parent.getPluginIndex().getAll()), //
+			classNames(child.getPluginIndex().getAll()));
+
+		// the parent still accepts plugins, which the child does not see
+		final PluginInfo<SciJavaPlugin> testPlugin =
+			new PluginInfo<>(FooBar.class.getName(), SciJavaPlugin.class);
+		parent.service(PluginService.class).addPlugin(testPlugin);
+		assertTrue(parent.getPluginIndex().contains(testPlugin));
+		assertEquals(parent.getPluginIndex().size() - 1, //
+			child.getPluginIndex().size());
+
+		final PluginService parentService = parent.service(PluginService.class);
+		final PluginService childService = child.service(PluginService.class);
+		assertNotSame(parentService, childService);
+		assertSame(child, childService.getContext());
+
+		child.dispose();
+		parent.dispose();
+	}
+
+	/** Tests {@link PluginIndex#getPluginsWithAttr}. */
+	@Test
+	public void testGetPluginsWithAttr() {
+		final PluginIndex pluginIndex = new PluginIndex(null);
+		final PluginInfo<SciJavaPlugin> red =
+			new PluginInfo<>("org.scijava.plugin.Red", SciJavaPlugin.class);
+		red.set("color", "red");
+		final PluginInfo<SciJavaPlugin> blue =
+			new PluginInfo<>("org.scijava.plugin.Blue", SciJavaPlugin.class);
+		blue.set("color", "blue");
+		final PluginInfo<SciJavaPlugin> plain =
+			new PluginInfo<>("org.scijava.plugin.Plain", SciJavaPlugin.class);
+		pluginIndex.add(red);
+		pluginIndex.add(blue);
+		pluginIndex.add(plain);
+
+		final List<PluginInfo<SciJavaPlugin>> reds =
+			pluginIndex.getPluginsWithAttr(SciJavaPlugin.class, "color", "red");
+		assertEquals(1, reds.size());
+		assertSame(red, reds.get(0));
+		assertEquals(2, pluginIndex.getPluginsWithAttr(SciJavaPlugin.class,
+			"color", null).size());
+		// NB: None of these classes exist; they must not have been loaded.
+		assertTrue(pluginIndex.getPluginsWithAttr(SciJavaPlugin.class, "size",
+			null).isEmpty());
+	}
+
+	/** Tests {@link PluginIndex#fingerprint()}. */
+	@Test
+	public void testFingerprint() {
+		final PluginInfo<SciJavaPlugin> foo =
+			new PluginInfo<>("org.scijava.plugin.Foo", SciJavaPlugin.class);
+		final PluginInfo<SciJavaPlugin> bar =
+			new PluginInfo<>("org.scijava.plugin.Bar", SciJavaPlugin.class);
+		final PluginIndex fooBar = new PluginIndex(null);
+		fooBar.add(foo);
+		fooBar.add(bar);
+		final PluginIndex barFoo = new PluginIndex(null);
+		barFoo.add(bar);
+		barFoo.add(foo);
+		assertEquals(fooBar.fingerprint(), barFoo.fingerprint());
+
+		barFoo.remove(foo);
+		assertNotEquals(fooBar.fingerprint(), barFoo.fingerprint());
+	}
+
+	// -- Helper methods --
+
+	private static List<String> classNames(
+		final List<? extends PluginInfo<?>> plugins)
+	{
+		return plugins.stream().map(PluginInfo::getClassName).collect(Collectors
+			.toList());
+	}
+
+	// -- Helper classes --
+
 	/** A dummy plugin for testing the plugin service. */
 	public static class FooBar implements SciJavaPlugin {
 		// NB: No implementation needed.
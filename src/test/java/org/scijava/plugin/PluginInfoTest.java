@@ -30,13 +30,17 @@
 package org.scijava.plugin;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.After;
 import org.junit.Before;
@@ -142,6 +146,65 @@ public class PluginInfoTest {
 		}
 	}
 
+	@Test
+	public void testIsAssignableTo() {
+		// NB: The class does not exist; the answer must come from metadata.
+		final PluginInfo<IceCream> info =
+			new PluginInfo<>("org.scijava.plugin.Sorbet", IceCream.class);
+		info.setSupertypeNames(Arrays.asList(IceCream.class.getName(),
+			SciJavaPlugin.class.getName(), Runnable.class.getName()));
+		assertTrue(info.isAssignableTo(IceCream.class));
+		assertTrue(info.isAssignableTo(SciJavaPlugin.class));
+		assertTrue(info.isAssignableTo(Runnable.class));
+		assertFalse(info.isAssignableTo(Comparable.class));
+		assertNull(info.getPluginClass());
+
+		// without metadata, the class must be loaded, which fails here
+		info.setSupertypeNames(null);
+		assertFalse(info.isAssignableTo(Runnable.class));
+
+		// indexed plugins know their supertypes without loading the class
+		for (final PluginInfo<IceCream> i : pluginIndex.getPlugins(
+			IceCream.class))
+		{
+			final boolean chocolate = i.getClassName().equals(Chocolate.class
+				.getName());
+			if (i.getSupertypeNames() != null) {
+				assertEquals(chocolate, i.getSupertypeNames().contains(IceCream.class
+					.getName()));
+			}
+		}
+		final List<PluginInfo<IceCream>> infos = //
+			pluginIndex.getPluginsAssignableTo(IceCream.class, IceCream.class);
+		assertEquals(1, infos.size());
+		assertEquals(Chocolate.class.getName(), infos.get(0).getClassName());
+	}
+
+	@Test
+	public void testClassLoadLint() throws InstantiableException {
+		final String lint = System.getProperty(ClassLoadLint.LINT_PROPERTY);
+		System.setProperty(ClassLoadLint.LINT_PROPERTY, "true");
+		try {
+			ClassLoadLint.reset();
+			final PluginInfo<IceCream> info =
+				new PluginInfo<>(Chocolate.class.getName(), IceCream.class);
+			info.loadClass();
+			info.loadClass(); // already loaded; not recorded again
+			final Map<String, List<String>> loads = ClassLoadLint.getLoads();
+			assertEquals(1, loads.size());
+			final String site = loads.keySet().iterator().next();
+			assertTrue(site, site.startsWith(getClass().getName() +
+				".testClassLoadLint"));
+			assertEquals(Arrays.asList(Chocolate.class.getName()), loads.get(site));
+			assertTrue(ClassLoadLint.report().contains(Chocolate.class.getName()));
+		}
+		finally {
+			ClassLoadLint.reset();
+			if (lint == null) System.clearProperty(ClassLoadLint.LINT_PROPERTY);
+			else System.setProperty(ClassLoadLint.LINT_PROPERTY, lint);
+		}
+	}
+
 	private void assertPlugin(Class<?> pluginClass, Class<?> pluginType,
 		String name, PluginInfo<?> info) throws InstantiableException
 	{
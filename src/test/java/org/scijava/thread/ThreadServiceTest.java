@@ -29,19 +29,39 @@
 
 package org.scijava.thread;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.scijava.Cancelable;
 import org.scijava.Context;
+import org.scijava.thread.ThreadPoolPolicy.Backpressure;
+import org.scijava.thread.ThreadService.ThreadContext;
+import org.scijava.thread.ThreadService.Workload;
 
 /**
  * Tests the {@link ThreadService}.
@@ -171,6 +191,385 @@ public class ThreadServiceTest {
 		assertSame(Thread.currentThread(), ask.parent);
 	}
 
+	/** Tests {@link ThreadService#getThreadContext(Thread)}. */
+	@Test
+	public void testGetThreadContext() throws Exception {
+		final Thread caller = Thread.currentThread();
+		assertEquals(ThreadContext.NONE, threadService.getThreadContext(caller));
+
+		final Thread worker = threadService.run(Thread::currentThread).get();
+		assertEquals(ThreadContext.SAME, threadService.getThreadContext(worker));
+
+		// the event dispatch thread inherits the context of the calling code
+		final ThreadContext[] results = new ThreadContext[2];
+		threadService.invoke(() -> results[0] = threadService.getThreadContext(
+			Thread.currentThread()));
+		threadService.run(() -> {
+			threadService.invoke(() -> results[1] = threadService.getThreadContext(
+				Thread.currentThread()));
+			return null;
+		}).get();
+		assertEquals(ThreadContext.NONE, results[0]);
+		assertEquals(ThreadContext.SAME, results[1]);
+
+		final Context otherContext = new Context(ThreadService.class);
+		try {
+			final ThreadService other = otherContext.service(ThreadService.class);
+			final Thread otherWorker = other.run(Thread::currentThread).get();
+			assertEquals(ThreadContext.OTHER, threadService.getThreadContext(
+				otherWorker));
+			assertEquals(ThreadContext.SAME, other.getThreadContext(otherWorker));
+			final Thread queued = other.queue("test", Thread::currentThread).get();
+			assertEquals(ThreadContext.OTHER, threadService.getThreadContext(
+				queued));
+		}
+		finally {
+			otherContext.dispose();
+		}
+	}
+
+	/** Tests {@link ThreadService#setVirtualThreads(boolean)}. */
+	@Test
+	public void testVirtualThreads() throws Exception {
+		assertFalse(threadService.isVirtualThreads());
+		if (!DefaultThreadService.isVirtualThreadSupported()) {
+			try {
+				threadService.setVirtualThreads(true);
+				fail("Expected UnsupportedOperationException");
+			}
+			catch (final UnsupportedOperationException exc) {
+				assertFalse(threadService.isVirtualThreads());
+			}
+			return;
+		}
+		threadService.setVirtualThreads(true);
+		assertTrue(threadService.isVirtualThreads());
+
+		final Thread caller = Thread.currentThread();
+		final Thread thread = threadService.run(() -> {
+			assertSame(caller, threadService.getParent(null));
+			assertEquals(ThreadContext.SAME, threadService
+				.getThreadContext(Thread.currentThread()));
+			return Thread.currentThread();
+		}).get();
+		assertTrue(thread.getName().startsWith("SciJava-"));
+		assertEquals(Boolean.TRUE, Thread.class.getMethod("isVirtual").invoke(
+			thread));
+
+		threadService.setVirtualThreads(false);
+		assertFalse(threadService.isVirtualThreads());
+		final Thread platform = threadService.run(Thread::currentThread).get();
+		assertEquals(Boolean.FALSE, Thread.class.getMethod("isVirtual").invoke(
+			platform));
+	}
+
+	/** Tests {@link ThreadService#run(Callable, Workload)}. */
+	@Test
+	public void testWorkloads() throws Exception {
+		assertEquals(ThreadPoolPolicy.unbounded(), threadService.getPoolPolicy(
+			Workload.IO));
+		assertEquals(Runtime.getRuntime().availableProcessors(), threadService
+			.getPoolPolicy(Workload.CPU).getMaxSize());
+
+		final Thread caller = Thread.currentThread();
+		final Thread cpu = threadService.run(() -> {
+			assertSame(caller, threadService.getParent(null));
+			return Thread.currentThread();
+		}, Workload.CPU).get();
+		assertNotSame(caller, cpu);
+		assertEquals(ThreadContext.SAME, threadService
+			.getThreadContext(cpu));
+	}
+
+	/** Tests {@link ThreadService#setPoolPolicy} backpressure settings. */
+	@Test
+	public void testBackpressure() throws Exception {
+		threadService.setPoolPolicy(Workload.IO, new ThreadPoolPolicy(1, 1, 1,
+			Backpressure.CALLER_RUNS));
+		final CountDownLatch release = new CountDownLatch(1);
+		final Runnable blocker = awaiter(release);
+		// occupy the only thread, and fill the queue
+		final Future<?> running = threadService.run(blocker);
+		final Future<?> queued = threadService.run(blocker);
+		final Thread caller = Thread.currentThread();
+		assertSame(caller, threadService.run(Thread::currentThread).get());
+		release.countDown();
+		running.get();
+		queued.get();
+
+		threadService.setPoolPolicy(Workload.CPU, new ThreadPoolPolicy(1, 1, 1,
+			Backpressure.ABORT));
+		final CountDownLatch release2 = new CountDownLatch(1);
+		final Runnable blocker2 = awaiter(release2);
+		threadService.run(blocker2, Workload.CPU);
+		threadService.run(blocker2, Workload.CPU);
+		try {
+			threadService.run(blocker2, Workload.CPU);
+			fail("Expected RejectedExecutionException");
+		}
+		catch (final RejectedExecutionException exc) {
+			// expected
+		}
+		finally {
+			release2.countDown();
+		}
+	}
+
+	/** Tests that replaced pools stay usable, and custom ones stay in use. */
+	@Test
+	public void testPoolReplacement() throws Exception {
+		final ExecutorService pool = threadService.getExecutorService();
+		threadService.setPoolPolicy(Workload.IO, ThreadPoolPolicy.fixed(2));
+		assertNotSame(pool, threadService.getExecutorService());
+		assertFalse(pool.isShutdown());
+		assertEquals("done", pool.submit(() -> "done").get());
+
+		final ExecutorService custom = Executors.newSingleThreadExecutor();
+		try {
+			threadService.setExecutorService(custom);
+			threadService.setPoolPolicy(Workload.IO, ThreadPoolPolicy.fixed(3));
+			assertSame(custom, threadService.getExecutorService());
+			assertFalse(custom.isShutdown());
+			context.dispose();
+			assertFalse(custom.isShutdown());
+			assertTrue(pool.isShutdown());
+		}
+		finally {
+			custom.shutdown();
+		}
+	}
+
+	/** Tests {@link ThreadService#parallelFor}. */
+	@Test
+	public void testParallelFor() {
+		final int size = 10000;
+		final AtomicIntegerArray visits = new AtomicIntegerArray(size);
+		final Thread caller = Thread.currentThread();
+		final Map<Thread, Boolean> workers = new ConcurrentHashMap<>();
+		threadService.parallelFor(0, size, i -> {
+			visits.incrementAndGet(i);
+			final Thread thread = Thread.currentThread();
+			if (thread == caller) return;
+			final boolean known = threadService.getParent(null) == caller &&
+				threadService.getThreadContext(thread) == ThreadContext.SAME;
+			workers.merge(thread, known, Boolean::logicalAnd);
+		});
+		for (int i = 0; i < size; i++) {
+			assertEquals(1, visits.get(i));
+		}
+		assertFalse(workers.containsValue(false));
+
+		// empty and negative ranges
+		threadService.parallelFor(5, 5, i -> fail());
+		final AtomicInteger sum = new AtomicInteger();
+		threadService.parallelFor(-3, 3, sum::addAndGet);
+		assertEquals(-3, sum.get());
+		assertSame(threadService.getForkJoinPool(), threadService
+			.getForkJoinPool());
+
+		// no pool is created after disposal, since it would never be shut down
+		final ForkJoinPool pool = threadService.getForkJoinPool();
+		context.dispose();
+		assertTrue(pool.isShutdown());
+		try {
+			threadService.getForkJoinPool();
+			fail("Expected RejectedExecutionException");
+		}
+		catch (final RejectedExecutionException exc) {
+			// NB: Expected.
+		}
+	}
+
+	/** Tests {@link ThreadService#parallelMap}. */
+	@Test
+	public void testParallelMap() {
+		final List<String> words = Arrays.asList("a", "bb", "ccc", "", "eeeee");
+		assertEquals(Arrays.asList(1, 2, 3, 0, 5), threadService.parallelMap(
+			words, String::length));
+	}
+
+	/** Tests canceling {@link ThreadService#parallelFor}. */
+	@Test
+	public void testParallelForCancel() {
+		final Canceler canceler = new Canceler();
+		final int size = 100000;
+		final AtomicInteger count = new AtomicInteger();
+		try {
+			threadService.parallelFor(0, size, i -> {
+				if (count.incrementAndGet() == 10) canceler.cancel("enough");
+			}, canceler);
+			fail("Expected CancellationException");
+		}
+		catch (final CancellationException exc) {
+			assertEquals("enough", exc.getMessage());
+		}
+		assertTrue(count.get() < size);
+	}
+
+	/** Tests {@link DefaultThreadService#getMetrics()}. */
+	@Test
+	public void testMetrics() throws Exception {
+		final DefaultThreadService service = (DefaultThreadService) threadService;
+		assertNull(service.getMetrics());
+		service.setMetricsEnabled(true);
+		final ThreadMetrics metrics = service.getMetrics();
+
+		threadService.run(() -> {}).get();
+		final ThreadMetrics.Pool io = metrics.getPool("io");
+		assertEquals(1, io.getExecutionTime().getCount());
+		assertEquals(1, io.getLatency().getCount());
+		assertEquals(0, io.getActiveCount());
+
+		// one task runs in the queue's only thread, the other waits
+		final CountDownLatch release = new CountDownLatch(1);
+		final Future<?> running = threadService.queue("q", awaiter(release));
+		final Future<?> waiting = threadService.queue("q", awaiter(release));
+		final ThreadMetrics.Pool q = metrics.getPool("queue:q");
+		while (q.getActiveCount() == 0) {
+			Thread.sleep(1);
+		}
+		assertEquals(1, q.getThreadCount());
+		assertEquals(1, q.getActiveCount());
+		assertEquals(0, q.getIdleCount());
+		assertEquals(1, q.getQueueDepth());
+		release.countDown();
+		running.get();
+		waiting.get();
+		assertEquals(0, q.getActiveCount());
+		assertEquals(0, q.getQueueDepth());
+		assertEquals(2, q.getExecutionTime().getCount());
+
+		threadService.setPoolPolicy(Workload.CPU, new ThreadPoolPolicy(1, 1, 1,
+			Backpressure.ABORT));
+		final CountDownLatch release2 = new CountDownLatch(1);
+		threadService.run(awaiter(release2), Workload.CPU);
+		threadService.run(awaiter(release2), Workload.CPU);
+		try {
+			threadService.run(awaiter(release2), Workload.CPU);
+			fail("Expected RejectedExecutionException");
+		}
+		catch (final RejectedExecutionException exc) {
+			assertEquals(1, metrics.getPool("cpu").getRejectedCount());
+		}
+		finally {
+			release2.countDown();
+		}
+
+		final String report = metrics.report();
+		assertTrue(report, report.contains("queue:q"));
+		assertTrue(report, report.contains("cpu"));
+		metrics.reset();
+		assertEquals(0, metrics.getPool("cpu").getRejectedCount());
+		assertEquals(0, q.getExecutionTime().getCount());
+
+		service.setMetricsEnabled(false);
+		assertNull(service.getMetrics());
+	}
+
+	/** Tests {@link ThreadMetrics.Pool#getQueueDepth()}. */
+	@Test
+	public void testQueueDepth() throws Exception {
+		final DefaultThreadService service = (DefaultThreadService) threadService;
+		service.setMetricsEnabled(true);
+		final ThreadMetrics metrics = service.getMetrics();
+		threadService.setPoolPolicy(Workload.CPU, new ThreadPoolPolicy(1, 1, 1,
+			Backpressure.ABORT));
+
+		final CountDownLatch release = new CountDownLatch(1);
+		final Future<?> running = threadService.run(awaiter(release),
+			Workload.CPU);
+		final ThreadMetrics.Pool cpu = metrics.getPool("cpu");
+		while (cpu.getActiveCount() == 0) {
+			Thread.sleep(1);
+		}
+		final Future<?> waiting = threadService.run(awaiter(release),
+			Workload.CPU);
+		try {
+			threadService.run(awaiter(release), Workload.CPU);
+			fail("Expected RejectedExecutionException");
+		}
+		catch (final RejectedExecutionException exc) {
+			// NB: Expected.
+		}
+		assertEquals(1, cpu.getQueueDepth());
+		metrics.reset();
+		assertEquals(0, cpu.getRejectedCount());
+		assertEquals(1, cpu.getQueueDepth());
+
+		// a task canceled before it starts no longer waits
+		assertTrue(waiting.cancel(false));
+		assertEquals(0, cpu.getQueueDepth());
+		release.countDown();
+		running.get();
+		assertEquals(0, cpu.getActiveCount());
+		assertEquals(0, cpu.getQueueDepth());
+
+		// tasks dropped by shutdownNow are canceled
+		threadService.setPoolPolicy(Workload.IO, ThreadPoolPolicy.fixed(1));
+		final CountDownLatch release2 = new CountDownLatch(1);
+		threadService.run(awaiter(release2));
+		final Future<?> dropped = threadService.run(awaiter(release2));
+		final ThreadMetrics.Pool io = metrics.getPool("io");
+		while (io.getActiveCount() == 0) {
+			Thread.sleep(1);
+		}
+		assertEquals(1, io.getQueueDepth());
+		threadService.getExecutorService().shutdownNow();
+		assertTrue(dropped.isCancelled());
+		assertEquals(0, io.getQueueDepth());
+	}
+
+	/** Tests {@link ThreadMetrics.Histogram} percentiles. */
+	@Test
+	public void testHistogram() throws Exception {
+		final DefaultThreadService service = (DefaultThreadService) threadService;
+		service.setMetricsEnabled(true);
+		final ThreadMetrics.Histogram histogram = service.getMetrics().pool("h",
+			null).getExecutionTime();
+		assertEquals(0, histogram.getPercentile(0.5));
+		final ThreadMetrics.Pool pool = service.getMetrics().getPool("h");
+		for (int i = 0; i < 99; i++) {
+			pool.completed(System.nanoTime() - 1000);
+		}
+		pool.completed(System.nanoTime() - 1_000_000_000);
+		assertEquals(100, histogram.getCount());
+		assertTrue(histogram.getPercentile(0.5) < 1_000_000);
+		assertTrue(histogram.getPercentile(1) >= 1_000_000_000);
+		assertEquals(histogram.getMax(), histogram.getPercentile(1));
+	}
+
+	/** Gets code which waits for the given latch to be released. */
+	private static Runnable awaiter(final CountDownLatch latch) {
+		return () -> {
+			try {
+				latch.await();
+			}
+			catch (final InterruptedException exc) {
+				throw new RuntimeException(exc);
+			}
+		};
+	}
+
+	private static class Canceler implements Cancelable {
+
+		private volatile String reason;
+
+		@Override
+		public boolean isCanceled() {
+			return reason != null;
+		}
+
+		@Override
+		public void cancel(final String reason) {
+			this.reason = reason;
+		}
+
+		@Override
+		public String getCancelReason() {
+			return reason;
+		}
+	}
+
 	private static class AskForParentR implements Runnable {
 
 		private final ThreadService threadService;
@@ -0,0 +1,73 @@
+/*
+ * #%L
+ * SciJava Common shared library for SciJava software.
+ * %%
+ * Copyright (C) 2009 - 2026 SciJava developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package org.scijava.util;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+import org.scijava.plugin.PluginIndex;
+import org.scijava.plugin.PluginInfo;
+import org.scijava.plugin.SciJavaPlugin;
+
+/**
+ * Tests {@link ClassDataSharing}.
+ */
+public class ClassDataSharingTest {
+
+	@Test
+	public void testFingerprint() throws IOException {
+		final File archive = File.createTempFile("scijava-", ".jsa");
+		final File fingerprint = ClassDataSharing.fingerprintFile(archive);
+		try {
+			final PluginIndex pluginIndex = new PluginIndex(null);
+			pluginIndex.add(new PluginInfo<>("org.scijava.util.Foo",
+				SciJavaPlugin.class));
+			assertFalse(ClassDataSharing.isUpToDate(archive, pluginIndex));
+
+			ClassDataSharing.writeFingerprint(archive, pluginIndex);
+			assertTrue(ClassDataSharing.isUpToDate(archive, pluginIndex));
+
+			// adding a plugin invalidates the archive
+			pluginIndex.add(new PluginInfo<>("org.scijava.util.Bar",
+				SciJavaPlugin.class));
+			assertFalse(ClassDataSharing.isUpToDate(archive, pluginIndex));
+		}
+		finally {
+			assertTrue(archive.delete());
+			assertTrue(fingerprint.delete());
+		}
+	}
+
+}